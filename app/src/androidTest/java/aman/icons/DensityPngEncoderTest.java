@@ -0,0 +1,117 @@
+package aman.icons;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import aman.icons.core.SvgConverter;
+import aman.icons.core.ZipExporter;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Every selected bucket and extra size yields exactly one PNG, at the path the resource system
+ * expects and with the pixel size that bucket stands for.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DensityPngEncoderTest {
+
+    static final String SVG =
+            "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                    + " width=\"24\"><path d=\"M480-80q-83 0-156-31.5T197-197q-54-54-85.5-127T80"
+                    + "-480q0-83 31.5-156T197-763q54-54 127-85.5T480-880q83 0 156 31.5T763-763q54"
+                    + " 54 85.5 127T880-480q0 83-31.5 156T763-197q-54 54-127 85.5T480-80Z\"/></svg>";
+
+    private static final int[] BUCKET_PIXELS = {24, 36, 48, 72, 96};
+
+    @Test
+    public void allBucketsRenderAtTheirPixelSize() throws IOException {
+        boolean[] all = {true, true, true, true, true};
+        List<ZipExporter.Entry> entries =
+                new DensityPngEncoder(all, new int[0]).encode("radio_button_unchecked", SVG);
+        assertEquals(DensityPngEncoder.BUCKETS.length, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            ZipExporter.Entry entry = entries.get(i);
+            assertEquals(
+                    "res/drawable-"
+                            + DensityPngEncoder.BUCKETS[i]
+                            + "/"
+                            + SvgConverter.resourceName("radio_button_unchecked")
+                            + ".png",
+                    entry.path);
+            assertPng(entry, BUCKET_PIXELS[i]);
+        }
+    }
+
+    @Test
+    public void onlySelectedBucketsAndExtraSizesAreWritten() throws IOException {
+        boolean[] some = {false, true, false, false, true};
+        List<ZipExporter.Entry> entries =
+                new DensityPngEncoder(some, new int[] {128, 512}).encode("home", SVG);
+        assertEquals(4, entries.size());
+        assertEquals("res/drawable-hdpi/ic_home.png", entries.get(0).path);
+        assertPng(entries.get(0), 36);
+        assertEquals("res/drawable-xxxhdpi/ic_home.png", entries.get(1).path);
+        assertPng(entries.get(1), 96);
+        assertEquals("res/drawable-nodpi/ic_home_128px.png", entries.get(2).path);
+        assertPng(entries.get(2), 128);
+        assertEquals("res/drawable-nodpi/ic_home_512px.png", entries.get(3).path);
+        assertPng(entries.get(3), 512);
+    }
+
+    @Test
+    public void pngNamesMatchVectorEntryNames() throws IOException {
+        List<ZipExporter.Entry> vector = ZipExporter.vectorEncoder(false).encode("home", SVG);
+        List<ZipExporter.Entry> png =
+                new DensityPngEncoder(new boolean[] {true, false, false, false, false}, new int[0])
+                        .encode("home", SVG);
+        String vectorName = vector.get(0).path.substring(vector.get(0).path.lastIndexOf('/') + 1);
+        String pngName = png.get(0).path.substring(png.get(0).path.lastIndexOf('/') + 1);
+        assertEquals(
+                vectorName.substring(0, vectorName.lastIndexOf('.')),
+                pngName.substring(0, pngName.lastIndexOf('.')));
+    }
+
+    @Test
+    public void emptySelectionIsEmpty() {
+        assertTrue(new DensityPngEncoder(new boolean[5], new int[0]).isEmpty());
+        assertFalse(new DensityPngEncoder(new boolean[5], new int[] {64}).isEmpty());
+    }
+
+    @Test
+    public void parseSizesKeepsSaneDistinctSizesInOrder() {
+        assertArrayEquals(
+                new int[] {128, 512, 1024, 64},
+                DensityPngEncoder.parseSizes(" 128, 512 1024,,128 0 -3 4096 abc 64 "));
+        assertArrayEquals(new int[0], DensityPngEncoder.parseSizes(""));
+    }
+
+    @Test(expected = IOException.class)
+    public void unparseableSvgFails() throws IOException {
+        new DensityPngEncoder(new boolean[] {true, false, false, false, false}, new int[0])
+                .encode("broken", "<svg><path d=");
+    }
+
+    private static void assertPng(ZipExporter.Entry entry, int size) {
+        Bitmap bitmap = BitmapFactory.decodeByteArray(entry.data, 0, entry.data.length);
+        assertNotNull(entry.path + " is not a PNG", bitmap);
+        assertEquals(entry.path, size, bitmap.getWidth());
+        assertEquals(entry.path, size, bitmap.getHeight());
+        // The ring must actually be drawn, not just an empty canvas
+        boolean painted = false;
+        for (int y = 0; y < size && !painted; y++) {
+            for (int x = 0; x < size && !painted; x++) {
+                painted = (bitmap.getPixel(x, y) >>> 24) != 0;
+            }
+        }
+        assertTrue(entry.path + " is blank", painted);
+        bitmap.recycle();
+    }
+}
@@ -0,0 +1,47 @@
+package aman.icons;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Cost of one icon's PNG export per density bucket: SVG parse, rasterize and PNG compress, as
+ * run by each ZIP worker. Results land in the benchmark JSON under build/outputs.
+ */
+@RunWith(Parameterized.class)
+public class DensityRenderBenchmark {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> buckets() {
+        List<Object[]> params = new ArrayList<>();
+        for (int i = 0; i < DensityPngEncoder.BUCKETS.length; i++) {
+            params.add(new Object[] {DensityPngEncoder.BUCKETS[i], i});
+        }
+        return params;
+    }
+
+    @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final DensityPngEncoder encoder;
+
+    public DensityRenderBenchmark(String bucket, int index) {
+        boolean[] selected = new boolean[DensityPngEncoder.BUCKETS.length];
+        selected[index] = true;
+        encoder = new DensityPngEncoder(selected, new int[0]);
+    }
+
+    @Test
+    public void encode() throws IOException {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            encoder.encode("radio_button_unchecked", DensityPngEncoderTest.SVG);
+        }
+    }
+}
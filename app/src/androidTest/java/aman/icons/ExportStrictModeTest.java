@@ -0,0 +1,157 @@
+package aman.icons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.StrictMode;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs single-icon saves and a batch export from the main thread under a StrictMode policy that
+ * kills the process on any disk or network access there, so a write, cache read or folder lookup
+ * that slips back onto the UI thread fails the run instead of just logging.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExportStrictModeTest {
+
+    private static final String SVG =
+            "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                    + " width=\"24\"><path d=\"M240-200h120v-240h240v240h120v-360L480-740"
+                    + " 240-560v360Z\"/></svg>";
+    private static final int ICONS = 24;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Context context;
+    private File cacheRoot;
+    private IconDiskCache cache;
+    private ExportWriter writer;
+    private OkHttpClient client;
+    private StrictMode.ThreadPolicy previousPolicy;
+
+    @Before
+    public void setUp() throws Exception {
+        context = instrumentation.getTargetContext();
+        cacheRoot = new File(context.getCacheDir(), "strictmode-test");
+        cache = new IconDiskCache(cacheRoot, IconVariant.DEFAULT);
+        // Every icon is cached, so the export needs no network and only touches disk off-thread
+        for (int i = 0; i < ICONS; i++) cache.saveSvg(name(i), SVG);
+        writer = new ExportWriter(context, mainHandler);
+        // Built here because client setup loads the platform trust store
+        client = new OkHttpClient();
+        instrumentation.runOnMainSync(
+                () -> {
+                    previousPolicy = StrictMode.getThreadPolicy();
+                    StrictMode.setThreadPolicy(
+                            new StrictMode.ThreadPolicy.Builder()
+                                    .detectDiskReads()
+                                    .detectDiskWrites()
+                                    .detectNetwork()
+                                    .penaltyLog()
+                                    .penaltyDeath()
+                                    .build());
+                });
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> StrictMode.setThreadPolicy(previousPolicy));
+        writer.shutdown();
+        File[] files = cacheRoot.listFiles();
+        if (files != null) for (File file : files) deleteRecursively(file);
+    }
+
+    @Test
+    public void singleSavesDoNoMainThreadIo() throws Exception {
+        CountDownLatch finished = new CountDownLatch(3);
+        AtomicInteger callbacks = new AtomicInteger();
+        instrumentation.runOnMainSync(
+                () -> {
+                    writer.setFolder(null);
+                    for (int i = 0; i < 3; i++) {
+                        writer.save(
+                                "ic_strictmode_" + i + ".xml",
+                                "text/xml",
+                                SVG.getBytes(),
+                                new ExportWriter.Callback() {
+                                    @Override
+                                    public void onSaved(String fileName, String location) {
+                                        callbacks.incrementAndGet();
+                                        finished.countDown();
+                                    }
+
+                                    @Override
+                                    public void onFailed(String fileName, Exception e) {
+                                        callbacks.incrementAndGet();
+                                        finished.countDown();
+                                    }
+                                });
+                    }
+                });
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+        assertEquals(3, callbacks.get());
+    }
+
+    @Test
+    public void batchExportDoesNoMainThreadIo() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < ICONS; i++) names.add(name(i));
+        CountDownLatch finished = new CountDownLatch(1);
+        int[] result = new int[3];
+        instrumentation.runOnMainSync(
+                () ->
+                        new BatchExporter(
+                                        client,
+                                        cache,
+                                        writer,
+                                        mainHandler,
+                                        true,
+                                        new BatchExporter.Listener() {
+                                            @Override
+                                            public void onProgress(
+                                                    int done, int failed, int total) {}
+
+                                            @Override
+                                            public void onFinished(
+                                                    int done,
+                                                    int failed,
+                                                    int total,
+                                                    long elapsedMs) {
+                                                result[0] = done;
+                                                result[1] = failed;
+                                                result[2] = total;
+                                                finished.countDown();
+                                            }
+                                        })
+                                .start(names));
+        assertTrue(finished.await(60, TimeUnit.SECONDS));
+        assertEquals(ICONS, result[2]);
+        assertEquals(ICONS, result[0] + result[1]);
+    }
+
+    private static String name(int i) {
+        return "strictmode_" + i;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) deleteRecursively(child);
+        file.delete();
+    }
+}
@@ -0,0 +1,151 @@
+package aman.icons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import aman.icons.core.IconModel;
+import android.graphics.Bitmap;
+import android.os.Debug;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Counts allocations on the main thread across repeated grid binds whose previews are all in the
+ * memory cache. Rebinding a holder to the icon it already shows must allocate nothing; moving a
+ * holder between icons may only allocate what the name TextView update itself allocates.
+ */
+@RunWith(AndroidJUnit4.class)
+public class IconBindAllocationTest {
+
+    private static final int ICONS = 24;
+    private static final int ROUNDS = 50;
+
+    private ActivityScenario<MainActivity> scenario;
+
+    @Before
+    public void setUp() {
+        scenario = ActivityScenario.launch(MainActivity.class);
+        scenario.onActivity(
+                activity -> {
+                    MainViewModel model = new ViewModelProvider(activity).get(MainViewModel.class);
+                    // Keep a late index load from replacing the synthetic list mid-measurement
+                    model.setIndexListener(null);
+                    List<IconModel> icons = new ArrayList<>();
+                    for (int i = 0; i < ICONS; i++) {
+                        icons.add(new IconModel("alloc_test_" + i, Collections.emptyList()));
+                    }
+                    activity.beginPreviewLoadTest(
+                            new File(activity.getCacheDir(), "alloctest"), icons);
+                });
+    }
+
+    @After
+    public void tearDown() {
+        scenario.close();
+    }
+
+    @Test
+    public void rebindingTheSameIconsAllocatesNothing() {
+        scenario.onActivity(
+                activity -> {
+                    RecyclerView grid = activity.findViewById(R.id.recyclerView);
+                    RecyclerView.Adapter adapter = grid.getAdapter();
+                    List<RecyclerView.ViewHolder> holders = warmHolders(activity, grid, ICONS);
+
+                    int allocations =
+                            countAllocations(
+                                    () -> {
+                                        for (int round = 0; round < ROUNDS; round++) {
+                                            for (int i = 0; i < ICONS; i++) {
+                                                adapter.bindViewHolder(holders.get(i), i);
+                                            }
+                                        }
+                                    });
+                    assertEquals(
+                            "allocations across " + ROUNDS * ICONS + " memory-hit binds",
+                            0,
+                            allocations);
+                });
+    }
+
+    @Test
+    public void movingAHolderAcrossIconsOnlyAllocatesForItsLabel() {
+        scenario.onActivity(
+                activity -> {
+                    RecyclerView grid = activity.findViewById(R.id.recyclerView);
+                    RecyclerView.Adapter adapter = grid.getAdapter();
+                    RecyclerView.ViewHolder holder = warmHolders(activity, grid, 1).get(0);
+                    TextView label = holder.itemView.findViewById(R.id.iconName);
+                    String[] names = new String[ICONS];
+                    for (int i = 0; i < ICONS; i++) names[i] = "alloc_test_" + i;
+
+                    int textOnly =
+                            countAllocations(
+                                    () -> {
+                                        for (int round = 0; round < ROUNDS; round++) {
+                                            for (String name : names) label.setText(name);
+                                        }
+                                    });
+                    int binds =
+                            countAllocations(
+                                    () -> {
+                                        for (int round = 0; round < ROUNDS; round++) {
+                                            for (int i = 0; i < ICONS; i++) {
+                                                adapter.bindViewHolder(holder, i);
+                                            }
+                                        }
+                                    });
+                    assertTrue(
+                            binds + " allocations for binds vs " + textOnly + " for labels alone",
+                            binds <= textOnly);
+                });
+    }
+
+    /**
+     * Creates {@code count} holders, binds each holder to its own icon so every preview key is
+     * known, seeds the memory cache with a bitmap per key and binds once more so lazily created
+     * state (preview keys, stable ids, the reusable bitmap drawable) exists before counting.
+     */
+    private static List<RecyclerView.ViewHolder> warmHolders(
+            MainActivity activity, RecyclerView grid, int count) {
+        MainViewModel model = new ViewModelProvider(activity).get(MainViewModel.class);
+        RecyclerView.Adapter adapter = grid.getAdapter();
+        Bitmap bitmap = Bitmap.createBitmap(48, 48, Bitmap.Config.ARGB_8888);
+        List<RecyclerView.ViewHolder> holders = new ArrayList<>();
+        for (int i = 0; i < count; i++) holders.add(adapter.createViewHolder(grid, 0));
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < ICONS; i++) {
+                RecyclerView.ViewHolder holder = holders.get(i % count);
+                adapter.bindViewHolder(holder, i);
+                ImageView preview = holder.itemView.findViewById(R.id.iconPreview);
+                model.memoryCache.put((String) preview.getTag(), bitmap);
+            }
+        }
+        for (int i = 0; i < ICONS; i++) adapter.bindViewHolder(holders.get(i % count), i);
+        return holders;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int countAllocations(Runnable work) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            work.run();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return Debug.getThreadAllocCount();
+    }
+}
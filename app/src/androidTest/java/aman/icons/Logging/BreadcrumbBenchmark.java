@@ -0,0 +1,66 @@
+package aman.icons.Logging;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * What the breadcrumb ring costs a log call. {@code add} is the ring on its own; the two
+ * {@code logCall} cases are a full admitted {@code Log.i} (logcat, LogHub queue and spool) with
+ * the ring on and off, so their difference is the per-call overhead in context.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BreadcrumbBenchmark {
+
+    private static final String TAG = "BreadcrumbBench";
+    private static final String MESSAGE = "Preview bound for radio_button_unchecked at position 42";
+
+    @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Before
+    public void setUp() {
+        // Every call must reach emit(), not be suppressed by the per-tag limit
+        Log.setRateLimit(0, 0);
+        Log.setOverflowPolicy(Log.OverflowPolicy.DROP_OLDEST);
+    }
+
+    @After
+    public void tearDown() {
+        Log.setBreadcrumbs(true);
+        Log.setRateLimit(200, 400);
+    }
+
+    @Test
+    public void add() {
+        Log.Breadcrumbs ring = new Log.Breadcrumbs(64, 160);
+        BenchmarkState state = benchmarkRule.getState();
+        long timestamp = System.currentTimeMillis();
+        while (state.keepRunning()) {
+            ring.add(android.util.Log.INFO, TAG, MESSAGE, timestamp);
+        }
+    }
+
+    @Test
+    public void logCallWithRing() {
+        Log.setBreadcrumbs(true);
+        logCalls();
+    }
+
+    @Test
+    public void logCallWithoutRing() {
+        Log.setBreadcrumbs(false);
+        logCalls();
+    }
+
+    private void logCalls() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Log.i(TAG, MESSAGE);
+        }
+    }
+}
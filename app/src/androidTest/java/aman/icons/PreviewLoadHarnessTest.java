@@ -0,0 +1,91 @@
+package aman.icons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the debug load harness end to end against its local mock server and checks the report:
+ * previews reach the cells before the grid settles, only bound icons are fetched, and a flaky
+ * server costs the failed previews rather than a crash.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PreviewLoadHarnessTest {
+
+    private static final long RUN_TIMEOUT_SECONDS = 120;
+    private static final long SETTLE_MS = 5000;
+
+    @After
+    public void tearDown() {
+        PreviewLoadHarness.listener = null;
+    }
+
+    @Test
+    public void previewsArriveOnceAndBeforeTheGridSettles() throws InterruptedException {
+        PreviewLoadHarness.Report report = run(1500, 40, 20, 0f);
+
+        PreviewStats stats = report.stats;
+        assertEquals(report.toString(), 0, report.serverFailures);
+        assertTrue(report.toString(), stats.boundCount() > 0);
+        assertTrue(report.toString(), stats.shownCount() > 0);
+        assertTrue(report.toString(), stats.shownCount() <= stats.boundCount());
+        // Nothing is fetched for an icon no cell asked for
+        int fetched = report.requests - report.duplicateFetches;
+        assertTrue(report.toString(), fetched <= stats.boundCount());
+        // Rebinding a cell while its fetch is in flight must not go back to the network
+        assertTrue(report.toString(), report.duplicateFetches * 20 <= report.requests);
+        assertTrue(report.toString(), stats.wastedRenderCount() <= stats.renderCount());
+        assertTrue(report.toString(), stats.latencyMs(0.5) <= stats.latencyMs(0.99));
+        assertTrue(report.toString(), stats.latencyMs(0.99) < SETTLE_MS);
+    }
+
+    @Test
+    public void serverFailuresOnlyCostTheFailedPreviews() throws InterruptedException {
+        PreviewLoadHarness.Report report = run(600, 20, 10, 0.3f);
+
+        PreviewStats stats = report.stats;
+        assertTrue(report.toString(), report.serverFailures > 0);
+        assertTrue(report.toString(), stats.shownCount() > 0);
+        assertTrue(report.toString(), stats.shownCount() <= stats.boundCount());
+        // Only successful responses are rendered; a 500 never reaches the parser
+        int succeeded = report.requests - report.serverFailures;
+        assertTrue(report.toString(), stats.renderCount() <= succeeded);
+    }
+
+    private static PreviewLoadHarness.Report run(
+            int cells, int latencyMs, int jitterMs, float failureRate)
+            throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<PreviewLoadHarness.Report> result = new AtomicReference<>();
+        PreviewLoadHarness.listener =
+                report -> {
+                    result.set(report);
+                    finished.countDown();
+                };
+        Intent intent =
+                new Intent(ApplicationProvider.getApplicationContext(), MainActivity.class)
+                        .putExtra(PreviewLoadHarness.EXTRA_ENABLED, true)
+                        .putExtra("cells", cells)
+                        .putExtra("latency_ms", latencyMs)
+                        .putExtra("jitter_ms", jitterMs)
+                        .putExtra("failure_rate", failureRate)
+                        .putExtra("scroll_px_per_frame", 120);
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(intent)) {
+            boolean done = finished.await(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertTrue("load run did not finish", done);
+        }
+        assertNotNull(result.get());
+        return result.get();
+    }
+}
@@ -0,0 +1,93 @@
+package aman.icons;
+
+import android.app.Activity;
+import android.graphics.Typeface;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Debug-only view of {@link Metrics}: a monospaced dump with Refresh and Reset buttons that keep
+ * the dialog open, plus a button that saves the recent {@link PipelineTrace} timelines as JSON
+ * under the app's external files directory. Long-press the variant button to open it.
+ */
+final class MetricsScreen {
+
+    private MetricsScreen() {}
+
+    static boolean show(Activity activity) {
+        int padding = Math.round(16 * activity.getResources().getDisplayMetrics().density);
+        TextView text = new TextView(activity);
+        text.setTypeface(Typeface.MONOSPACE);
+        text.setTextSize(11);
+        text.setTextIsSelectable(true);
+        text.setPadding(padding, padding, padding, padding);
+        text.setText(Metrics.dump());
+        Button saveTraces = new Button(activity);
+        saveTraces.setText("Save traces");
+        saveTraces.setOnClickListener(v -> saveTraces(activity));
+        LinearLayout content = new LinearLayout(activity);
+        content.setOrientation(LinearLayout.VERTICAL);
+        content.addView(text);
+        content.addView(saveTraces);
+        ScrollView scroll = new ScrollView(activity);
+        scroll.addView(content);
+
+        AlertDialog dialog =
+                new AlertDialog.Builder(activity)
+                        .setTitle("Pipeline metrics")
+                        .setView(scroll)
+                        .setPositiveButton("Refresh", null)
+                        .setNeutralButton("Reset", null)
+                        .setNegativeButton("Close", null)
+                        .create();
+        dialog.setOnShowListener(
+                d -> {
+                    dialog.getButton(AlertDialog.BUTTON_POSITIVE)
+                            .setOnClickListener(v -> text.setText(Metrics.dump()));
+                    dialog.getButton(AlertDialog.BUTTON_NEUTRAL)
+                            .setOnClickListener(
+                                    v -> {
+                                        Metrics.reset();
+                                        text.setText(Metrics.dump());
+                                    });
+                });
+        dialog.show();
+        return true;
+    }
+
+    private static void saveTraces(Activity activity) {
+        File base = activity.getExternalFilesDir(null);
+        File dir = new File(base != null ? base : activity.getFilesDir(), "traces");
+        File file = new File(dir, "pipeline-" + System.currentTimeMillis() + ".json");
+        new Thread(
+                        () -> {
+                            String message;
+                            dir.mkdirs();
+                            try (OutputStream out = new FileOutputStream(file)) {
+                                byte[] json =
+                                        PipelineTrace.recentAsJson()
+                                                .getBytes(StandardCharsets.UTF_8);
+                                out.write(json);
+                                message = "Saved " + file.getAbsolutePath();
+                            } catch (IOException e) {
+                                message = "Could not save traces: " + e.getMessage();
+                            }
+                            String toast = message;
+                            activity.runOnUiThread(
+                                    () ->
+                                            Toast.makeText(activity, toast, Toast.LENGTH_LONG)
+                                                    .show());
+                        },
+                        "trace-export")
+                .start();
+    }
+}
@@ -0,0 +1,230 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import aman.icons.core.IconModel;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Toast;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Debug-only load test for the grid preview pipeline. Serves fixture SVGs from a local
+ * {@link MockWebServer} with configurable latency, jitter and failure rate, points the app at
+ * it, fills the grid with synthetic icons and scrolls through them at a fixed speed, then logs
+ * time-to-visible-preview percentiles, duplicate fetches, wasted renders and peak heap.
+ *
+ * <pre>
+ * adb shell am start -n aman.icons/.MainActivity --ez preview_load_test true \
+ *     --ei cells 5000 --ei latency_ms 150 --ei jitter_ms 100 --ef failure_rate 0.02 \
+ *     --ei scroll_px_per_frame 120
+ * </pre>
+ *
+ * <p>A separate disk cache root is used and cleared first, so the user's cache is untouched and
+ * every preview starts cold.
+ */
+final class PreviewLoadHarness {
+
+    static final String EXTRA_ENABLED = "preview_load_test";
+
+    /** Receives each finished run on the main thread, before the app reloads the real list. */
+    interface Listener {
+        void onFinished(Report report);
+    }
+
+    static final class Report {
+        final PreviewStats stats;
+        final int requests;
+        final int duplicateFetches;
+        final int serverFailures;
+
+        Report(PreviewStats stats, int requests, int duplicateFetches, int serverFailures) {
+            this.stats = stats;
+            this.requests = requests;
+            this.duplicateFetches = duplicateFetches;
+            this.serverFailures = serverFailures;
+        }
+
+        @Override
+        public String toString() {
+            return stats.report()
+                    + " requests="
+                    + requests
+                    + " duplicateFetches="
+                    + duplicateFetches
+                    + " serverFailures="
+                    + serverFailures;
+        }
+    }
+
+    static volatile Listener listener;
+
+    private static final String TAG = "PREVIEW_LOAD";
+    private static final long FRAME_MS = 16;
+    private static final long SETTLE_MS = 5000;
+
+    private static final String SVG =
+            "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                    + " width=\"24\"><path d=\"M480-80q-83 0-156-31.5T197-197q-54-54-85.5-127T80"
+                    + "-480q0-83 31.5-156T197-763q54-54 127-85.5T480-880q83 0 156 31.5T763-763q54"
+                    + " 54 85.5 127T880-480q0 83-31.5 156T763-197q-54 54-127 85.5T480-80Zm0-80q134"
+                    + " 0 227-93t93-227q0-134-93-227t-227-93q-134 0-227 93t-93 227q0 134 93 227t227"
+                    + " 93Zm0-320Z\"/></svg>";
+
+    private final MainActivity activity;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final MockWebServer server = new MockWebServer();
+    private final ConcurrentHashMap<String, AtomicInteger> requestsByPath =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final int cells;
+    private final int latencyMs;
+    private final int jitterMs;
+    private final float failureRate;
+    private final int pixelsPerFrame;
+
+    private PreviewStats stats;
+    private int framesLeft;
+
+    private PreviewLoadHarness(MainActivity activity, Intent intent) {
+        this.activity = activity;
+        cells = intent.getIntExtra("cells", 5000);
+        latencyMs = intent.getIntExtra("latency_ms", 150);
+        jitterMs = intent.getIntExtra("jitter_ms", 100);
+        failureRate = intent.getFloatExtra("failure_rate", 0.02f);
+        pixelsPerFrame = intent.getIntExtra("scroll_px_per_frame", 120);
+    }
+
+    static boolean maybeStart(MainActivity activity, Intent intent) {
+        if (intent == null || !intent.getBooleanExtra(EXTRA_ENABLED, false)) return false;
+        new PreviewLoadHarness(activity, intent).start();
+        return true;
+    }
+
+    private void start() {
+        server.setDispatcher(new FixtureDispatcher());
+        File cacheRoot = new File(activity.getCacheDir(), "loadtest");
+        new Thread(
+                        () -> {
+                            try {
+                                server.start();
+                            } catch (IOException e) {
+                                Log.e(TAG, "Mock server failed to start", e);
+                                return;
+                            }
+                            deleteRecursively(cacheRoot);
+                            String base = server.url("/").toString();
+                            Endpoints.override(base + "svg/", base + "metadata");
+                            mainHandler.post(() -> begin(cacheRoot));
+                        },
+                        "preview-load-server")
+                .start();
+    }
+
+    private void begin(File cacheRoot) {
+        List<IconModel> icons = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            icons.add(new IconModel("load_test_" + i, Collections.emptyList()));
+        }
+        stats = PreviewStats.start();
+        activity.beginPreviewLoadTest(cacheRoot, icons);
+        framesLeft = Math.max(1, cells * 40 / Math.max(1, pixelsPerFrame));
+        Log.i(
+                TAG,
+                String.format(
+                        Locale.US,
+                        "Start: %d cells, latency %d+-%dms, failure %.1f%%, %dpx/frame",
+                        cells,
+                        latencyMs,
+                        jitterMs,
+                        failureRate * 100,
+                        pixelsPerFrame));
+        mainHandler.post(this::frame);
+    }
+
+    private void frame() {
+        activity.scrollGridBy(pixelsPerFrame);
+        stats.sampleHeap();
+        if (--framesLeft > 0) {
+            mainHandler.postDelayed(this::frame, FRAME_MS);
+        } else {
+            mainHandler.postDelayed(this::finish, SETTLE_MS);
+        }
+    }
+
+    private void finish() {
+        int requests = 0;
+        int duplicates = 0;
+        for (AtomicInteger count : requestsByPath.values()) {
+            requests += count.get();
+            duplicates += count.get() - 1;
+        }
+        Report report = new Report(stats, requests, duplicates, failures.get());
+        Log.i(TAG, report.toString());
+        Toast.makeText(activity, report.toString(), Toast.LENGTH_LONG).show();
+        Listener l = listener;
+        if (l != null) l.onFinished(report);
+
+        PreviewStats.stop();
+        Endpoints.reset();
+        activity.endPreviewLoadTest();
+        new Thread(
+                        () -> {
+                            try {
+                                server.shutdown();
+                            } catch (IOException ignored) {
+                            }
+                        },
+                        "preview-load-server-stop")
+                .start();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+
+    private final class FixtureDispatcher extends Dispatcher {
+        private final Random random = new Random(7);
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            String path = request.getPath();
+            AtomicInteger count = requestsByPath.get(path);
+            if (count == null) {
+                AtomicInteger created = new AtomicInteger();
+                count = requestsByPath.putIfAbsent(path, created);
+                if (count == null) count = created;
+            }
+            count.incrementAndGet();
+            int delay;
+            boolean fail;
+            synchronized (random) {
+                delay = latencyMs + (jitterMs > 0 ? random.nextInt(jitterMs + 1) : 0);
+                fail = random.nextFloat() < failureRate;
+            }
+            Thread.sleep(delay);
+            if (fail) {
+                failures.incrementAndGet();
+                return new MockResponse().setResponseCode(500);
+            }
+            return new MockResponse().setHeader("Content-Type", "image/svg+xml").setBody(SVG);
+        }
+    }
+}
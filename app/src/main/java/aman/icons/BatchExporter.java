@@ -0,0 +1,226 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import aman.icons.core.SvgConverter;
+import android.os.Handler;
+import android.os.SystemClock;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Exports many icons in one operation as a three-stage pipeline: fetch (disk cache or network,
+ * a few requests in parallel), convert (one worker per core) and write (the shared
+ * {@link ExportWriter} queue, since SAF providers serialize anyway). A semaphore bounds the items
+ * in flight so memory stays flat for large selections. The export folder is resolved once by the
+ * writer, not per file. Path data is optionally shrunk by the path-data optimizer.
+ */
+class BatchExporter {
+
+    interface Listener {
+        void onProgress(int done, int failed, int total);
+
+        void onFinished(int done, int failed, int total, long elapsedMs);
+    }
+
+    private static final String TAG = "ICON_EXPORT";
+    private static final int FETCH_PARALLELISM = 4;
+    private static final int MAX_IN_FLIGHT = 16;
+
+    private final OkHttpClient client;
+    private final IconDiskCache cache;
+    private final ExportWriter writer;
+    private final Handler mainHandler;
+    private final Listener listener;
+    private final boolean optimizePaths;
+
+    private final ExecutorService fetchPool = Executors.newFixedThreadPool(FETCH_PARALLELISM);
+    private final ExecutorService convertPool =
+            Executors.newFixedThreadPool(
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicLong pathBytesSaved = new AtomicLong();
+    private final AtomicBoolean progressPosted = new AtomicBoolean();
+    private volatile boolean cancelled;
+
+    private int total;
+    private long startedAt;
+
+    BatchExporter(
+            OkHttpClient client,
+            IconDiskCache cache,
+            ExportWriter writer,
+            Handler mainHandler,
+            boolean optimizePaths,
+            Listener listener) {
+        this.client = client;
+        this.cache = cache;
+        this.writer = writer;
+        this.mainHandler = mainHandler;
+        this.optimizePaths = optimizePaths;
+        this.listener = listener;
+    }
+
+    void start(List<String> iconNames) {
+        total = iconNames.size();
+        remaining.set(total);
+        startedAt = SystemClock.elapsedRealtime();
+        if (total == 0) {
+            finish();
+            return;
+        }
+
+        Thread feeder =
+                new Thread(
+                        () -> {
+                            int submitted = 0;
+                            try {
+                                for (String name : iconNames) {
+                                    if (cancelled) break;
+                                    inFlight.acquire();
+                                    submitted++;
+                                    PipelineTrace trace = PipelineTrace.begin("export", name);
+                                    fetchPool.execute(() -> fetch(name, trace));
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            int skipped = total - submitted;
+                            if (skipped > 0 && remaining.addAndGet(-skipped) == 0) finish();
+                        },
+                        "batch-export-feeder");
+        feeder.start();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    private void fetch(String name, PipelineTrace trace) {
+        if (cancelled) {
+            complete(trace, false);
+            return;
+        }
+        trace.mark("start");
+        long start = System.nanoTime();
+        PipelineTrace.beginSection("export:fetch");
+        try {
+            String svg = cache.loadSvg(name);
+            trace.mark(svg != null ? "disk_svg_hit" : "disk_svg_miss");
+            if (svg == null) {
+                trace.mark("network_start");
+                Request request = new Request.Builder().url(cache.variant().svgUrl(name)).build();
+                try (Response response = client.newCall(request).execute()) {
+                    if (!response.isSuccessful()) throw new IOException("HTTP " + response.code());
+                    byte[] body = response.body().bytes();
+                    Metrics.EXPORT_BYTES.add(body.length);
+                    svg = new String(body, StandardCharsets.UTF_8);
+                }
+                trace.mark("network_done");
+                cache.saveSvg(name, svg);
+            }
+            Metrics.EXPORT_FETCH.recordSince(start);
+            String fetched = svg;
+            convertPool.execute(() -> convert(name, fetched, trace));
+        } catch (Exception e) {
+            Log.w(TAG, "Fetch failed for " + name + ": " + e.getMessage());
+            complete(trace, false);
+        } finally {
+            PipelineTrace.endSection();
+        }
+    }
+
+    private void convert(String name, String svg, PipelineTrace trace) {
+        if (cancelled) {
+            complete(trace, false);
+            return;
+        }
+        trace.mark("convert_start");
+        byte[] xml;
+        SvgConverter.Options options = new SvgConverter.Options(optimizePaths);
+        long start = System.nanoTime();
+        PipelineTrace.beginSection("export:convert");
+        try {
+            xml = SvgConverter.toVectorDrawableBytes(svg, options);
+            Metrics.EXPORT_CONVERT.recordSince(start);
+        } catch (IOException e) {
+            Log.w(TAG, "Conversion failed for " + name + ": " + e.getMessage());
+            complete(trace, false);
+            return;
+        } finally {
+            PipelineTrace.endSection();
+        }
+        trace.mark("convert_done");
+        if (optimizePaths) {
+            Log.d(
+                    TAG,
+                    "%s: path data %d -> %d",
+                    name,
+                    options.pathBytesIn(),
+                    options.pathBytesOut());
+            pathBytesSaved.addAndGet(options.pathBytesSaved());
+        }
+        if (!writer.enqueue(target -> write(target, name, xml, trace))) complete(trace, false);
+    }
+
+    private void write(ExportTarget target, String name, byte[] xml, PipelineTrace trace) {
+        if (cancelled) {
+            complete(trace, false);
+            return;
+        }
+        trace.mark("write_start");
+        long start = System.nanoTime();
+        PipelineTrace.beginSection("export:write");
+        try {
+            target.write(SvgConverter.fileName(name), "text/xml", xml);
+            Metrics.EXPORT_WRITE.recordSince(start);
+            complete(trace, true);
+        } catch (Exception e) {
+            Log.w(TAG, "Write failed for " + name + ": " + e.getMessage());
+            complete(trace, false);
+        } finally {
+            PipelineTrace.endSection();
+        }
+    }
+
+    private void complete(PipelineTrace trace, boolean success) {
+        trace.finish(success ? "written" : (cancelled ? "cancelled" : "failed"));
+        (success ? done : failed).incrementAndGet();
+        (success ? Metrics.EXPORT_DONE : Metrics.EXPORT_FAILED).inc();
+        inFlight.release();
+        if (remaining.decrementAndGet() == 0) {
+            finish();
+        } else if (progressPosted.compareAndSet(false, true)) {
+            mainHandler.post(
+                    () -> {
+                        progressPosted.set(false);
+                        listener.onProgress(done.get(), failed.get(), total);
+                    });
+        }
+    }
+
+    private void finish() {
+        fetchPool.shutdown();
+        convertPool.shutdown();
+        long elapsedMs = SystemClock.elapsedRealtime() - startedAt;
+        Log.i(
+                TAG,
+                "Exported " + done.get() + "/" + total + " (" + failed.get() + " failed) in "
+                        + elapsedMs + "ms"
+                        + (optimizePaths ? ", " + pathBytesSaved.get() + " path bytes saved" : ""));
+        mainHandler.post(() -> listener.onFinished(done.get(), failed.get(), total, elapsedMs));
+    }
+}
@@ -0,0 +1,386 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import aman.icons.core.IconCatalog;
+import aman.icons.core.IconModel;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.ServiceInfo;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.IBinder;
+import android.os.SystemClock;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Foreground service that downloads every SVG listed in the metadata into {@link IconDiskCache}
+ * and renders its thumbnail, so the grid can be browsed offline afterwards.
+ *
+ * <p>Progress is a low-water mark (every icon below {@code cursor} is cached) persisted in
+ * {@link #PREFS_NAME}. The service is sticky and {@link MainActivity} restarts it when the
+ * {@code active} flag survived a process death, so an interrupted sync resumes from the cursor.
+ * Entries above the cursor that already finished are skipped by the cache check.
+ */
+public class CatalogSyncService extends Service {
+
+    private static final String TAG = "ICON_SYNC";
+
+    static final String ACTION_START = "aman.icons.action.SYNC_START";
+    static final String ACTION_CANCEL = "aman.icons.action.SYNC_CANCEL";
+
+    private static final String PREFS_NAME = "IconSyncPrefs";
+    private static final String KEY_ACTIVE = "active";
+    private static final String KEY_CURSOR = "cursor";
+    private static final String KEY_CURSOR_VARIANT = "cursor_variant";
+    private static final String KEY_LAST_REPORT = "last_report";
+
+    private static final String CHANNEL_ID = "catalog_sync";
+    private static final int NOTIFICATION_ID = 26;
+
+    private static final int PARALLELISM = 4;
+    private static final int REQUESTS_PER_SECOND = 20;
+    private static final int CURSOR_SAVE_INTERVAL = 50;
+
+    private static volatile boolean running;
+
+    private volatile boolean cancelled;
+    private Thread worker;
+
+    static void start(Context context) {
+        Intent intent = new Intent(context, CatalogSyncService.class).setAction(ACTION_START);
+        ContextCompat.startForegroundService(context, intent);
+    }
+
+    static void cancel(Context context) {
+        context.startService(
+                new Intent(context, CatalogSyncService.class).setAction(ACTION_CANCEL));
+    }
+
+    static boolean isRunning() {
+        return running;
+    }
+
+    static boolean isPending(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE).getBoolean(KEY_ACTIVE, false);
+    }
+
+    static String lastReport(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .getString(KEY_LAST_REPORT, null);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_CANCEL.equals(intent.getAction())) {
+            cancelled = true;
+            prefs().edit().putBoolean(KEY_ACTIVE, false).apply();
+            if (!running) stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        // A null intent is a sticky restart after process death: only resume if unfinished.
+        if (intent == null && !prefs().getBoolean(KEY_ACTIVE, false)) {
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        startInForeground(buildNotification("Preparing offline sync...", 0, 0));
+        if (worker == null) {
+            prefs().edit().putBoolean(KEY_ACTIVE, true).apply();
+            cancelled = false;
+            running = true;
+            worker = new Thread(this::runSync, "catalog-sync");
+            worker.start();
+        }
+        return START_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        cancelled = true;
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    private void runSync() {
+        OkHttpClient client = new OkHttpClient();
+        IconVariant variant =
+                IconVariant.fromPrefs(
+                        getSharedPreferences(MainActivity.PREFS_NAME, MODE_PRIVATE));
+        IconDiskCache diskCache = new IconDiskCache(this, variant);
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM);
+        try {
+            List<IconModel> icons = loadCatalog(client);
+            int total = icons.size();
+            if (!variant.key().equals(prefs().getString(KEY_CURSOR_VARIANT, null))) {
+                // The cursor belongs to another variant's namespace; start that one over.
+                prefs().edit()
+                        .putString(KEY_CURSOR_VARIANT, variant.key())
+                        .putInt(KEY_CURSOR, 0)
+                        .apply();
+            }
+            int startCursor = Math.min(prefs().getInt(KEY_CURSOR, 0), total);
+
+            Semaphore inFlight = new Semaphore(PARALLELISM * 2);
+            RateLimiter limiter = new RateLimiter(REQUESTS_PER_SECOND);
+            Progress progress = new Progress(startCursor);
+            AtomicInteger fetched = new AtomicInteger();
+            AtomicInteger skipped = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            AtomicLong bytes = new AtomicLong();
+            long startedAt = SystemClock.elapsedRealtime();
+
+            Log.i(TAG, "Sync of " + variant + " starting at " + startCursor + "/" + total);
+
+            for (int i = startCursor; i < total && !cancelled; i++) {
+                inFlight.acquire();
+                final int index = i;
+                final String name = icons.get(i).name;
+                pool.execute(
+                        () -> {
+                            boolean stored = false;
+                            try {
+                                if (cancelled) return;
+                                if (diskCache.hasThumbnail(name)) {
+                                    skipped.incrementAndGet();
+                                    stored = true;
+                                } else if (syncIcon(client, diskCache, limiter, name, bytes)) {
+                                    fetched.incrementAndGet();
+                                    stored = true;
+                                } else {
+                                    failed.incrementAndGet();
+                                }
+                            } finally {
+                                // Cancelled and failed icons hold the cursor back so a resumed
+                                // sync starts from them rather than past them.
+                                if (stored) {
+                                    int cursor = progress.complete(index);
+                                    if (cursor >= 0) saveCursor(cursor, total);
+                                }
+                                inFlight.release();
+                            }
+                        });
+            }
+
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+            int cursor = progress.cursor();
+            prefs().edit().putInt(KEY_CURSOR, cursor).apply();
+
+            long elapsedMs = Math.max(1, SystemClock.elapsedRealtime() - startedAt);
+            String report =
+                    String.format(
+                            Locale.US,
+                            "%d fetched, %d cached, %d failed in %.1fs, %.1f icons/s, %.1f KB (%.1f KB/s)",
+                            fetched.get(),
+                            skipped.get(),
+                            failed.get(),
+                            elapsedMs / 1000f,
+                            (fetched.get() + skipped.get()) * 1000f / elapsedMs,
+                            bytes.get() / 1024f,
+                            bytes.get() * 1000f / 1024f / elapsedMs);
+            Log.i(TAG, "Sync " + (cancelled ? "paused" : "finished") + ": " + report);
+
+            SharedPreferences.Editor editor = prefs().edit().putString(KEY_LAST_REPORT, report);
+            if (!cancelled) {
+                // A full pass resets the cursor even if the cursor stopped at a failed icon;
+                // failed icons are retried by the next manual sync.
+                editor.putBoolean(KEY_ACTIVE, false).putInt(KEY_CURSOR, 0);
+            }
+            editor.apply();
+
+            notifyDone(cancelled ? "Offline sync paused" : "Offline sync complete", report);
+        } catch (Exception e) {
+            Log.e(TAG, "Sync aborted", e);
+            notifyDone("Offline sync failed", String.valueOf(e.getMessage()));
+        } finally {
+            pool.shutdownNow();
+            running = false;
+            worker = null;
+            ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_DETACH);
+            stopSelf();
+        }
+    }
+
+    private List<IconModel> loadCatalog(OkHttpClient client) throws Exception {
+        if (IconCatalog.metadataFile(getCacheDir()).exists()) {
+            try {
+                return IconCatalog.parse(IconCatalog.readMetadata(getCacheDir()));
+            } catch (Exception e) {
+                Log.w(TAG, "Cached metadata unreadable, refetching", e);
+            }
+        }
+        Request request = new Request.Builder().url(Endpoints.iconListUrl()).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) throw new IOException("HTTP " + response.code());
+            String jsonStr = response.body().string();
+            IconCatalog.writeMetadata(getCacheDir(), jsonStr);
+            return IconCatalog.parse(jsonStr);
+        }
+    }
+
+    private boolean syncIcon(
+            OkHttpClient client,
+            IconDiskCache diskCache,
+            RateLimiter limiter,
+            String name,
+            AtomicLong bytes) {
+        String url = diskCache.variant().svgUrl(name);
+        try {
+            String svg = diskCache.loadSvg(name);
+            if (svg == null) {
+                limiter.acquire();
+                try (Response response =
+                        client.newCall(new Request.Builder().url(url).build()).execute()) {
+                    ResponseBody body = response.body();
+                    if (!response.isSuccessful() || body == null) return false;
+                    byte[] raw = body.bytes();
+                    bytes.addAndGet(raw.length);
+                    svg = new String(raw, StandardCharsets.UTF_8);
+                }
+                diskCache.saveSvg(name, svg);
+            }
+            Bitmap bitmap = SvgRenderer.renderThumbnail(svg);
+            diskCache.saveBitmap(name, bitmap);
+            bitmap.recycle();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to sync " + url + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void saveCursor(int cursor, int total) {
+        prefs().edit().putInt(KEY_CURSOR, cursor).apply();
+        NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        nm.notify(
+                NOTIFICATION_ID,
+                buildNotification("Syncing icons " + cursor + "/" + total, cursor, total));
+    }
+
+    private SharedPreferences prefs() {
+        return getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+    }
+
+    private void startInForeground(android.app.Notification notification) {
+        int type =
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                        ? ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC
+                        : 0;
+        ServiceCompat.startForeground(this, NOTIFICATION_ID, notification, type);
+    }
+
+    private android.app.Notification buildNotification(String text, int progress, int max) {
+        ensureChannel();
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.stat_sys_download)
+                .setContentTitle("Material Icons offline sync")
+                .setContentText(text)
+                .setOnlyAlertOnce(true)
+                .setOngoing(true)
+                .setProgress(max, progress, max == 0)
+                .build();
+    }
+
+    private void notifyDone(String title, String text) {
+        ensureChannel();
+        NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        nm.notify(
+                NOTIFICATION_ID,
+                new NotificationCompat.Builder(this, CHANNEL_ID)
+                        .setSmallIcon(android.R.drawable.stat_sys_download_done)
+                        .setContentTitle(title)
+                        .setContentText(text)
+                        .setStyle(new NotificationCompat.BigTextStyle().bigText(text))
+                        .build());
+    }
+
+    private void ensureChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+            if (nm.getNotificationChannel(CHANNEL_ID) == null) {
+                nm.createNotificationChannel(
+                        new NotificationChannel(
+                                CHANNEL_ID, "Offline sync", NotificationManager.IMPORTANCE_LOW));
+            }
+        }
+    }
+
+    /** Tracks out-of-order completions and exposes the contiguous low-water mark. */
+    private static class Progress {
+        private final BitSet done = new BitSet();
+        private final int base;
+        private int cursor;
+        private int sinceSave;
+
+        Progress(int start) {
+            base = start;
+            cursor = start;
+        }
+
+        /** Returns the new cursor when it is due to be persisted, otherwise -1. */
+        synchronized int complete(int index) {
+            done.set(index - base);
+            while (done.get(cursor - base)) cursor++;
+            if (++sinceSave >= CURSOR_SAVE_INTERVAL) {
+                sinceSave = 0;
+                return cursor;
+            }
+            return -1;
+        }
+
+        synchronized int cursor() {
+            return cursor;
+        }
+    }
+
+    /** Spaces request starts evenly so a full sync doesn't hammer the icon CDN. */
+    private static class RateLimiter {
+        private final long intervalNanos;
+        private long nextSlot;
+
+        RateLimiter(int permitsPerSecond) {
+            intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        }
+
+        void acquire() throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextSlot < now) nextSlot = now;
+                wait = nextSlot - now;
+                nextSlot += intervalNanos;
+            }
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
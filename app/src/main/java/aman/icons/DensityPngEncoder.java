@@ -0,0 +1,95 @@
+package aman.icons;
+
+import aman.icons.core.SvgConverter;
+import aman.icons.core.ZipExporter;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import com.caverock.androidsvg.RenderOptions;
+import com.caverock.androidsvg.SVG;
+import com.caverock.androidsvg.SVGParseException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rasterizes one icon into PNGs for every requested density bucket ({@code res/drawable-*dpi/})
+ * plus any extra pixel sizes ({@code res/drawable-nodpi/ic_*_<size>px.png}). The SVG is parsed
+ * once per icon and that document is rendered at each size; parallelism comes from the
+ * {@link ZipExporter} pool running one icon per worker.
+ */
+final class DensityPngEncoder implements ZipExporter.Encoder {
+
+    /** Density bucket qualifiers and their scale relative to mdpi. */
+    static final String[] BUCKETS = {"mdpi", "hdpi", "xhdpi", "xxhdpi", "xxxhdpi"};
+
+    static final float[] SCALES = {1f, 1.5f, 2f, 3f, 4f};
+
+    private static final int BASE_DP = 24;
+
+    private final boolean[] buckets;
+    private final int[] extraSizes;
+
+    DensityPngEncoder(boolean[] buckets, int[] extraSizes) {
+        this.buckets = buckets.clone();
+        this.extraSizes = extraSizes.clone();
+    }
+
+    boolean isEmpty() {
+        for (boolean b : buckets) if (b) return false;
+        return extraSizes.length == 0;
+    }
+
+    /** Parses "128, 512 1024" into sizes, ignoring anything that is not a sane pixel size. */
+    static int[] parseSizes(String text) {
+        List<Integer> sizes = new ArrayList<>();
+        for (String token : text.trim().split("[\\s,]+")) {
+            try {
+                int size = Integer.parseInt(token);
+                if (size > 0 && size <= 2048 && !sizes.contains(size)) sizes.add(size);
+            } catch (NumberFormatException e) {
+                // skip
+            }
+        }
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) result[i] = sizes.get(i);
+        return result;
+    }
+
+    @Override
+    public List<ZipExporter.Entry> encode(String iconName, String svgText) throws IOException {
+        SVG svg;
+        try {
+            svg = SVG.getFromString(svgText);
+        } catch (SVGParseException e) {
+            throw new IOException(e);
+        }
+        String file = SvgConverter.resourceName(iconName);
+        List<ZipExporter.Entry> entries = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        for (int i = 0; i < BUCKETS.length; i++) {
+            if (!buckets[i]) continue;
+            int size = Math.round(BASE_DP * SCALES[i]);
+            String path = "res/drawable-" + BUCKETS[i] + "/" + file + ".png";
+            entries.add(new ZipExporter.Entry(path, render(svg, size, buffer)));
+        }
+        for (int size : extraSizes) {
+            String path = "res/drawable-nodpi/" + file + "_" + size + "px.png";
+            entries.add(new ZipExporter.Entry(path, render(svg, size, buffer)));
+        }
+        return entries;
+    }
+
+    private static byte[] render(SVG svg, int size, ByteArrayOutputStream buffer) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        try {
+            RenderOptions options = RenderOptions.create().viewPort(0, 0, size, size);
+            svg.renderToCanvas(new Canvas(bitmap), options);
+            buffer.reset();
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, buffer);
+            return buffer.toByteArray();
+        } finally {
+            bitmap.recycle();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package aman.icons;
+
+import aman.icons.core.IconCatalog;
+
+/**
+ * Remote endpoints used by the grid, exports and sync. They can be redirected at runtime so debug
+ * harnesses can point the real pipeline at a local server.
+ */
+final class Endpoints {
+
+    static final String DEFAULT_SVG_BASE_URL = "https://fonts.gstatic.com/s/i/short-term/release/";
+
+    private static volatile String svgBaseUrl = DEFAULT_SVG_BASE_URL;
+    private static volatile String iconListUrl = IconCatalog.ICON_LIST_URL;
+
+    private Endpoints() {}
+
+    static String svgBaseUrl() {
+        return svgBaseUrl;
+    }
+
+    static String iconListUrl() {
+        return iconListUrl;
+    }
+
+    static void override(String svgBase, String iconList) {
+        svgBaseUrl = svgBase;
+        iconListUrl = iconList;
+    }
+
+    static void reset() {
+        override(DEFAULT_SVG_BASE_URL, IconCatalog.ICON_LIST_URL);
+    }
+}
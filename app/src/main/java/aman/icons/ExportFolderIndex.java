@@ -0,0 +1,85 @@
+package aman.icons;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory map of the export folder's children, built with a single {@link DocumentsContract}
+ * children query and kept current as files are created. Existing names are overwritten in place
+ * ("wt") instead of producing "ic_x (1).xml" duplicates. Not thread-safe: it lives on the
+ * {@link ExportWriter} thread and is dropped whenever the folder changes.
+ */
+class ExportFolderIndex {
+
+    private final ContentResolver resolver;
+    private final Uri dirUri;
+    private final Map<String, Uri> children = new HashMap<>();
+
+    private ExportFolderIndex(ContentResolver resolver, Uri dirUri) {
+        this.resolver = resolver;
+        this.dirUri = dirUri;
+    }
+
+    /** Returns the index, or null if the folder is gone or no longer accessible. */
+    static ExportFolderIndex build(ContentResolver resolver, Uri treeUri) {
+        try {
+            String dirId = DocumentsContract.getTreeDocumentId(treeUri);
+            Uri dirUri = DocumentsContract.buildDocumentUriUsingTree(treeUri, dirId);
+            Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri, dirId);
+            ExportFolderIndex index = new ExportFolderIndex(resolver, dirUri);
+            try (Cursor c =
+                    resolver.query(
+                            childrenUri,
+                            new String[] {
+                                DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+                                DocumentsContract.Document.COLUMN_DISPLAY_NAME
+                            },
+                            null,
+                            null,
+                            null)) {
+                if (c == null) return null;
+                while (c.moveToNext()) {
+                    index.children.put(
+                            c.getString(1),
+                            DocumentsContract.buildDocumentUriUsingTree(treeUri, c.getString(0)));
+                }
+            }
+            return index;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    int size() {
+        return children.size();
+    }
+
+    void write(String fileName, String mimeType, byte[] content) throws IOException {
+        Uri existing = children.get(fileName);
+        if (existing != null) {
+            try (OutputStream out = resolver.openOutputStream(existing, "wt")) {
+                if (out == null) throw new FileNotFoundException(existing.toString());
+                out.write(content);
+                return;
+            } catch (FileNotFoundException e) {
+                // Deleted behind our back; fall through and recreate it.
+                children.remove(fileName);
+            }
+        }
+
+        Uri created = DocumentsContract.createDocument(resolver, dirUri, mimeType, fileName);
+        if (created == null) throw new IOException("createDocument failed for " + fileName);
+        children.put(fileName, created);
+        try (OutputStream out = resolver.openOutputStream(created)) {
+            if (out == null) throw new FileNotFoundException(created.toString());
+            out.write(content);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package aman.icons;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.provider.MediaStore;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Destination for exported files: the folder picked through SAF, or Downloads when there is none
+ * or writing into it fails. {@link #resolve} indexes the folder once (see
+ * {@link ExportFolderIndex}) so later writes cost no child queries and overwrite existing files.
+ */
+class ExportTarget {
+
+    static final String LOCATION_FOLDER = "folder";
+    static final String LOCATION_DOWNLOADS = "Downloads";
+
+    private final ContentResolver resolver;
+    private final ExportFolderIndex folder;
+
+    private ExportTarget(ContentResolver resolver, ExportFolderIndex folder) {
+        this.resolver = resolver;
+        this.folder = folder;
+    }
+
+    static ExportTarget resolve(Context context, Uri treeUri) {
+        ContentResolver resolver = context.getContentResolver();
+        ExportFolderIndex folder =
+                treeUri != null ? ExportFolderIndex.build(resolver, treeUri) : null;
+        return new ExportTarget(resolver, folder);
+    }
+
+    boolean hasFolder() {
+        return folder != null;
+    }
+
+    /** Writes one file and returns {@link #LOCATION_FOLDER} or {@link #LOCATION_DOWNLOADS}. */
+    String write(String fileName, String mimeType, byte[] content) throws IOException {
+        if (folder != null) {
+            try {
+                folder.write(fileName, mimeType, content);
+                return LOCATION_FOLDER;
+            } catch (Exception e) {
+            }
+        }
+        writeToDownloads(fileName, mimeType, content);
+        return LOCATION_DOWNLOADS;
+    }
+
+    private void writeToDownloads(String fileName, String mimeType, byte[] content)
+            throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
+            values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
+            values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
+            Uri uri = resolver.insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
+            if (uri == null) throw new IOException("MediaStore insert failed");
+            try (OutputStream out = resolver.openOutputStream(uri)) {
+                if (out == null) throw new IOException("Cannot open " + uri);
+                out.write(content);
+            }
+        } else {
+            File path =
+                    Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+            File file = new File(path, fileName);
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(content);
+            }
+        }
+    }
+}
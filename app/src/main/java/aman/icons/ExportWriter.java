@@ -0,0 +1,95 @@
+package aman.icons;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Serialized write queue for everything that lands in the export folder. All SAF and MediaStore
+ * work ({@code fromTreeUri}, {@code createFile}, {@code openOutputStream}, {@code insert}) runs on
+ * one background thread, and result callbacks are delivered on the main thread only. The resolved
+ * {@link ExportTarget} is reused until the folder changes; if the folder could not be indexed,
+ * that write goes to Downloads and the next one tries the folder again. Once {@link #shutdown()}
+ * has run, new work is refused without throwing: saves report a failure and {@link #enqueue}
+ * returns false, so exporters still draining after the owner is cleared can count the item as
+ * failed.
+ */
+class ExportWriter {
+
+    interface Callback {
+        void onSaved(String fileName, String location);
+
+        void onFailed(String fileName, Exception e);
+    }
+
+    /** Work that runs on the write thread against the current target. */
+    interface TargetTask {
+        void run(ExportTarget target);
+    }
+
+    private final Context context;
+    private final Handler mainHandler;
+    private final ExecutorService queue = Executors.newSingleThreadExecutor();
+
+    private Uri treeUri;
+    private ExportTarget target;
+
+    ExportWriter(Context context, Handler mainHandler) {
+        this.context = context.getApplicationContext();
+        this.mainHandler = mainHandler;
+    }
+
+    void setFolder(Uri uri) {
+        submit(
+                () -> {
+                    treeUri = uri;
+                    target = null;
+                });
+    }
+
+    void save(String fileName, String mimeType, byte[] content, Callback callback) {
+        boolean queued =
+                submit(
+                        () -> {
+                            try {
+                                String location = target().write(fileName, mimeType, content);
+                                mainHandler.post(() -> callback.onSaved(fileName, location));
+                            } catch (Exception e) {
+                                mainHandler.post(() -> callback.onFailed(fileName, e));
+                            }
+                        });
+        if (!queued) {
+            Exception e = new RejectedExecutionException("Export queue is shut down");
+            mainHandler.post(() -> callback.onFailed(fileName, e));
+        }
+    }
+
+    /** Returns false, without running {@code task}, if the queue has been shut down. */
+    boolean enqueue(TargetTask task) {
+        return submit(() -> task.run(target()));
+    }
+
+    void shutdown() {
+        queue.shutdown();
+    }
+
+    private boolean submit(Runnable work) {
+        try {
+            queue.execute(work);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private ExportTarget target() {
+        if (target != null) return target;
+        ExportTarget resolved = ExportTarget.resolve(context, treeUri);
+        // A failed children query must not pin the session to Downloads
+        if (treeUri == null || resolved.hasFolder()) target = resolved;
+        return resolved;
+    }
+}
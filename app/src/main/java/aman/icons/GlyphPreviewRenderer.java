@@ -0,0 +1,160 @@
+package aman.icons;
+
+import aman.icons.core.IconModel;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Preview engine that rasterizes icons from the Material Symbols font instead of fetching one SVG
+ * per icon. The font is loaded once, from a downloaded copy or a file the user picked, and glyphs
+ * are drawn by codepoint with the ligature name as a fallback. Export still goes through the SVG.
+ * Glyphs are drawn on the renderer's own thread and delivered on the main thread, so binding a
+ * cell never rasterizes.
+ */
+class GlyphPreviewRenderer {
+
+    interface Callback {
+        void onRendered(Bitmap bitmap);
+    }
+
+    static final String FONT_URL =
+            "https://github.com/google/material-design-icons/raw/master/variablefont/"
+                    + "MaterialSymbolsOutlined%5BFILL,GRAD,opsz,wght%5D.ttf";
+
+    private static final String FONT_FILE = "material_symbols.ttf";
+
+    private final File fontFile;
+    private final Handler mainHandler;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect bounds = new Rect();
+    private volatile Typeface typeface;
+
+    GlyphPreviewRenderer(Context context, Handler mainHandler) {
+        fontFile = new File(context.getFilesDir(), FONT_FILE);
+        this.mainHandler = mainHandler;
+        paint.setColor(Color.WHITE);
+        paint.setTextSize(SvgRenderer.THUMBNAIL_SIZE);
+        paint.setFontFeatureSettings("'liga' 1");
+    }
+
+    boolean isReady() {
+        return typeface != null;
+    }
+
+    boolean hasFontFile() {
+        return fontFile.exists() && fontFile.length() > 0;
+    }
+
+    /** Loads the stored font file; returns false if it is missing or not a usable font. */
+    boolean load() {
+        if (typeface != null) return true;
+        if (!hasFontFile()) return false;
+        try {
+            Typeface tf = Typeface.createFromFile(fontFile);
+            if (tf == null || tf == Typeface.DEFAULT) return false;
+            synchronized (paint) {
+                paint.setTypeface(tf);
+            }
+            typeface = tf;
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    void download(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(FONT_URL).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) throw new IOException("HTTP " + response.code());
+            install(response.body().byteStream());
+        }
+    }
+
+    void sideLoad(Context context, Uri uri) throws IOException {
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            install(in);
+        }
+    }
+
+    private void install(InputStream in) throws IOException {
+        File tmp = new File(fontFile.getParentFile(), FONT_FILE + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+        }
+        if (!tmp.renameTo(fontFile)) {
+            tmp.delete();
+            throw new IOException("Could not install font");
+        }
+        typeface = null;
+        if (!load()) {
+            fontFile.delete();
+            throw new IOException("Not a valid font file");
+        }
+    }
+
+    /**
+     * Draws the glyph for {@code icon} centered in a thumbnail-sized bitmap. Fill, weight, grade
+     * and optical size come from the font's variation axes on API 26+; the style is whatever
+     * family the loaded font file is.
+     */
+    Bitmap render(IconModel icon, IconVariant variant) {
+        String text =
+                icon.codepoint > 0 ? new String(Character.toChars(icon.codepoint)) : icon.name;
+        int size = SvgRenderer.THUMBNAIL_SIZE;
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        synchronized (paint) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                paint.setFontVariationSettings(variant.fontVariationSettings());
+            }
+            paint.getTextBounds(text, 0, text.length(), bounds);
+            float x = (size - bounds.width()) / 2f - bounds.left;
+            float y = (size - bounds.height()) / 2f - bounds.top;
+            canvas.drawText(text, x, y, paint);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Renders on the renderer's thread and posts the bitmap to {@code callback} on the main
+     * thread. Does nothing once {@link #shutdown()} has run.
+     */
+    void renderAsync(IconModel icon, IconVariant variant, Callback callback) {
+        try {
+            executor.execute(
+                    () -> {
+                        Bitmap bitmap = render(icon, variant);
+                        mainHandler.post(() -> callback.onRendered(bitmap));
+                    });
+        } catch (RejectedExecutionException e) {
+            // Cleared; no cell is waiting for it
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
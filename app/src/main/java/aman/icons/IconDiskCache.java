@@ -0,0 +1,96 @@
+package aman.icons;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thumbnail PNGs and raw SVGs stored under {@code cache/icons/<variant key>/}, keyed by icon
+ * name. Writes go through a temp file and a rename so the grid and the sync service never read a
+ * half-written entry.
+ */
+class IconDiskCache {
+
+    private final File dir;
+    private final IconVariant variant;
+
+    IconDiskCache(Context context, IconVariant variant) {
+        this(new File(context.getCacheDir(), "icons"), variant);
+    }
+
+    IconDiskCache(File root, IconVariant variant) {
+        this.variant = variant;
+        dir = new File(root, variant.key());
+    }
+
+    IconVariant variant() {
+        return variant;
+    }
+
+    File pngFile(String iconName) {
+        return new File(dir, iconName + ".png");
+    }
+
+    File svgFile(String iconName) {
+        return new File(dir, iconName + ".svg");
+    }
+
+    boolean hasThumbnail(String iconName) {
+        return pngFile(iconName).exists();
+    }
+
+    Bitmap loadBitmap(String iconName) {
+        File file = pngFile(iconName);
+        return file.exists() ? BitmapFactory.decodeFile(file.getAbsolutePath()) : null;
+    }
+
+    String loadSvg(String iconName) {
+        File file = svgFile(iconName);
+        if (file.exists()) {
+            try (FileInputStream in = new FileInputStream(file)) {
+                byte[] buffer = new byte[(int) file.length()];
+                int read = 0;
+                while (read < buffer.length) {
+                    int n = in.read(buffer, read, buffer.length - read);
+                    if (n < 0) break;
+                    read += n;
+                }
+                return new String(buffer, 0, read, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+            }
+        }
+        return null;
+    }
+
+    void saveBitmap(String iconName, Bitmap bitmap) throws IOException {
+        File target = pngFile(iconName);
+        dir.mkdirs();
+        File tmp = new File(dir, target.getName() + ".tmp" + Thread.currentThread().getId());
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        }
+        commit(tmp, target);
+    }
+
+    void saveSvg(String iconName, String svgContent) throws IOException {
+        File target = svgFile(iconName);
+        dir.mkdirs();
+        File tmp = new File(dir, target.getName() + ".tmp" + Thread.currentThread().getId());
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(svgContent.getBytes(StandardCharsets.UTF_8));
+        }
+        commit(tmp, target);
+    }
+
+    private static void commit(File tmp, File target) throws IOException {
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            throw new IOException("Could not move " + tmp + " to " + target);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package aman.icons;
+
+import android.content.SharedPreferences;
+import java.util.Locale;
+
+/**
+ * One Material Symbols style plus its fill, weight, grade and optical size axes. {@link #key()}
+ * is the cache namespace: every disk and memory entry is stored under the variant it was
+ * rendered in, so switching variants never collides with or invalidates another variant's data.
+ */
+final class IconVariant {
+
+    enum Style {
+        OUTLINED("materialsymbolsoutlined"),
+        ROUNDED("materialsymbolsrounded"),
+        SHARP("materialsymbolssharp");
+
+        final String family;
+
+        Style(String family) {
+            this.family = family;
+        }
+    }
+
+    static final int[] WEIGHTS = {100, 200, 300, 400, 500, 600, 700};
+    static final int[] GRADES = {-25, 0, 200};
+    static final int[] OPTICAL_SIZES = {20, 24, 40, 48};
+
+    static final IconVariant DEFAULT = new IconVariant(Style.OUTLINED, false, 400, 0, 24);
+
+    private static final String KEY_STYLE = "variant_style";
+    private static final String KEY_FILL = "variant_fill";
+    private static final String KEY_WEIGHT = "variant_weight";
+    private static final String KEY_GRADE = "variant_grade";
+    private static final String KEY_OPSZ = "variant_opsz";
+
+    final Style style;
+    final boolean filled;
+    final int weight;
+    final int grade;
+    final int opticalSize;
+
+    private final String axes;
+    private final String key;
+
+    IconVariant(Style style, boolean filled, int weight, int grade, int opticalSize) {
+        this.style = style;
+        this.filled = filled;
+        this.weight = weight;
+        this.grade = grade;
+        this.opticalSize = opticalSize;
+
+        StringBuilder sb = new StringBuilder();
+        if (weight != 400) sb.append("wght").append(weight);
+        if (grade != 0) sb.append("grad").append(grade < 0 ? "N" + -grade : grade);
+        if (filled) sb.append("fill1");
+        axes = sb.length() == 0 ? "default" : sb.toString();
+        key = style.name().toLowerCase(Locale.US) + "_" + axes + "_" + opticalSize;
+    }
+
+    static IconVariant fromPrefs(SharedPreferences prefs) {
+        try {
+            return new IconVariant(
+                    Style.valueOf(prefs.getString(KEY_STYLE, DEFAULT.style.name())),
+                    prefs.getBoolean(KEY_FILL, DEFAULT.filled),
+                    prefs.getInt(KEY_WEIGHT, DEFAULT.weight),
+                    prefs.getInt(KEY_GRADE, DEFAULT.grade),
+                    prefs.getInt(KEY_OPSZ, DEFAULT.opticalSize));
+        } catch (IllegalArgumentException e) {
+            return DEFAULT;
+        }
+    }
+
+    void writeTo(SharedPreferences.Editor editor) {
+        editor.putString(KEY_STYLE, style.name())
+                .putBoolean(KEY_FILL, filled)
+                .putInt(KEY_WEIGHT, weight)
+                .putInt(KEY_GRADE, grade)
+                .putInt(KEY_OPSZ, opticalSize);
+    }
+
+    String key() {
+        return key;
+    }
+
+    String svgUrl(String iconName) {
+        return Endpoints.svgBaseUrl()
+                + style.family
+                + "/"
+                + iconName
+                + "/"
+                + axes
+                + "/"
+                + opticalSize
+                + "px.svg";
+    }
+
+    /** Axis settings for {@code Paint.setFontVariationSettings} when previewing from the font. */
+    String fontVariationSettings() {
+        return String.format(
+                Locale.US,
+                "'FILL' %d, 'wght' %d, 'GRAD' %d, 'opsz' %d",
+                filled ? 1 : 0,
+                weight,
+                grade,
+                opticalSize);
+    }
+
+    String label() {
+        String name = style.name().charAt(0) + style.name().substring(1).toLowerCase(Locale.US);
+        return name + (filled ? " filled" : "") + " " + weight + "/" + grade + "/" + opticalSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IconVariant && key.equals(((IconVariant) o).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
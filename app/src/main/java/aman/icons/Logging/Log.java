@@ -2,9 +2,39 @@ package aman.icons.Logging;
 
 
 import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.ContentProviderClient;
+import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.net.Uri;
+import android.os.Bundle;
+import android.os.DeadObjectException;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
 >>>ADD THIS IN MANIFEST
@@ -110,6 +140,26 @@ import android.net.Uri;
  * // But you can override it if needed:
  * Log.setAppName("MyCustomAppName");
  * 
+ * Lazy messages (nothing is built unless the level is enabled):
+ * -------------------------------------------------------------
+ * Log.d("Cache", "%s: %d bytes", key, size);
+ * Log.v("Renderer", () -> expensiveDump());
+ * 
+ * Level thresholds and rate limiting (optional):
+ * ----------------------------------------------
+ * // Only INFO and above reach LogHub, logcat still gets everything
+ * Log.setLogHubLevel(android.util.Log.INFO);
+ * Log.setLogcatLevel(android.util.Log.VERBOSE);
+ * // At most 20 lines per second per tag, bursts of up to 50
+ * Log.setRateLimit(20, 50);
+ * 
+ * Buffer overflow behaviour (optional):
+ * -------------------------------------
+ * // Default is DROP_OLDEST; BLOCK makes callers wait for buffer space
+ * Log.setOverflowPolicy(Log.OverflowPolicy.DROP_NEWEST);
+ * long sent = Log.getSentCount();
+ * long dropped = Log.getDroppedCount();
+ * 
  * ============================================================================
  * LOG LEVELS EXPLAINED
  * ============================================================================
@@ -146,10 +196,24 @@ import android.net.Uri;
  * 1. Extends Application class to auto-initialize on app startup
  * 2. Sets up crash handler to capture uncaught exceptions
  * 3. Auto-detects app name from AndroidManifest.xml
- * 4. All log methods forward to android.util.Log (for logcat)
- * 5. Simultaneously sends logs to LogHub via ContentProvider in background
- * 6. Uses background threads so logging never blocks your UI
- * 7. Silently fails if LogHub app is not installed (graceful degradation)
+ * 4. Each call is checked against the logcat and LogHub level thresholds
+ *    and the per-tag rate limit before any message string is built
+ * 5. Enabled messages are forwarded to android.util.Log (for logcat)
+ * 6. Queues each log record in a bounded lock-free ring buffer
+ * 7. A single background thread drains the ring and sends records to LogHub
+ *    in batches, through a cached ContentProviderClient instead of
+ *    resolving the provider every time. A batch is one compact binary
+ *    payload via ContentProviderClient.call() if LogHub supports it, or
+ *    one bulkInsert() of ContentValues if it doesn't
+ * 8. Silently fails if LogHub app is not installed (graceful degradation):
+ *    a failed lookup is remembered with exponential backoff, so while
+ *    LogHub is absent a log call costs little more than the logcat write.
+ *    Installing, updating or removing any package triggers a fresh lookup.
+ * 9. Every record is also appended to a small memory-mapped spool file
+ *    (no_backup/loghub.spool). Records LogHub has not accepted yet stay
+ *    in the spool and are replayed in batches as soon as LogHub is
+ *    reachable again - including on the next app start, so nothing is
+ *    lost when LogHub is missing, slow, or the process dies first.
  * 
  * ============================================================================
  * CRASH CAPTURE
@@ -160,8 +224,16 @@ import android.net.Uri;
  * - Error message
  * - Thread name where crash occurred
  * - Complete stack trace
+ * - The last 64 log lines before the crash ("breadcrumbs"), from any
+ *   thread and at any level that was enabled, oldest first
  * - Tagged as "CRASH" in LogHub for easy filtering
  * 
+ * The crash record is written to the memory-mapped spool first, which is
+ * a plain memory copy that the kernel persists even though the process is
+ * about to die. If LogHub is reachable the crash (plus any logs still
+ * undelivered) is also sent right away; otherwise it is delivered the next
+ * time the app starts.
+ * 
  * The app will still crash normally (this doesn't prevent crashes),
  * but you'll have a record of it in LogHub for debugging.
  * 
@@ -193,17 +265,45 @@ import android.net.Uri;
  * THREAD SAFETY
  * ============================================================================
  * 
- * All log methods are thread-safe. LogHub communication happens on background
- * threads so your UI thread is never blocked. Crash handler works on any thread.
+ * All log methods are thread-safe. Any number of threads may log at once;
+ * each one copies its record into the spool under a short lock and fills
+ * a ring buffer slot outside it, so no thread ever waits while holding a
+ * lock. LogHub
+ * communication happens on one dedicated consumer thread so your UI thread
+ * is never blocked (unless you opt into OverflowPolicy.BLOCK). Crash handler
+ * works on any thread.
  * 
  * ============================================================================
  * PERFORMANCE
  * ============================================================================
  * 
- * - Minimal overhead: Just creates a background thread for each log
+ * - Minimal overhead: A log call is one slot claim in a ring buffer; no
+ *   thread is created and no binder call is made on the caller's thread
+ * - Batched: A burst of N logs costs roughly N / 64 binder transactions
+ *   instead of N threads and N inserts
+ * - Bounded: At most 1024 records are buffered; what happens beyond that
+ *   is decided by the overflow policy (drop oldest, drop newest, or block)
  * - Non-blocking: Never waits for LogHub response
- * - Fail-fast: If LogHub unavailable, silently continues
- * - Memory efficient: No log buffering or caching
+ * - Fail-fast: If LogHub unavailable, silently continues; records are not
+ *   even buffered until the next availability probe (1 s backoff, doubling
+ *   up to 5 minutes, reset by package-change broadcasts)
+ * - Lazy: Below the level thresholds a call returns after two int
+ *   comparisons; stack traces, concatenation and format() only run for
+ *   messages that will actually be written. The supplier and format
+ *   overloads defer building the message the same way
+ * - Rate limited: Each tag has a token bucket (default 200 lines/s, bursts
+ *   of 400). Lines over the limit are counted, not written, and the count
+ *   is reported as one "suppressed" line when the tag is allowed again
+ * - Compact: A batch names the app once, stores timestamps as deltas and
+ *   tags as indexes into a per-batch table, and is deflated when that
+ *   pays off - a fraction of the Parcel size of 64 ContentValues
+ * - Breadcrumbs: Each written line is also copied into a preallocated ring
+ *   of the last 64 lines (first 160 characters each) for crash reports.
+ *   That costs one atomic increment and a character copy - no objects
+ * - Durable: The spool is a fixed 256 KB ring file mapped into memory, so
+ *   appending a record is a memory copy under a short lock. When full, the
+ *   oldest records are overwritten
+ * - Observable: getSentCount(), getDroppedCount() and getFailedCount()
  * 
  * ============================================================================
  * TROUBLESHOOTING
@@ -241,6 +341,22 @@ import android.net.Uri;
  *        - Crash capture
  *        - Auto-initialization
  * 
+ * v1.1 - Batched transport
+ *        - Bounded lock-free ring buffer with a single consumer thread
+ *        - bulkInsert() batches instead of a thread and insert per log
+ *        - Configurable overflow policy, sent/dropped/failed counters
+ *        - Crash handler flushes pending records along with the crash
+ *        - Cached ContentProviderClient, negative availability cache with
+ *          backoff, re-probe on package install/update/removal
+ *        - Separate minimum levels for logcat and LogHub
+ *        - Per-tag token bucket rate limiting with suppressed-line summaries
+ *        - Supplier and format-argument overloads for lazy messages
+ *        - Memory-mapped spool replayed to LogHub after outages and restarts
+ *        - Crash handler writes to the spool and no longer sleeps
+ *        - Allocation-free breadcrumb ring of recent lines in crash reports
+ *        - Compact batch encoding over ContentProviderClient.call() with
+ *          optional Deflater compression, falling back to bulkInsert()
+ * 
  * ============================================================================
  * AUTHOR NOTES
  * ============================================================================
@@ -267,6 +383,62 @@ public class Log extends Application {
      */
     private static final Uri LOGHUB_URI = Uri.parse("content://aman.loghub.provider/logs");
     
+    /**
+     * Number of records the ring buffer can hold before the overflow policy
+     * applies. Must be a power of two.
+     */
+    private static final int BUFFER_CAPACITY = 1024;
+    
+    /**
+     * Maximum number of records sent in a single bulkInsert() call.
+     */
+    private static final int MAX_BATCH = 64;
+    
+    /**
+     * First and longest wait before probing for LogHub again after it was
+     * found missing. The wait doubles on every failed probe.
+     */
+    private static final long MIN_PROBE_BACKOFF_MS = 1_000L;
+    private static final long MAX_PROBE_BACKOFF_MS = 5 * 60_000L;
+    
+    /**
+     * Default per-tag rate limit: sustained lines per second and burst size.
+     */
+    private static final int DEFAULT_RATE_PER_SECOND = 200;
+    private static final int DEFAULT_RATE_BURST = 400;
+    
+    /**
+     * Tags beyond this many get no bucket of their own and are not rate
+     * limited, so a program that makes up tags cannot grow the map forever.
+     */
+    private static final int MAX_TRACKED_TAGS = 256;
+    
+    /**
+     * Name and size of the memory-mapped spool file in no_backup/.
+     */
+    private static final String SPOOL_FILE = "loghub.spool";
+    private static final int SPOOL_SIZE = 256 * 1024;
+    
+    /**
+     * Number of recent lines kept for crash reports (a power of two) and
+     * how many characters of each line are kept.
+     */
+    private static final int BREADCRUMB_COUNT = 64;
+    private static final int BREADCRUMB_CHARS = 160;
+    
+    /**
+     * ContentProvider.call() method that accepts a compact batch. A LogHub
+     * build without it returns null (the ContentProvider default) and we
+     * fall back to bulkInsert().
+     */
+    private static final String BATCH_METHOD = "insertBatch";
+    
+    /**
+     * Payloads smaller than this are sent uncompressed; deflating them
+     * costs more than the bytes it saves.
+     */
+    private static final int MIN_COMPRESS_BYTES = 512;
+    
     // ========================================================================
     // STATIC FIELDS
     // ========================================================================
@@ -283,6 +455,34 @@ public class Log extends Application {
      */
     private static String appName;
     
+    /**
+     * The ring buffer and consumer thread that carry records to LogHub.
+     * Created eagerly so logging before onCreate() is simply buffered.
+     */
+    private static final Transport transport = new Transport(BUFFER_CAPACITY);
+    
+    /**
+     * Minimum priority (android.util.Log.VERBOSE .. ASSERT) written to
+     * logcat and sent to LogHub respectively. Everything by default.
+     */
+    private static volatile int logcatLevel = android.util.Log.VERBOSE;
+    private static volatile int logHubLevel = android.util.Log.VERBOSE;
+    
+    /**
+     * Per-tag rate limit settings and buckets. A rate of 0 disables limiting.
+     */
+    private static volatile int ratePerSecond = DEFAULT_RATE_PER_SECOND;
+    private static volatile int rateBurst = DEFAULT_RATE_BURST;
+    private static final ConcurrentHashMap<String, TokenBucket> buckets =
+            new ConcurrentHashMap<>();
+    
+    /**
+     * The most recent lines, attached to crash reports.
+     */
+    private static final Breadcrumbs breadcrumbs =
+            new Breadcrumbs(BREADCRUMB_COUNT, BREADCRUMB_CHARS);
+    private static volatile boolean breadcrumbsEnabled = true;
+    
     // ========================================================================
     // APPLICATION LIFECYCLE
     // ========================================================================
@@ -315,6 +515,33 @@ public class Log extends Application {
             appName = getPackageName();
         }
         
+        // Map the spool before the first log so every record is persisted;
+        // logging still works (without replay) if the file can't be mapped
+        Spool spool = null;
+        try {
+            spool = Spool.open(new File(getNoBackupFilesDir(), SPOOL_FILE), SPOOL_SIZE);
+        } catch (IOException e) {
+            android.util.Log.w("LogHub", "Spool unavailable", e);
+        }
+        
+        // Start the consumer thread that delivers buffered logs to LogHub
+        transport.start(appContext.getContentResolver(), spool);
+        
+        // LogHub may be installed, updated or removed while we run; any
+        // package change drops the cached availability so it is re-probed
+        IntentFilter packageChanges = new IntentFilter();
+        packageChanges.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageChanges.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageChanges.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageChanges.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageChanges.addDataScheme("package");
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                transport.invalidateProvider();
+            }
+        }, packageChanges);
+        
         // Install crash handler to capture uncaught exceptions
         Thread.setDefaultUncaughtExceptionHandler(new CrashHandler(this, appName));
     }
@@ -339,6 +566,180 @@ public class Log extends Application {
         appName = name;
     }
     
+    /**
+     * Sets the lowest priority that is written to logcat.
+     * 
+     * @param priority One of android.util.Log.VERBOSE, DEBUG, INFO, WARN,
+     *                 ERROR or ASSERT. Use ASSERT + 1 to silence logcat.
+     * 
+     * Example:
+     *   Log.setLogcatLevel(android.util.Log.INFO);
+     */
+    public static void setLogcatLevel(int priority) {
+        logcatLevel = priority;
+    }
+    
+    /**
+     * Sets the lowest priority that is sent to LogHub. Independent of the
+     * logcat threshold, so you can keep verbose logcat output during
+     * development while only shipping warnings to LogHub, or vice versa.
+     * 
+     * @param priority One of android.util.Log.VERBOSE .. ASSERT, or
+     *                 ASSERT + 1 to send nothing to LogHub.
+     * 
+     * Example:
+     *   Log.setLogHubLevel(android.util.Log.WARN);
+     */
+    public static void setLogHubLevel(int priority) {
+        logHubLevel = priority;
+    }
+    
+    /**
+     * Limits how many lines each tag may write.
+     * 
+     * Every tag gets a token bucket holding up to {@code burst} tokens that
+     * refills at {@code perSecond} tokens per second. A line costs one
+     * token; lines that find the bucket empty are dropped from both logcat
+     * and LogHub and counted. The next line that gets through is preceded
+     * by a single "suppressed N lines" summary for that tag.
+     * 
+     * @param perSecond Sustained lines per second per tag, or 0 to disable
+     * @param burst Lines a quiet tag may write back to back
+     * 
+     * Example:
+     *   Log.setRateLimit(20, 50);
+     *   Log.setRateLimit(0, 0);   // no limit
+     */
+    public static void setRateLimit(int perSecond, int burst) {
+        ratePerSecond = Math.max(0, perSecond);
+        rateBurst = Math.max(1, burst);
+        buckets.clear();
+    }
+    
+    /**
+     * Checks whether a message at this priority would go anywhere, without
+     * consuming rate limit tokens. Use it to guard expensive log statements
+     * that the supplier and format overloads can't cover.
+     * 
+     * @param priority The priority to check (android.util.Log.DEBUG, etc.)
+     * @return true if logcat or LogHub accepts this priority
+     * 
+     * Example:
+     *   if (Log.isEnabled(android.util.Log.DEBUG)) {
+     *       Log.d("Cache", dumpEntries());
+     *   }
+     */
+    public static boolean isEnabled(int priority) {
+        return priority >= logcatLevel || (priority >= logHubLevel && appContext != null);
+    }
+    
+    /**
+     * Produces a log message on demand. Only called when the message will
+     * actually be written, so building it costs nothing when the level is
+     * disabled or the tag is rate limited.
+     * 
+     * (android.util.Log has to work down to API 21, where
+     * java.util.function.Supplier does not exist, hence this interface.)
+     */
+    public interface MessageSupplier {
+        String get();
+    }
+    
+    // ========================================================================
+    // PUBLIC API - TRANSPORT
+    // ========================================================================
+    
+    /**
+     * What a log call does when the LogHub buffer is full, which only
+     * happens when logs are produced faster than LogHub accepts them.
+     * Logcat output is never affected by this policy.
+     */
+    public enum OverflowPolicy {
+        /** Discard the oldest buffered record to make room (default). */
+        DROP_OLDEST,
+        /** Discard the record being logged and keep the buffer as is. */
+        DROP_NEWEST,
+        /**
+         * Make the logging thread wait until the consumer frees a slot.
+         * Never loses records, but can stall the caller - avoid on the
+         * main thread unless you know your log volume.
+         */
+        BLOCK
+    }
+    
+    /**
+     * Sets what happens when the LogHub buffer is full.
+     * 
+     * @param policy The new overflow policy; takes effect for the next log call
+     * 
+     * Example:
+     *   Log.setOverflowPolicy(Log.OverflowPolicy.DROP_NEWEST);
+     */
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        if (policy == null) throw new IllegalArgumentException("policy == null");
+        transport.policy = policy;
+    }
+    
+    /**
+     * @return The overflow policy currently in effect
+     */
+    public static OverflowPolicy getOverflowPolicy() {
+        return transport.policy;
+    }
+    
+    /**
+     * @return Number of records handed to LogHub successfully since start
+     */
+    public static long getSentCount() {
+        return transport.sent.get();
+    }
+    
+    /**
+     * @return Number of records discarded because the buffer was full
+     */
+    public static long getDroppedCount() {
+        return transport.dropped.get();
+    }
+    
+    /**
+     * @return Number of records not delivered when logged because LogHub
+     *         was unavailable (usually because the LogHub app is not
+     *         installed) or rejected the batch. They stay in the spool and
+     *         show up in getReplayedCount() once delivered later.
+     */
+    public static long getFailedCount() {
+        return transport.failed.get();
+    }
+    
+    /**
+     * @return Number of records delivered from the spool after an outage,
+     *         a LogHub restart, or a previous run of the app
+     */
+    public static long getReplayedCount() {
+        return transport.replayed.get();
+    }
+    
+    /**
+     * Turns Deflater compression of compact batches on or off (on by
+     * default). Only matters when LogHub accepts compact batches.
+     * 
+     * @param enabled false to trade larger transactions for less CPU
+     */
+    public static void setBatchCompression(boolean enabled) {
+        transport.compress = enabled;
+    }
+    
+    /**
+     * Turns the recent-lines ring attached to crash reports on or off (on
+     * by default). Lines logged while it is off are missing from the
+     * "Recent logs" section of a later crash.
+     * 
+     * @param enabled false to leave crash reports with the stack trace only
+     */
+    public static void setBreadcrumbs(boolean enabled) {
+        breadcrumbsEnabled = enabled;
+    }
+    
     // ========================================================================
     // PUBLIC API - DEBUG LEVEL
     // ========================================================================
@@ -360,9 +761,8 @@ public class Log extends Application {
      *   Log.d("NetworkManager", "Starting API request to /users");
      */
     public static int d(String tag, String msg) {
-        int result = android.util.Log.d(tag, msg);
-        sendToLogHub("DEBUG", tag, msg);
-        return result;
+        if (!admit(android.util.Log.DEBUG, tag)) return 0;
+        return emit(android.util.Log.DEBUG, tag, msg, null);
     }
     
     /**
@@ -377,9 +777,8 @@ public class Log extends Application {
      *   Log.d("Parser", "Parsing completed with warnings", exception);
      */
     public static int d(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.d(tag, msg, tr);
-        sendToLogHub("DEBUG", tag, msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.DEBUG, tag)) return 0;
+        return emit(android.util.Log.DEBUG, tag, msg, tr);
     }
     
     // ========================================================================
@@ -402,9 +801,8 @@ public class Log extends Application {
      *   Log.i("PaymentService", "Payment processed: $49.99");
      */
     public static int i(String tag, String msg) {
-        int result = android.util.Log.i(tag, msg);
-        sendToLogHub("INFO", tag, msg);
-        return result;
+        if (!admit(android.util.Log.INFO, tag)) return 0;
+        return emit(android.util.Log.INFO, tag, msg, null);
     }
     
     /**
@@ -419,9 +817,8 @@ public class Log extends Application {
      *   Log.i("Sync", "Sync completed with some items skipped", exception);
      */
     public static int i(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.i(tag, msg, tr);
-        sendToLogHub("INFO", tag, msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.INFO, tag)) return 0;
+        return emit(android.util.Log.INFO, tag, msg, tr);
     }
     
     // ========================================================================
@@ -444,9 +841,8 @@ public class Log extends Application {
      *   Log.w("NetworkManager", "Request took longer than expected: 5000ms");
      */
     public static int w(String tag, String msg) {
-        int result = android.util.Log.w(tag, msg);
-        sendToLogHub("WARN", tag, msg);
-        return result;
+        if (!admit(android.util.Log.WARN, tag)) return 0;
+        return emit(android.util.Log.WARN, tag, msg, null);
     }
     
     /**
@@ -461,9 +857,8 @@ public class Log extends Application {
      *   Log.w("Cache", "Failed to write to cache", exception);
      */
     public static int w(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.w(tag, msg, tr);
-        sendToLogHub("WARN", tag, msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.WARN, tag)) return 0;
+        return emit(android.util.Log.WARN, tag, msg, tr);
     }
     
     /**
@@ -478,9 +873,8 @@ public class Log extends Application {
      *   Log.w("Parser", exception);
      */
     public static int w(String tag, Throwable tr) {
-        int result = android.util.Log.w(tag, tr);
-        sendToLogHub("WARN", tag, android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.WARN, tag)) return 0;
+        return emit(android.util.Log.WARN, tag, null, tr);
     }
     
     // ========================================================================
@@ -504,9 +898,8 @@ public class Log extends Application {
      *   Log.e("ApiClient", "HTTP 500 error from server");
      */
     public static int e(String tag, String msg) {
-        int result = android.util.Log.e(tag, msg);
-        sendToLogHub("ERROR", tag, msg);
-        return result;
+        if (!admit(android.util.Log.ERROR, tag)) return 0;
+        return emit(android.util.Log.ERROR, tag, msg, null);
     }
     
     /**
@@ -528,9 +921,8 @@ public class Log extends Application {
      *   }
      */
     public static int e(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.e(tag, msg, tr);
-        sendToLogHub("ERROR", tag, msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.ERROR, tag)) return 0;
+        return emit(android.util.Log.ERROR, tag, msg, tr);
     }
     
     // ========================================================================
@@ -553,9 +945,8 @@ public class Log extends Application {
      *   Log.v("Animation", "Interpolated value: 0.456");
      */
     public static int v(String tag, String msg) {
-        int result = android.util.Log.v(tag, msg);
-        sendToLogHub("DEBUG", tag, msg);
-        return result;
+        if (!admit(android.util.Log.VERBOSE, tag)) return 0;
+        return emit(android.util.Log.VERBOSE, tag, msg, null);
     }
     
     /**
@@ -567,9 +958,8 @@ public class Log extends Application {
      * @return The number of bytes written (from android.util.Log)
      */
     public static int v(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.v(tag, msg, tr);
-        sendToLogHub("DEBUG", tag, msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.VERBOSE, tag)) return 0;
+        return emit(android.util.Log.VERBOSE, tag, msg, tr);
     }
     
     // ========================================================================
@@ -599,9 +989,8 @@ public class Log extends Application {
      *   }
      */
     public static int wtf(String tag, String msg) {
-        int result = android.util.Log.wtf(tag, msg);
-        sendToLogHub("ERROR", tag, "WTF: " + msg);
-        return result;
+        if (!admit(android.util.Log.ASSERT, tag)) return 0;
+        return emit(android.util.Log.ASSERT, tag, msg, null);
     }
     
     /**
@@ -612,9 +1001,8 @@ public class Log extends Application {
      * @return The number of bytes written (from android.util.Log)
      */
     public static int wtf(String tag, Throwable tr) {
-        int result = android.util.Log.wtf(tag, tr);
-        sendToLogHub("ERROR", tag, "WTF: " + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.ASSERT, tag)) return 0;
+        return emit(android.util.Log.ASSERT, tag, null, tr);
     }
     
     /**
@@ -626,9 +1014,149 @@ public class Log extends Application {
      * @return The number of bytes written (from android.util.Log)
      */
     public static int wtf(String tag, String msg, Throwable tr) {
-        int result = android.util.Log.wtf(tag, msg, tr);
-        sendToLogHub("ERROR", tag, "WTF: " + msg + "\n" + android.util.Log.getStackTraceString(tr));
-        return result;
+        if (!admit(android.util.Log.ASSERT, tag)) return 0;
+        return emit(android.util.Log.ASSERT, tag, msg, tr);
+    }
+    
+    // ========================================================================
+    // PUBLIC API - LAZY MESSAGES
+    // ========================================================================
+    
+    /**
+     * Send a VERBOSE log message built only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param msg Called at most once, after the level and rate limit checks
+     * @return The number of bytes written to logcat, or 0 if skipped
+     * 
+     * Example:
+     *   Log.v("Renderer", () -> "Frame state: " + state.dump());
+     */
+    public static int v(String tag, MessageSupplier msg) {
+        if (!admit(android.util.Log.VERBOSE, tag)) return 0;
+        return emit(android.util.Log.VERBOSE, tag, msg.get(), null);
+    }
+    
+    /**
+     * Send a VERBOSE log message formatted only if it will be written.
+     * 
+     * The arguments array (and any boxed primitives) is still created by
+     * the caller; String.format() and the message itself are not.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param format A java.util.Formatter format string (Locale.US)
+     * @param args Arguments referenced by the format string
+     * @return The number of bytes written to logcat, or 0 if skipped
+     * 
+     * Example:
+     *   Log.v("Renderer", "Frame %d took %d ms", frame, millis);
+     */
+    public static int v(String tag, String format, Object... args) {
+        if (!admit(android.util.Log.VERBOSE, tag)) return 0;
+        return emit(android.util.Log.VERBOSE, tag, format(format, args), null);
+    }
+    
+    /**
+     * Send a DEBUG log message built only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param msg Called at most once, after the level and rate limit checks
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int d(String tag, MessageSupplier msg) {
+        if (!admit(android.util.Log.DEBUG, tag)) return 0;
+        return emit(android.util.Log.DEBUG, tag, msg.get(), null);
+    }
+    
+    /**
+     * Send a DEBUG log message formatted only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param format A java.util.Formatter format string (Locale.US)
+     * @param args Arguments referenced by the format string
+     * @return The number of bytes written to logcat, or 0 if skipped
+     * 
+     * Example:
+     *   Log.d("Cache", "%s: %d -> %d bytes", key, before, after);
+     */
+    public static int d(String tag, String format, Object... args) {
+        if (!admit(android.util.Log.DEBUG, tag)) return 0;
+        return emit(android.util.Log.DEBUG, tag, format(format, args), null);
+    }
+    
+    /**
+     * Send an INFO log message built only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param msg Called at most once, after the level and rate limit checks
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int i(String tag, MessageSupplier msg) {
+        if (!admit(android.util.Log.INFO, tag)) return 0;
+        return emit(android.util.Log.INFO, tag, msg.get(), null);
+    }
+    
+    /**
+     * Send an INFO log message formatted only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param format A java.util.Formatter format string (Locale.US)
+     * @param args Arguments referenced by the format string
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int i(String tag, String format, Object... args) {
+        if (!admit(android.util.Log.INFO, tag)) return 0;
+        return emit(android.util.Log.INFO, tag, format(format, args), null);
+    }
+    
+    /**
+     * Send a WARN log message built only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param msg Called at most once, after the level and rate limit checks
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int w(String tag, MessageSupplier msg) {
+        if (!admit(android.util.Log.WARN, tag)) return 0;
+        return emit(android.util.Log.WARN, tag, msg.get(), null);
+    }
+    
+    /**
+     * Send a WARN log message formatted only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param format A java.util.Formatter format string (Locale.US)
+     * @param args Arguments referenced by the format string
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int w(String tag, String format, Object... args) {
+        if (!admit(android.util.Log.WARN, tag)) return 0;
+        return emit(android.util.Log.WARN, tag, format(format, args), null);
+    }
+    
+    /**
+     * Send an ERROR log message built only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param msg Called at most once, after the level and rate limit checks
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int e(String tag, MessageSupplier msg) {
+        if (!admit(android.util.Log.ERROR, tag)) return 0;
+        return emit(android.util.Log.ERROR, tag, msg.get(), null);
+    }
+    
+    /**
+     * Send an ERROR log message formatted only if it will be written.
+     * 
+     * @param tag Used to identify the source of a log message.
+     * @param format A java.util.Formatter format string (Locale.US)
+     * @param args Arguments referenced by the format string
+     * @return The number of bytes written to logcat, or 0 if skipped
+     */
+    public static int e(String tag, String format, Object... args) {
+        if (!admit(android.util.Log.ERROR, tag)) return 0;
+        return emit(android.util.Log.ERROR, tag, format(format, args), null);
     }
     
     // ========================================================================
@@ -660,9 +1188,15 @@ public class Log extends Application {
      * @return The number of bytes written (from android.util.Log)
      */
     public static int println(int priority, String tag, String msg) {
-        int result = android.util.Log.println(priority, tag, msg);
-        String level = priorityToLevel(priority);
-        sendToLogHub(level, tag, msg);
+        if (!admit(priority, tag)) return 0;
+        if (breadcrumbsEnabled) breadcrumbs.add(priority, tag, msg, System.currentTimeMillis());
+        int result = 0;
+        if (priority >= logcatLevel) {
+            result = android.util.Log.println(priority, tag, msg);
+        }
+        if (priority >= logHubLevel) {
+            sendToLogHub(priorityToLevel(priority), tag, msg);
+        }
         return result;
     }
     
@@ -686,60 +1220,1239 @@ public class Log extends Application {
     // ========================================================================
     
     /**
-     * Sends a log message to LogHub in the background.
+     * Decides whether a message is written at all. Runs before anything is
+     * allocated: two int comparisons for disabled levels, then a bucket
+     * lookup for the rate limit.
      * 
-     * This method:
-     * 1. Checks if the system is initialized
-     * 2. Creates a background thread to avoid blocking the caller
-     * 3. Packages the log data into ContentValues
-     * 4. Sends it to LogHub via ContentProvider
-     * 5. Silently fails if LogHub is unavailable (graceful degradation)
+     * If the tag had lines suppressed since its last admitted line, a
+     * summary is written first so the gap is visible in both outputs.
      * 
-     * @param level The log level (DEBUG, INFO, WARN, ERROR)
-     * @param tag The tag identifying the source
-     * @param msg The log message (may include stack traces)
+     * @return true if the caller should build and emit the message
      */
-    private static void sendToLogHub(String level, String tag, String msg) {
-        // Don't try to log if we're not initialized
-        if (appContext == null) return;
-        
-        // Send to LogHub in background thread to avoid blocking
-        new Thread(() -> {
-            try {
-                ContentValues v = new ContentValues();
-                v.put("app_name", appName != null ? appName : "Unknown");
-                v.put("tag", tag);
-                v.put("message", msg);
-                v.put("level", level);
-                v.put("timestamp", System.currentTimeMillis());
-                appContext.getContentResolver().insert(LOGHUB_URI, v);
-            } catch (Exception e) {
-                // Silently fail - we don't want logging to crash the app
-                // The log still went to logcat, just not to LogHub
-            }
-        }).start();
+    private static boolean admit(int priority, String tag) {
+        if (priority < logcatLevel && (priority < logHubLevel || appContext == null)) {
+            return false;
+        }
+        int suppressed = acquireToken(tag);
+        if (suppressed < 0) return false;
+        if (suppressed > 0) {
+            emit(android.util.Log.WARN, tag,
+                    "Suppressed " + suppressed + " lines from this tag (rate limit)", null);
+        }
+        return true;
     }
     
     /**
-     * Converts android.util.Log priority constants to LogHub level strings.
+     * Takes one token from the tag's bucket.
      * 
-     * @param priority The priority constant from android.util.Log
-     * @return The corresponding level string for LogHub
+     * @return -1 if the line must be suppressed, otherwise the number of
+     *         lines suppressed since the previous admitted one
      */
-    private static String priorityToLevel(int priority) {
+    private static int acquireToken(String tag) {
+        int rate = ratePerSecond;
+        if (rate == 0 || tag == null) return 0;
+        TokenBucket bucket = buckets.get(tag);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_TRACKED_TAGS) return 0;
+            TokenBucket created = new TokenBucket(rateBurst);
+            bucket = buckets.putIfAbsent(tag, created);
+            if (bucket == null) bucket = created;
+        }
+        return bucket.acquire(System.nanoTime(), rate, rateBurst);
+    }
+    
+    /**
+     * Writes an admitted message to whichever destinations accept its
+     * priority, and remembers it as a breadcrumb. The stack trace string and the LogHub message are only
+     * built when LogHub will receive them.
+     * 
+     * @param msg The message, or null for throwable-only calls
+     * @param tr The exception, or null
+     */
+    private static int emit(int priority, String tag, String msg, Throwable tr) {
+        if (breadcrumbsEnabled) {
+            breadcrumbs.add(priority, tag, msg != null || tr == null ? msg : tr.getClass().getName(),
+                    System.currentTimeMillis());
+        }
+        int result = 0;
+        if (priority >= logcatLevel) {
+            result = toLogcat(priority, tag, msg, tr);
+        }
+        if (priority >= logHubLevel) {
+            String body;
+            if (tr == null) {
+                body = msg;
+            } else if (msg == null) {
+                body = android.util.Log.getStackTraceString(tr);
+            } else {
+                body = msg + "\n" + android.util.Log.getStackTraceString(tr);
+            }
+            if (priority == android.util.Log.ASSERT) body = "WTF: " + body;
+            sendToLogHub(priorityToLevel(priority), tag, body);
+        }
+        return result;
+    }
+    
+    /**
+     * Forwards to the matching android.util.Log method, so logcat output
+     * (and wtf() semantics) are exactly what the platform would produce.
+     */
+    private static int toLogcat(int priority, String tag, String msg, Throwable tr) {
         switch (priority) {
             case android.util.Log.VERBOSE:
+                return tr == null ? android.util.Log.v(tag, msg) : android.util.Log.v(tag, msg, tr);
             case android.util.Log.DEBUG:
-                return "DEBUG";
+                return tr == null ? android.util.Log.d(tag, msg) : android.util.Log.d(tag, msg, tr);
             case android.util.Log.INFO:
-                return "INFO";
+                return tr == null ? android.util.Log.i(tag, msg) : android.util.Log.i(tag, msg, tr);
             case android.util.Log.WARN:
-                return "WARN";
+                if (tr == null) return android.util.Log.w(tag, msg);
+                return msg == null ? android.util.Log.w(tag, tr) : android.util.Log.w(tag, msg, tr);
             case android.util.Log.ERROR:
+                return tr == null ? android.util.Log.e(tag, msg) : android.util.Log.e(tag, msg, tr);
             case android.util.Log.ASSERT:
-                return "ERROR";
+                if (tr == null) return android.util.Log.wtf(tag, msg);
+                return msg == null ? android.util.Log.wtf(tag, tr) : android.util.Log.wtf(tag, msg, tr);
             default:
-                return "DEBUG";
+                return android.util.Log.println(priority, tag, msg);
+        }
+    }
+    
+    /**
+     * Formats with a fixed locale so LogHub output doesn't depend on the
+     * device language. A bad format string is logged as-is rather than
+     * throwing from a log call.
+     */
+    private static String format(String format, Object[] args) {
+        try {
+            return String.format(Locale.US, format, args);
+        } catch (RuntimeException e) {
+            return format;
+        }
+    }
+    
+    /**
+     * Token bucket for one tag. Tokens are kept as a fraction so low rates
+     * refill smoothly; the monitor is uncontended unless one tag is logged
+     * from several threads at the same moment.
+     */
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastNanos;
+        private int suppressed;
+        
+        TokenBucket(int burst) {
+            tokens = burst;
+            lastNanos = System.nanoTime();
+        }
+        
+        /**
+         * @return -1 if empty, else the suppressed count since the last
+         *         admitted line (which is reset)
+         */
+        synchronized int acquire(long now, int perSecond, int burst) {
+            long elapsed = now - lastNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(burst, tokens + elapsed * (perSecond / 1e9));
+                lastNanos = now;
+            }
+            if (tokens < 1) {
+                suppressed++;
+                return -1;
+            }
+            tokens -= 1;
+            int count = suppressed;
+            suppressed = 0;
+            return count;
+        }
+    }
+    
+    /**
+     * Queues a log message for LogHub.
+     * 
+     * This method:
+     * 1. Checks if the system is initialized
+     * 2. Stamps the record with the current time (so batching delays don't
+     *    skew timestamps)
+     * 3. If LogHub is known to be missing, only appends it to the spool,
+     *    which will replay it later
+     * 4. Otherwise appends it to the spool and puts it in the ring buffer,
+     *    applying the overflow policy if full
+     * 5. Returns immediately; the consumer thread does the actual sending
+     * 
+     * @param level The log level (DEBUG, INFO, WARN, ERROR)
+     * @param tag The tag identifying the source
+     * @param msg The log message (may include stack traces)
+     */
+    private static void sendToLogHub(String level, String tag, String msg) {
+        // Don't try to log if we're not initialized
+        if (appContext == null) return;
+        
+        Record record = new Record(level, tag, msg, System.currentTimeMillis());
+        
+        // Skip the ring entirely while LogHub is known to be missing
+        if (transport.isProviderAbsent()) {
+            Spool spool = transport.spool;
+            if (spool != null) spool.append(record);
+            transport.failed.incrementAndGet();
+            return;
+        }
+        
+        transport.enqueue(record);
+    }
+    
+    /**
+     * Converts android.util.Log priority constants to LogHub level strings.
+     * 
+     * @param priority The priority constant from android.util.Log
+     * @return The corresponding level string for LogHub
+     */
+    private static String priorityToLevel(int priority) {
+        switch (priority) {
+            case android.util.Log.VERBOSE:
+            case android.util.Log.DEBUG:
+                return "DEBUG";
+            case android.util.Log.INFO:
+                return "INFO";
+            case android.util.Log.WARN:
+                return "WARN";
+            case android.util.Log.ERROR:
+            case android.util.Log.ASSERT:
+                return "ERROR";
+            default:
+                return "DEBUG";
+        }
+    }
+    
+    // ========================================================================
+    // TRANSPORT
+    // ========================================================================
+    
+    /**
+     * One buffered log record. The timestamp is taken on the logging
+     * thread, not when the record is finally delivered.
+     */
+    static final class Record {
+        final String level;
+        final String tag;
+        final String message;
+        final long timestamp;
+        
+        /**
+         * Spool positions of this record: where the previous record ended
+         * and just past this one, or -1 if it isn't spooled. A record is
+         * delivered once the spool's delivered cursor reaches spoolEnd.
+         */
+        long spoolStart = -1;
+        long spoolEnd = -1;
+        
+        Record(String level, String tag, String message, long timestamp) {
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+        
+        ContentValues toValues(String app) {
+            ContentValues v = new ContentValues();
+            v.put("app_name", app);
+            v.put("tag", tag);
+            v.put("message", message);
+            v.put("level", level);
+            v.put("timestamp", timestamp);
+            return v;
+        }
+        
+        static ContentValues[] toValues(String app, List<Record> records) {
+            ContentValues[] values = new ContentValues[records.size()];
+            for (int i = 0; i < values.length; i++) values[i] = records.get(i).toValues(app);
+            return values;
+        }
+    }
+    
+    /**
+     * Bounded lock-free ring buffer of records.
+     * 
+     * Every slot carries a sequence number that says whose turn it is: a
+     * producer may fill slot (pos & mask) when its sequence equals pos, a
+     * consumer may empty it when the sequence equals pos + 1. Producers
+     * take a position with one getAndIncrement on tail (claim) and fill it
+     * afterwards (publish), so positions can be handed out in a fixed
+     * order - the transport claims them in spool order - while the slot
+     * itself is written outside any lock. Consumers claim with a
+     * compareAndSet on head. There are no locks; a producer whose slot is
+     * still occupied from the previous lap is the only one that waits.
+     * 
+     * Normally only the transport thread consumes. Producers also consume
+     * under DROP_OLDEST, and so does the crash handler when it flushes -
+     * the algorithm is safe for any number of consumers.
+     */
+    private static final class Ring {
+        private final int mask;
+        private final AtomicLongArray sequence;
+        private final AtomicReferenceArray<Record> slots;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        
+        Ring(int capacity) {
+            if (Integer.bitCount(capacity) != 1) {
+                throw new IllegalArgumentException("capacity must be a power of two");
+            }
+            mask = capacity - 1;
+            sequence = new AtomicLongArray(capacity);
+            slots = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) sequence.set(i, i);
+        }
+        
+        /**
+         * Takes the next position. Never waits: the slot may still hold a
+         * record from the previous lap, see isFree().
+         * 
+         * @param onlyIfRoom return -1 instead when the ring looks full
+         * @return The claimed position, or -1
+         */
+        long claim(boolean onlyIfRoom) {
+            if (onlyIfRoom && tail.get() - head.get() > mask) return -1;
+            return tail.getAndIncrement();
+        }
+        
+        /**
+         * @return true once a consumer has emptied the slot for pos
+         */
+        boolean isFree(long pos) {
+            return sequence.get((int) pos & mask) == pos;
+        }
+        
+        /**
+         * Fills a claimed position. Only valid once isFree(pos).
+         */
+        void publish(long pos, Record record) {
+            int index = (int) pos & mask;
+            slots.set(index, record);
+            // Publishes the slot to consumers
+            sequence.set(index, pos + 1);
+        }
+        
+        /**
+         * @return The oldest record, or null if the ring is empty
+         */
+        Record poll() {
+            long pos = head.get();
+            while (true) {
+                int index = (int) pos & mask;
+                long diff = sequence.get(index) - (pos + 1);
+                if (diff == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        Record record = slots.get(index);
+                        slots.set(index, null);
+                        // Hands the slot back to producers one lap later
+                        sequence.set(index, pos + mask + 1);
+                        return record;
+                    }
+                    pos = head.get();
+                } else if (diff < 0) {
+                    return null;
+                } else {
+                    pos = head.get();
+                }
+            }
+        }
+        
+        boolean isEmpty() {
+            long pos = head.get();
+            return sequence.get((int) pos & mask) - (pos + 1) < 0;
+        }
+    }
+    
+    /**
+     * Owns the ring buffer and the single consumer thread.
+     * 
+     * The consumer drains up to MAX_BATCH records at a time and sends them
+     * with one bulkInsert(). It does not wait to fill a batch: while one
+     * bulkInsert() is in flight, new records pile up in the ring and go out
+     * together in the next one, so batches grow exactly when logging is
+     * busy. When the ring is empty the thread parks; producers unpark it
+     * only if it announced that it is waiting, so the hot path is usually
+     * just the getAndIncrement in claim().
+     * 
+     * The provider is reached through an unstable ContentProviderClient
+     * that is acquired once and kept; unstable means LogHub dying does not
+     * take our process down with it, we just see a DeadObjectException and
+     * acquire again. When acquisition fails LogHub is considered absent
+     * until absentUntil, which producers check before buffering anything.
+     * 
+     * Every freshly acquired client first replays the spool: whatever was
+     * logged while LogHub was away, or in a previous process. Records
+     * replayed that way are still in the ring too; they are recognised by
+     * their spool position and not sent twice. A batch that fails, or one
+     * that leaves a gap in the spool (records dropped from the ring, or
+     * logged while LogHub looked absent), schedules a replay before the
+     * next batch, so nothing is acknowledged past a record that LogHub
+     * never got.
+     * 
+     * A producer claims its ring position inside the spool's own monitor,
+     * right after appending, so ring order is spool order and a batch is
+     * one contiguous spool range. That monitor only covers the memory copy
+     * and a getAndIncrement; filling the slot, and any waiting the overflow
+     * policy calls for, happen after it is released, so a full ring never
+     * holds up the spool, the crash handler or producers with room.
+     */
+    static final class Transport implements Runnable {
+        
+        /** How long a BLOCK-policy producer sleeps between retries. */
+        private static final long BLOCK_PARK_NANOS = 1_000_000L;
+        
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong replayed = new AtomicLong();
+        volatile OverflowPolicy policy = OverflowPolicy.DROP_OLDEST;
+        volatile Spool spool;
+        volatile boolean compress = true;
+        
+        private final Ring ring;
+        private volatile Thread consumer;
+        private volatile boolean consumerWaiting;
+        private ContentResolver resolver;
+        
+        // Provider state. client and backoffMs belong to the consumer thread;
+        // absentUntil is read by producers, reprobe is set by the receiver.
+        private ContentProviderClient client;
+        private boolean compactSupported;
+        private final BatchCodec codec = new BatchCodec();
+        private final List<Record> outgoing = new ArrayList<>(MAX_BATCH);
+        private boolean replayDue;
+        private long backoffMs;
+        private volatile long absentUntil;
+        private volatile boolean reprobe;
+        
+        Transport(int capacity) {
+            ring = new Ring(capacity);
+        }
+        
+        /**
+         * Starts the consumer thread. Called once from onCreate().
+         */
+        synchronized void start(ContentResolver contentResolver, Spool recordSpool) {
+            if (consumer != null) return;
+            resolver = contentResolver;
+            spool = recordSpool;
+            Thread thread = new Thread(this, "LogHub-transport");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            consumer = thread;
+            thread.start();
+        }
+        
+        void enqueue(Record record) {
+            boolean onlyIfRoom = policy == OverflowPolicy.DROP_NEWEST;
+            long pos;
+            Spool recordSpool = spool;
+            if (recordSpool != null) {
+                // The lock Spool.append takes anyway; never held while waiting
+                synchronized (recordSpool) {
+                    recordSpool.append(record);
+                    pos = ring.claim(onlyIfRoom);
+                }
+            } else {
+                pos = ring.claim(onlyIfRoom);
+            }
+            if (pos < 0) {
+                // Still spooled; the gap it leaves makes the consumer replay it
+                dropped.incrementAndGet();
+                return;
+            }
+            if (!ring.isFree(pos)) makeRoom(pos);
+            ring.publish(pos, record);
+            if (consumerWaiting) LockSupport.unpark(consumer);
+        }
+        
+        /**
+         * Waits until the slot for a claimed position is free, applying the
+         * overflow policy: DROP_OLDEST evicts the oldest records, the other
+         * policies wait for the consumer. A DROP_NEWEST producer only gets
+         * here when it saw room but lost a race for it. The consumer thread
+         * itself always evicts, since it must never wait for itself.
+         */
+        private void makeRoom(long pos) {
+            boolean evict = policy == OverflowPolicy.DROP_OLDEST
+                    || Thread.currentThread() == consumer;
+            while (!ring.isFree(pos)) {
+                if (evict) {
+                    if (ring.poll() != null) {
+                        dropped.incrementAndGet();
+                    } else {
+                        // An earlier position is claimed but not filled yet
+                        Thread.yield();
+                    }
+                } else {
+                    Thread thread = consumer;
+                    if (thread != null) LockSupport.unpark(thread);
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+        }
+        
+        /**
+         * True while a recent probe found no LogHub provider and the
+         * backoff has not expired yet. One volatile read in the common case.
+         */
+        boolean isProviderAbsent() {
+            long until = absentUntil;
+            return until != 0 && SystemClock.elapsedRealtime() < until;
+        }
+        
+        /**
+         * Forgets the cached provider state so the next batch probes again.
+         * Safe to call from any thread.
+         */
+        void invalidateProvider() {
+            reprobe = true;
+            absentUntil = 0;
+            Thread thread = consumer;
+            if (thread != null && consumerWaiting) LockSupport.unpark(thread);
+        }
+        
+        @Override
+        public void run() {
+            // Deliver what an earlier run left behind without waiting for
+            // the first new log record
+            Spool leftovers = spool;
+            if (leftovers != null && leftovers.hasUnacked()) {
+                ContentProviderClient provider = acquireProvider();
+                if (provider != null && replayDue) {
+                    replayDue = false;
+                    replay(provider);
+                }
+            }
+            
+            Record[] batch = new Record[MAX_BATCH];
+            while (true) {
+                int count = 0;
+                Record record;
+                while (count < MAX_BATCH && (record = ring.poll()) != null) {
+                    batch[count++] = record;
+                }
+                if (count == 0) {
+                    awaitRecords();
+                    continue;
+                }
+                deliver(batch, count);
+                for (int i = 0; i < count; i++) batch[i] = null;
+            }
+        }
+        
+        private void awaitRecords() {
+            consumerWaiting = true;
+            // Re-check after announcing, so a record offered in between
+            // either is seen here or its producer sees the flag and unparks
+            if (ring.isEmpty()) LockSupport.park(this);
+            consumerWaiting = false;
+        }
+        
+        private void deliver(Record[] batch, int count) {
+            ContentProviderClient provider = acquireProvider();
+            if (provider == null) {
+                failed.addAndGet(count);
+                return;
+            }
+            if (replayDue) {
+                replayDue = false;
+                if (!replay(provider)) {
+                    failed.addAndGet(count);
+                    return;
+                }
+            }
+            
+            // Skip records the spool replay has already delivered
+            Spool recordSpool = spool;
+            long delivered = recordSpool != null ? recordSpool.delivered() : -1;
+            outgoing.clear();
+            for (int i = 0; i < count; i++) {
+                Record record = batch[i];
+                if (record.spoolEnd >= 0 && record.spoolEnd <= delivered) continue;
+                outgoing.add(record);
+            }
+            if (outgoing.isEmpty()) return;
+            
+            int size = outgoing.size();
+            try {
+                send(provider, outgoing);
+                sent.addAndGet(size);
+                // A gap before or inside this batch means some records are
+                // only in the spool; send those before anything newer
+                if (recordSpool != null && !recordSpool.ack(outgoing)) replayDue = true;
+            } catch (DeadObjectException e) {
+                // LogHub's process died; acquire a fresh client next time,
+                // which replays this batch from the spool
+                releaseProvider();
+                failed.addAndGet(size);
+            } catch (Exception e) {
+                // Silently fail - we don't want logging to crash the app
+                // The logs still went to logcat, just not to LogHub. The
+                // batch stays unacknowledged and is replayed before the
+                // next one
+                failed.addAndGet(size);
+                replayDue = true;
+            } finally {
+                outgoing.clear();
+            }
+        }
+        
+        /**
+         * Sends one batch: as a compact payload through call() while LogHub
+         * accepts that, otherwise as ContentValues through bulkInsert().
+         * Consumer thread only.
+         */
+        private void send(ContentProviderClient provider, List<Record> records)
+                throws RemoteException {
+            String app = appName != null ? appName : "Unknown";
+            if (compactSupported) {
+                Bundle reply = null;
+                try {
+                    reply = provider.call(BATCH_METHOD, null, codec.encode(app, records, compress));
+                } catch (DeadObjectException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    // Some providers reject unknown methods by throwing
+                }
+                if (reply != null && reply.getBoolean("ok")) return;
+                // This LogHub doesn't understand compact batches; don't
+                // ask again until a new client is acquired
+                compactSupported = false;
+            }
+            provider.bulkInsert(LOGHUB_URI, Record.toValues(app, records));
+        }
+        
+        /**
+         * Sends every unacknowledged spool record, oldest first, in batches.
+         * Consumer thread only.
+         * 
+         * @return false if LogHub failed part way; the rest stays spooled
+         */
+        private boolean replay(ContentProviderClient provider) {
+            Spool recordSpool = spool;
+            if (recordSpool == null) return true;
+            List<Record> pending = new ArrayList<>(MAX_BATCH);
+            while (true) {
+                pending.clear();
+                recordSpool.readUnacked(pending, MAX_BATCH);
+                if (pending.isEmpty()) return true;
+                try {
+                    send(provider, pending);
+                } catch (DeadObjectException e) {
+                    releaseProvider();
+                    return false;
+                } catch (Exception e) {
+                    return false;
+                }
+                replayed.addAndGet(pending.size());
+                // Records read in one go are contiguous, so this always
+                // moves the cursor; stop rather than resend forever if not
+                if (!recordSpool.ack(pending)) return true;
+            }
+        }
+        
+        /**
+         * Returns the cached client, acquiring one if the backoff allows.
+         * Consumer thread only.
+         * 
+         * @return The client, or null if LogHub is (still) unavailable
+         */
+        private ContentProviderClient acquireProvider() {
+            if (reprobe) {
+                reprobe = false;
+                backoffMs = 0;
+                releaseProvider();
+            }
+            if (client != null) return client;
+            
+            long now = SystemClock.elapsedRealtime();
+            if (now < absentUntil) return null;
+            try {
+                client = resolver.acquireUnstableContentProviderClient(LOGHUB_URI);
+            } catch (Exception e) {
+                client = null;
+            }
+            if (client == null) {
+                backoffMs = backoffMs == 0
+                        ? MIN_PROBE_BACKOFF_MS
+                        : Math.min(backoffMs * 2, MAX_PROBE_BACKOFF_MS);
+                absentUntil = now + backoffMs;
+            } else {
+                backoffMs = 0;
+                absentUntil = 0;
+                replayDue = true;
+                // A new client may be a newer LogHub; try compact batches again
+                compactSupported = true;
+            }
+            return client;
+        }
+        
+        @SuppressWarnings("deprecation")
+        private void releaseProvider() {
+            if (client == null) return;
+            try {
+                // close() needs API 24; release() does the same before it
+                client.release();
+            } catch (Exception e) {
+                // Already released or dead - nothing to clean up
+            }
+            client = null;
+        }
+        
+        /**
+         * Takes everything still buffered, oldest first. Used by the crash
+         * handler, which cannot rely on the consumer thread getting another
+         * turn before the process dies.
+         */
+        List<Record> drain() {
+            List<Record> pending = new ArrayList<>();
+            Record record;
+            while ((record = ring.poll()) != null) pending.add(record);
+            return pending;
+        }
+    }
+    
+    /**
+     * Encodes a batch for the compact call() transport.
+     * 
+     * The Bundle passed to call(BATCH_METHOD, null, extras) holds:
+     * 
+     *   "version"    int      1
+     *   "app_name"   String   sent once instead of once per record
+     *   "count"      int      number of records
+     *   "compressed" boolean  payload is zlib-wrapped DEFLATE (what
+     *                         java.util.zip.Inflater reads by default)
+     *   "payload"    byte[]
+     * 
+     * The payload, after inflating, is a sequence of unsigned LEB128
+     * varints ("varint") and length-prefixed UTF-8 strings ("string" =
+     * varint byte length, then the bytes):
+     * 
+     *   varint tagCount, then tagCount strings      - tag dictionary
+     *   varint firstTimestamp                       - epoch millis
+     *   count times:
+     *     byte   level   0 DEBUG, 1 INFO, 2 WARN, 3 ERROR
+     *     varint tag     index into the tag dictionary
+     *     varint delta   zigzag-encoded millis since the previous record
+     *                    (the first record's delta is 0)
+     *     string message
+     * 
+     * LogHub answers with a Bundle containing "ok" = true. Anything else
+     * (null, an exception, ok = false) makes the transport fall back to
+     * bulkInsert() for that batch and the rest of the client's lifetime.
+     * 
+     * decode() is the receiving side of the same format, for LogHub
+     * implementations and tests. It returns records in the order they were
+     * sent, which is the order bulkInsert() would have inserted them.
+     * 
+     * All buffers are reused; an instance belongs to one thread (the
+     * consumer, for the transport's own codec).
+     */
+    static final class BatchCodec {
+        private final ByteArrayOutputStream raw = new ByteArrayOutputStream(16 * 1024);
+        private final ByteArrayOutputStream packed = new ByteArrayOutputStream(8 * 1024);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] chunk = new byte[4096];
+        private final HashMap<String, Integer> tagIndex = new HashMap<>();
+        private final List<String> tags = new ArrayList<>();
+        
+        Bundle encode(String app, List<Record> records, boolean compress) {
+            byte[] payload = encodePayload(records);
+            boolean compressed = false;
+            if (compress && payload.length >= MIN_COMPRESS_BYTES) {
+                byte[] deflated = deflate(payload);
+                if (deflated.length < payload.length) {
+                    payload = deflated;
+                    compressed = true;
+                }
+            }
+            
+            Bundle extras = new Bundle();
+            extras.putInt("version", 1);
+            extras.putString("app_name", app);
+            extras.putInt("count", records.size());
+            extras.putBoolean("compressed", compressed);
+            extras.putByteArray("payload", payload);
+            return extras;
+        }
+        
+        /** The uncompressed payload for a non-empty batch. */
+        byte[] encodePayload(List<Record> records) {
+            raw.reset();
+            tagIndex.clear();
+            tags.clear();
+            for (Record record : records) {
+                String tag = record.tag != null ? record.tag : "";
+                if (!tagIndex.containsKey(tag)) {
+                    tagIndex.put(tag, tags.size());
+                    tags.add(tag);
+                }
+            }
+            writeVarint(tags.size());
+            for (String tag : tags) writeString(tag);
+            
+            long previous = records.get(0).timestamp;
+            writeVarint(previous);
+            for (Record record : records) {
+                raw.write(Spool.levelCode(record.level));
+                writeVarint(tagIndex.get(record.tag != null ? record.tag : ""));
+                long delta = record.timestamp - previous;
+                writeVarint((delta << 1) ^ (delta >> 63));
+                previous = record.timestamp;
+                writeString(record.message != null ? record.message : "");
+            }
+            return raw.toByteArray();
+        }
+        
+        byte[] deflate(byte[] input) {
+            packed.reset();
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                packed.write(chunk, 0, n);
+            }
+            return packed.toByteArray();
+        }
+        
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                raw.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            raw.write((int) value);
+        }
+        
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            raw.write(bytes, 0, bytes.length);
+        }
+        
+        /**
+         * Decodes "count" records from a payload as found in the Bundle.
+         * Tags come back as "" where the sender had null, messages too.
+         * 
+         * @throws IOException if the payload is truncated or malformed
+         */
+        static List<Record> decode(byte[] payload, boolean compressed, int count)
+                throws IOException {
+            Reader in = new Reader(compressed ? inflate(payload) : payload);
+            String[] tags = new String[in.count()];
+            for (int i = 0; i < tags.length; i++) tags[i] = in.string();
+            
+            List<Record> records = new ArrayList<>(count);
+            long timestamp = in.varint();
+            for (int i = 0; i < count; i++) {
+                int level = in.next();
+                if (level >= Spool.LEVELS.length) throw new IOException("Bad level " + level);
+                int tag = in.count();
+                if (tag >= tags.length) throw new IOException("Bad tag index " + tag);
+                long zigzag = in.varint();
+                timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+                records.add(new Record(Spool.LEVELS[level], tags[tag], in.string(), timestamp));
+            }
+            if (in.pos != in.bytes.length) throw new IOException("Trailing payload bytes");
+            return records;
+        }
+        
+        private static byte[] inflate(byte[] input) throws IOException {
+            Inflater inflater = new Inflater();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[4096];
+            try {
+                inflater.setInput(input);
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buffer);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated compressed payload");
+                    }
+                    out.write(buffer, 0, n);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            } finally {
+                inflater.end();
+            }
+            return out.toByteArray();
+        }
+        
+        private static final class Reader {
+            final byte[] bytes;
+            int pos;
+            
+            Reader(byte[] bytes) {
+                this.bytes = bytes;
+            }
+            
+            int next() throws IOException {
+                if (pos >= bytes.length) throw new IOException("Truncated payload");
+                return bytes[pos++] & 0xFF;
+            }
+            
+            long varint() throws IOException {
+                long value = 0;
+                for (int shift = 0; shift < 64; shift += 7) {
+                    int b = next();
+                    value |= (long) (b & 0x7F) << shift;
+                    if ((b & 0x80) == 0) return value;
+                }
+                throw new IOException("Varint too long");
+            }
+            
+            /** A varint used as a count or index, so it must fit an int. */
+            int count() throws IOException {
+                long value = varint();
+                if (value > Integer.MAX_VALUE) throw new IOException("Bad count " + value);
+                return (int) value;
+            }
+            
+            String string() throws IOException {
+                int length = count();
+                if (length > bytes.length - pos) throw new IOException("Truncated payload");
+                String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+                pos += length;
+                return value;
+            }
+        }
+    }
+    
+    /**
+     * Fixed-size ring of records in a memory-mapped file.
+     * 
+     * Writes go straight into the mapping, so they cost a memory copy and
+     * survive the process dying at any point: the pages belong to the
+     * kernel's page cache, not to us. (They would not survive a sudden
+     * power loss; nothing here calls force().)
+     * 
+     * Layout: a 32-byte header (magic, version, head, tail, delivered)
+     * followed by the data area. All three are ever-increasing logical
+     * positions; the byte offset is position % data size. Records are
+     * 
+     *   int payloadLength | long timestamp | byte level | short tagChars |
+     *   int messageChars | tag chars | message chars
+     * 
+     * with strings stored as raw UTF-16 so appending allocates nothing. A
+     * record never straddles the end of the data area: if it doesn't fit,
+     * a WRAP marker (or fewer than 4 spare bytes) sends readers back to
+     * the start. When full, the oldest records are dropped by moving head.
+     * 
+     * The two cursors below tail mean different things and move
+     * independently:
+     * 
+     *   head       oldest record still stored; moved only by overwriting
+     *   delivered  everything before it has been accepted by LogHub;
+     *              moved only by ack()
+     * 
+     * A replay sends max(delivered, head)..tail. When the spool overflows,
+     * head may pass delivered: the overwritten records are gone from the
+     * spool, but copies still in the ring are sent normally, since
+     * delivered didn't move. ack() only advances delivered over a
+     * contiguous run of records starting at the cursor, so a record is
+     * never acknowledged because a later one got through.
+     * 
+     * head is published before a record's bytes are overwritten and tail
+     * after they are complete, so a process killed mid-append leaves a
+     * readable spool.
+     */
+    static final class Spool {
+        private static final int MAGIC = 0x4C485350; // "LHSP"
+        private static final int VERSION = 1;
+        private static final int HEADER_SIZE = 32;
+        private static final int OFFSET_HEAD = 8;
+        private static final int OFFSET_TAIL = 16;
+        private static final int OFFSET_DELIVERED = 24;
+        private static final int WRAP = -1;
+        private static final int FIXED_PAYLOAD = 8 + 1 + 2 + 4;
+        private static final int MAX_TAG_CHARS = 128;
+        private static final int MAX_MESSAGE_CHARS = 32 * 1024;
+        private static final String[] LEVELS = {"DEBUG", "INFO", "WARN", "ERROR"};
+        
+        private final MappedByteBuffer buffer;
+        private final int dataSize;
+        private long head;
+        private long tail;
+        private long delivered;
+        
+        /**
+         * Maps the file, creating or resizing it as needed. A file that
+         * doesn't look like a valid spool is started over.
+         */
+        static Spool open(File file, int size) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                if (raf.length() != size) raf.setLength(size);
+                // The mapping stays valid after the file is closed
+                return new Spool(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size), size);
+            } finally {
+                raf.close();
+            }
+        }
+        
+        private Spool(MappedByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.dataSize = size - HEADER_SIZE;
+            head = buffer.getLong(OFFSET_HEAD);
+            tail = buffer.getLong(OFFSET_TAIL);
+            delivered = buffer.getLong(OFFSET_DELIVERED);
+            boolean valid = buffer.getInt(0) == MAGIC
+                    && buffer.getInt(4) == VERSION
+                    && head >= 0 && head <= tail && tail - head <= dataSize
+                    && delivered >= 0 && delivered <= tail;
+            if (!valid) {
+                head = tail = delivered = 0;
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putLong(OFFSET_HEAD, 0);
+                buffer.putLong(OFFSET_TAIL, 0);
+                buffer.putLong(OFFSET_DELIVERED, 0);
+            }
+        }
+        
+        /**
+         * Appends one record, overwriting the oldest ones if needed, and
+         * stores its position in record.spoolStart/spoolEnd. Tags and
+         * messages are truncated so one record can't take over the spool.
+         */
+        synchronized void append(Record record) {
+            String tag = record.tag;
+            String msg = record.message;
+            int tagChars = tag == null ? 0 : Math.min(tag.length(), MAX_TAG_CHARS);
+            int msgChars = msg == null ? 0 : Math.min(msg.length(), MAX_MESSAGE_CHARS);
+            int payload = FIXED_PAYLOAD + 2 * (tagChars + msgChars);
+            int need = 4 + payload;
+            
+            int offset = (int) (tail % dataSize);
+            int contiguous = dataSize - offset;
+            long start = need > contiguous ? tail + contiguous : tail;
+            long end = start + need;
+            
+            if (end - head > dataSize) {
+                while (end - head > dataSize) head = next(head);
+                buffer.putLong(OFFSET_HEAD, head);
+            }
+            if (start != tail && contiguous >= 4) {
+                buffer.putInt(HEADER_SIZE + offset, WRAP);
+            }
+            
+            int p = HEADER_SIZE + (int) (start % dataSize);
+            buffer.putInt(p, payload);
+            buffer.putLong(p + 4, record.timestamp);
+            buffer.put(p + 12, levelCode(record.level));
+            buffer.putShort(p + 13, (short) tagChars);
+            buffer.putInt(p + 15, msgChars);
+            p += 4 + FIXED_PAYLOAD;
+            for (int i = 0; i < tagChars; i++, p += 2) buffer.putChar(p, tag.charAt(i));
+            for (int i = 0; i < msgChars; i++, p += 2) buffer.putChar(p, msg.charAt(i));
+            
+            record.spoolStart = tail;
+            record.spoolEnd = end;
+            tail = end;
+            buffer.putLong(OFFSET_TAIL, tail);
+        }
+        
+        /**
+         * Reads up to max undelivered records that are still stored, oldest
+         * first, without acknowledging them.
+         */
+        synchronized void readUnacked(List<Record> out, int max) {
+            long pos = Math.max(delivered, head);
+            long start = pos;
+            while (out.size() < max && pos < tail) {
+                int offset = (int) (pos % dataSize);
+                int contiguous = dataSize - offset;
+                int payload = contiguous < 4 ? WRAP : buffer.getInt(HEADER_SIZE + offset);
+                if (payload == WRAP) {
+                    // The skipped bytes belong to the next record's range,
+                    // as they did when it was appended
+                    pos += contiguous;
+                    continue;
+                }
+                int p = HEADER_SIZE + offset + 4;
+                int levelCode = buffer.get(p + 8);
+                int tagChars = buffer.getShort(p + 9);
+                int msgChars = buffer.getInt(p + 11);
+                if (payload < FIXED_PAYLOAD || payload > contiguous - 4
+                        || payload != FIXED_PAYLOAD + 2 * (tagChars + msgChars)
+                        || levelCode < 0 || levelCode >= LEVELS.length) {
+                    // Garbage (e.g. a torn write from an older crash) -
+                    // give up on the rest rather than replay nonsense
+                    delivered = tail;
+                    buffer.putLong(OFFSET_DELIVERED, delivered);
+                    return;
+                }
+                long timestamp = buffer.getLong(p);
+                p += FIXED_PAYLOAD;
+                String tag = readChars(p, tagChars);
+                String msg = readChars(p + 2 * tagChars, msgChars);
+                Record record = new Record(LEVELS[levelCode], tag, msg, timestamp);
+                pos += 4 + payload;
+                record.spoolStart = start;
+                record.spoolEnd = pos;
+                start = pos;
+                out.add(record);
+            }
+        }
+        
+        /**
+         * Marks records LogHub accepted as delivered. The cursor advances
+         * over the records only while each one starts where the delivered
+         * (or overwritten) range ends; it stops at the first gap.
+         * 
+         * @param records Spool order, as batched by the transport
+         * @return true if every record is now covered by the cursor
+         */
+        synchronized boolean ack(List<Record> records) {
+            long pos = Math.max(delivered, head);
+            boolean complete = true;
+            for (Record record : records) {
+                if (record.spoolEnd < 0) {
+                    complete = false;
+                    break;
+                }
+                if (record.spoolEnd <= pos) continue;
+                if (record.spoolStart > pos) {
+                    complete = false;
+                    break;
+                }
+                pos = record.spoolEnd;
+            }
+            if (pos > delivered) {
+                delivered = Math.min(pos, tail);
+                buffer.putLong(OFFSET_DELIVERED, delivered);
+            }
+            return complete;
+        }
+        
+        synchronized long delivered() {
+            return delivered;
+        }
+        
+        synchronized boolean hasUnacked() {
+            return Math.max(delivered, head) < tail;
+        }
+        
+        /**
+         * @return The position of the record after the one at pos
+         */
+        private long next(long pos) {
+            int offset = (int) (pos % dataSize);
+            int contiguous = dataSize - offset;
+            if (contiguous < 4) return pos + contiguous;
+            int payload = buffer.getInt(HEADER_SIZE + offset);
+            return payload == WRAP ? pos + contiguous : pos + 4 + payload;
+        }
+        
+        private String readChars(int position, int count) {
+            char[] chars = new char[count];
+            for (int i = 0; i < count; i++) chars[i] = buffer.getChar(position + 2 * i);
+            return new String(chars);
+        }
+        
+        private static byte levelCode(String level) {
+            for (int i = 0; i < LEVELS.length; i++) {
+                if (LEVELS[i].equals(level)) return (byte) i;
+            }
+            return 0;
+        }
+    }
+    
+    /**
+     * The last N log lines, kept for crash reports.
+     * 
+     * All storage is allocated up front: per slot a timestamp, a priority,
+     * the tag reference (tags are almost always constants) and a fixed
+     * window of a shared char array that the message is copied into. A
+     * writer claims a slot with one getAndIncrement, so adding a line
+     * creates no objects and takes no lock.
+     * 
+     * Each slot has a stamp: 0 while being written, sequence + 1 once
+     * complete. The crash handler checks the stamp before and after
+     * copying a slot and skips any that changed underneath it.
+     */
+    static final class Breadcrumbs {
+        private final int capacity;
+        private final int mask;
+        private final int slotChars;
+        private final AtomicLong next = new AtomicLong();
+        private final AtomicLongArray stamps;
+        private final long[] timestamps;
+        private final byte[] priorities;
+        private final String[] tags;
+        private final int[] lengths;
+        private final char[] text;
+        
+        Breadcrumbs(int capacity, int slotChars) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.slotChars = slotChars;
+            stamps = new AtomicLongArray(capacity);
+            timestamps = new long[capacity];
+            priorities = new byte[capacity];
+            tags = new String[capacity];
+            lengths = new int[capacity];
+            text = new char[capacity * slotChars];
+        }
+        
+        void add(int priority, String tag, String msg, long timestamp) {
+            long sequence = next.getAndIncrement();
+            int slot = (int) sequence & mask;
+            stamps.set(slot, 0);
+            timestamps[slot] = timestamp;
+            priorities[slot] = (byte) priority;
+            tags[slot] = tag;
+            int length = msg == null ? 0 : Math.min(msg.length(), slotChars);
+            if (length > 0) msg.getChars(0, length, text, slot * slotChars);
+            // A full window means the message was (probably) truncated
+            lengths[slot] = length;
+            // Release store: orders the writes above, no full fence needed
+            stamps.lazySet(slot, sequence + 1);
+        }
+        
+        /**
+         * Appends the retained lines, oldest first, one per line as
+         * "HH:mm:ss.SSS L/tag: message". Allocates freely - only called
+         * when the app is already crashing.
+         */
+        void appendTo(StringBuilder sb) {
+            SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+            long end = next.get();
+            for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                long stamp = stamps.get(slot);
+                if (stamp != sequence + 1) continue;
+                long timestamp = timestamps[slot];
+                int priority = priorities[slot];
+                String tag = tags[slot];
+                int length = lengths[slot];
+                String msg = new String(text, slot * slotChars, length);
+                if (stamps.get(slot) != stamp) continue;
+                
+                sb.append(time.format(new Date(timestamp)))
+                        .append(' ')
+                        .append(priorityLetter(priority))
+                        .append('/')
+                        .append(tag)
+                        .append(": ")
+                        .append(msg);
+                if (length == slotChars) sb.append("...");
+                sb.append('\n');
+            }
+        }
+        
+        private static char priorityLetter(int priority) {
+            switch (priority) {
+                case android.util.Log.VERBOSE: return 'V';
+                case android.util.Log.DEBUG: return 'D';
+                case android.util.Log.INFO: return 'I';
+                case android.util.Log.WARN: return 'W';
+                case android.util.Log.ERROR: return 'E';
+                case android.util.Log.ASSERT: return 'A';
+                default: return '?';
+            }
         }
     }
     
@@ -752,9 +2465,14 @@ public class Log extends Application {
      * 
      * This handler:
      * 1. Intercepts uncaught exceptions before the app crashes
-     * 2. Formats crash information (exception type, message, stack trace)
-     * 3. Synchronously writes to LogHub (since app is crashing anyway)
-     * 4. Calls the original handler to let the app crash normally
+     * 2. Formats crash information (exception type, message, stack trace,
+     *    recent log lines)
+     * 3. Appends the crash to the memory-mapped spool, which persists it
+     *    even if nothing else gets done before the process dies
+     * 4. Unless LogHub is known to be missing, synchronously writes every
+     *    undelivered spooled record, ending with the crash, to LogHub in
+     *    bulkInserts (since app is crashing anyway)
+     * 5. Calls the original handler to let the app crash normally
      * 
      * The app still crashes (this doesn't prevent crashes), but now you
      * have a record of the crash in LogHub for debugging.
@@ -789,22 +2507,43 @@ public class Log extends Application {
             try {
                 // Format crash information
                 String crashLog = getCrashLog(thread, throwable);
+                long timestamp = System.currentTimeMillis();
                 
-                // Save crash to LogHub synchronously
-                // We don't use a background thread here because:
-                // 1. The app is crashing anyway, so blocking is acceptable
-                // 2. We need to ensure the log is written before the process dies
-                ContentValues v = new ContentValues();
-                v.put("app_name", appName);
-                v.put("tag", "CRASH");
-                v.put("message", crashLog);
-                v.put("level", "ERROR");
-                v.put("timestamp", System.currentTimeMillis());
-                context.getContentResolver().insert(LOGHUB_URI, v);
+                // Persist the crash first; if anything below fails or the
+                // process is killed, the next start replays it from here
+                Record crash = new Record("ERROR", "CRASH", crashLog, timestamp);
+                Spool spool = transport.spool;
+                if (spool != null) spool.append(crash);
                 
-                // Small delay to ensure the write completes
-                // This is a best-effort attempt; the system may kill us anyway
-                Thread.sleep(100);
+                // Save pending logs and the crash to LogHub synchronously
+                // We don't hand this to the transport thread because:
+                // 1. The app is crashing anyway, so blocking is acceptable
+                // 2. We want the crash visible now, not on the next start
+                // The undelivered records usually explain the crash, so
+                // they go first, in order. bulkInsert() only returns once
+                // LogHub has the rows, so there is nothing to wait for
+                // afterwards.
+                if (!transport.isProviderAbsent()) {
+                    String app = Log.appName != null ? Log.appName : appName;
+                    ContentResolver resolver = context.getContentResolver();
+                    if (spool != null) {
+                        // Everything in the ring was spooled before it was
+                        // queued, so the spool alone covers the ring,
+                        // failed batches and the crash
+                        List<Record> pending = new ArrayList<>(MAX_BATCH);
+                        while (true) {
+                            pending.clear();
+                            spool.readUnacked(pending, MAX_BATCH);
+                            if (pending.isEmpty()) break;
+                            resolver.bulkInsert(LOGHUB_URI, Record.toValues(app, pending));
+                            if (!spool.ack(pending)) break;
+                        }
+                    } else {
+                        List<Record> pending = transport.drain();
+                        pending.add(crash);
+                        resolver.bulkInsert(LOGHUB_URI, Record.toValues(app, pending));
+                    }
+                }
                 
             } catch (Exception e) {
                 // If crash logging fails, at least try to log to logcat
@@ -833,6 +2572,9 @@ public class Log extends Application {
             sb.append("Thread: ").append(thread.getName()).append("\n\n");
             sb.append("Stack Trace:\n");
             sb.append(android.util.Log.getStackTraceString(throwable));
+            // Same record as the crash itself, so it arrives in one write
+            sb.append("\nRecent logs (oldest first):\n");
+            breadcrumbs.appendTo(sb);
             return sb.toString();
         }
     }
@@ -1,98 +1,140 @@
 package aman.icons;
 
 import aman.icons.Logging.Log;
+import aman.icons.core.IconModel;
+import aman.icons.core.IconSearch;
+import aman.icons.core.SvgConverter;
+import aman.icons.core.ZipExporter;
 import android.content.ClipData;
 import android.content.ClipboardManager;
-import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.content.res.ColorStateList;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
 import android.os.Handler;
 import android.os.Looper;
-import android.provider.MediaStore;
+import android.os.StrictMode;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.documentfile.provider.DocumentFile;
+import androidx.cardview.widget.CardView;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.caverock.androidsvg.SVG;
 import java.util.Set;
-import java.util.HashSet;
 import okhttp3.*;
-import org.json.JSONArray;
-import org.json.JSONObject;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "ICON_HUNTER";
-    private static final String PREFS_NAME = "IconHunterPrefs";
+    static final String PREFS_NAME = "IconHunterPrefs";
     private static final String KEY_DOWNLOAD_DIR = "download_tree_uri";
-
-    private static final String ICON_LIST_URL =
-            "https://fonts.google.com/metadata/icons?key=material_symbols&incomplete=true";
-
-    private static final String ICON_BASE_URL =
-            "https://fonts.gstatic.com/s/i/short-term/release/materialsymbolsoutlined/%s/default/24px.svg";
+    private static final String KEY_FONT_PREVIEW = "font_preview";
+    private static final String KEY_OPTIMIZE_PATHS = "optimize_paths";
+    private static final long VARIANT_PRELOAD_TIMEOUT_MS = 1500;
+    private static final int GRID_COLUMNS = 3;
+    private static final int GRID_VIEW_CACHE_SIZE = 4 * GRID_COLUMNS;
+    private static final int GRID_RECYCLED_VIEWS = 8 * GRID_COLUMNS;
 
     private EditText searchBar;
     private ImageButton btnSelectFolder;
+    private ImageButton btnSync;
+    private ImageButton btnPreviewMode;
+    private ImageButton btnVariant;
     private RecyclerView recyclerView;
     private ProgressBar progressBar;
-
-    private List<IconModel> allIcons = new ArrayList<>();
+    private View selectionBar;
+    private TextView selectionCount;
+    private Button btnSelectAll;
+    private Button btnClearSelection;
+    private Button btnExportSelected;
+    private Button btnZipSelected;
+    private Button btnPngSelected;
+    private ProgressBar exportProgress;
+
+    private MainViewModel model;
+    private IconSearch iconSearch = new IconSearch(new ArrayList<>());
     private IconAdapter adapter;
-    private OkHttpClient client = new OkHttpClient();
     private Handler mainHandler = new Handler(Looper.getMainLooper());
-    private ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
-    private LruCache<String, Bitmap> memoryCache;
+    private IconDiskCache diskCache;
+    private IconVariant variant;
+    private Runnable pendingVariantSwap;
+    private Set<String> selectedNames;
+    private ActivityResultLauncher<Intent> zipPickerLauncher;
+    private boolean fontPreview;
+    private volatile boolean optimizePaths;
+    private volatile boolean flinging;
+    private final Set<String> deferredPreviews = new HashSet<>();
 
-    private Uri customDownloadUri = null;
     private ActivityResultLauncher<Intent> folderPickerLauncher;
+    private ActivityResultLauncher<Intent> fontPickerLauncher;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        enableStrictModeForDebugBuilds();
+        StartupTrace.mark("activity_create");
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        model = new ViewModelProvider(this).get(MainViewModel.class);
+        selectedNames = model.selectedNames;
         initCache();
-        restoreDownloadLocation();
         setupFolderPicker();
+        setupFontPicker();
+        setupZipPicker();
 
         searchBar = findViewById(R.id.searchBar);
         btnSelectFolder = findViewById(R.id.btnSelectFolder);
+        btnSync = findViewById(R.id.btnSync);
+        btnPreviewMode = findViewById(R.id.btnPreviewMode);
+        btnVariant = findViewById(R.id.btnVariant);
         recyclerView = findViewById(R.id.recyclerView);
         progressBar = findViewById(R.id.progressBar);
-
-        recyclerView.setLayoutManager(new GridLayoutManager(this, 3));
+        selectionBar = findViewById(R.id.selectionBar);
+        selectionCount = findViewById(R.id.selectionCount);
+        btnSelectAll = findViewById(R.id.btnSelectAll);
+        btnClearSelection = findViewById(R.id.btnClearSelection);
+        btnExportSelected = findViewById(R.id.btnExportSelected);
+        btnZipSelected = findViewById(R.id.btnZipSelected);
+        btnPngSelected = findViewById(R.id.btnPngSelected);
+        exportProgress = findViewById(R.id.exportProgress);
+
+        recyclerView.setLayoutManager(new GridLayoutManager(this, GRID_COLUMNS));
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setItemViewCacheSize(GRID_VIEW_CACHE_SIZE);
+        recyclerView.getRecycledViewPool().setMaxRecycledViews(0, GRID_RECYCLED_VIEWS);
         adapter = new IconAdapter();
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(
+                new RecyclerView.OnScrollListener() {
+                    @Override
+                    public void onScrollStateChanged(RecyclerView rv, int newState) {
+                        boolean wasFlinging = flinging;
+                        flinging = newState == RecyclerView.SCROLL_STATE_SETTLING;
+                        if (wasFlinging && !flinging) loadDeferredPreviews();
+                    }
+                });
 
         searchBar.addTextChangedListener(
                 new TextWatcher() {
@@ -106,317 +148,682 @@ public class MainActivity extends AppCompatActivity {
                 });
 
         btnSelectFolder.setOnClickListener(v -> openFolderPicker());
+        btnSelectFolder.setOnLongClickListener(
+                v -> {
+                    toggleOptimizePaths();
+                    return true;
+                });
+        btnSync.setOnClickListener(v -> toggleOfflineSync());
+        btnSync.setOnLongClickListener(
+                v -> {
+                    String report = CatalogSyncService.lastReport(this);
+                    Toast.makeText(
+                                    this,
+                                    report != null ? report : "No sync has run yet",
+                                    Toast.LENGTH_LONG)
+                            .show();
+                    return true;
+                });
 
-        fetchIconList();
+        btnVariant.setOnClickListener(v -> openVariantPicker());
+        btnVariant.setOnLongClickListener(v -> MetricsScreen.show(this));
+        btnSelectAll.setOnClickListener(v -> selectAllVisible());
+        btnClearSelection.setOnClickListener(v -> clearSelection());
+        btnExportSelected.setOnClickListener(v -> exportSelected());
+        btnZipSelected.setOnClickListener(v -> openZipPicker(null, "material_icons.zip"));
+        btnPngSelected.setOnClickListener(v -> openPngOptions());
+        btnPreviewMode.setOnClickListener(v -> togglePreviewMode());
+        btnPreviewMode.setOnLongClickListener(
+                v -> {
+                    openFontPicker();
+                    return true;
+                });
+        boolean loadTest =
+                savedInstanceState == null && PreviewLoadHarness.maybeStart(this, getIntent());
+        if (!loadTest) restorePreviewMode();
+        optimizePaths =
+                getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                        .getBoolean(KEY_OPTIMIZE_PATHS, false);
+
+        if (CatalogSyncService.isPending(this) && !CatalogSyncService.isRunning()) {
+            CatalogSyncService.start(this);
+        }
+
+        if (!loadTest) fetchIconList();
+        attachExports();
+        restoreDownloadLocation();
+        recyclerView.post(() -> StartupTrace.mark("first_frame"));
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        model.setIndexListener(null);
+        model.setExportListener(null);
+    }
+
+    // Debug builds log any disk access on the main thread, which catches export writes or cache
+    // reads that slip back onto the UI thread.
+    private void enableStrictModeForDebugBuilds() {
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            StrictMode.setThreadPolicy(
+                    new StrictMode.ThreadPolicy.Builder()
+                            .detectDiskReads()
+                            .detectDiskWrites()
+                            .detectCustomSlowCalls()
+                            .penaltyLog()
+                            .build());
+        }
     }
 
     private void initCache() {
-        int maxMemory = (int) (Runtime.getRuntime().maxMemory() / 1024);
-        int cacheSize = maxMemory / 8;
-        memoryCache =
-                new LruCache<String, Bitmap>(cacheSize) {
-                    @Override
-                    protected int sizeOf(String key, Bitmap bitmap) {
-                        return bitmap.getByteCount() / 1024;
-                    }
-                };
+        variant = IconVariant.fromPrefs(getSharedPreferences(PREFS_NAME, MODE_PRIVATE));
+        diskCache = new IconDiskCache(this, variant);
     }
 
-    private void fetchIconList() {
-        File cacheFile = new File(getCacheDir(), "icons_metadata.json");
-        if (cacheFile.exists()) {
-            diskExecutor.execute(
+    private void restorePreviewMode() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_FONT_PREVIEW, false)) {
+            model.diskExecutor().execute(
                     () -> {
-                        try (FileInputStream in = new FileInputStream(cacheFile)) {
-                            byte[] buffer = new byte[(int) cacheFile.length()];
-                            in.read(buffer);
-                            String jsonStr = new String(buffer, StandardCharsets.UTF_8);
-                            parseMetadataJson(jsonStr);
-                        } catch (Exception e) {
-                            fetchFromNetwork();
-                        }
+                        boolean ready = model.glyphRenderer.load();
+                        mainHandler.post(() -> setFontPreview(ready));
                     });
-        } else {
-            fetchFromNetwork();
         }
     }
 
-    private void fetchFromNetwork() {
-        Request request = new Request.Builder().url(ICON_LIST_URL).build();
-        client.newCall(request)
-                .enqueue(
-                        new Callback() {
-                            @Override
-                            public void onFailure(Call call, IOException e) {
-                                mainHandler.post(
-                                        () -> {
-                                            Toast.makeText(
-                                                            MainActivity.this,
-                                                            "Network Error",
-                                                            Toast.LENGTH_SHORT)
-                                                    .show();
-                                            progressBar.setVisibility(View.GONE);
-                                        });
-                            }
+    private void toggleOptimizePaths() {
+        optimizePaths = !optimizePaths;
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .edit()
+                .putBoolean(KEY_OPTIMIZE_PATHS, optimizePaths)
+                .apply();
+        Toast.makeText(
+                        this,
+                        optimizePaths ? "Path optimization on" : "Path optimization off",
+                        Toast.LENGTH_SHORT)
+                .show();
+    }
 
-                            @Override
-                            public void onResponse(Call call, Response response)
-                                    throws IOException {
-                                if (response.isSuccessful()) {
-                                    String jsonStr = response.body().string();
-
-                                    try (FileOutputStream out =
-                                            new FileOutputStream(
-                                                    new File(
-                                                            getCacheDir(),
-                                                            "icons_metadata.json"))) {
-                                        out.write(jsonStr.getBytes(StandardCharsets.UTF_8));
-                                    } catch (Exception ignored) {
+    private void togglePreviewMode() {
+        if (fontPreview) {
+            setFontPreview(false);
+            return;
+        }
+        if (model.glyphRenderer.hasFontFile()) {
+            model.diskExecutor().execute(
+                    () -> {
+                        boolean ready = model.glyphRenderer.load();
+                        mainHandler.post(
+                                () -> {
+                                    if (ready) {
+                                        setFontPreview(true);
+                                    } else {
+                                        offerFontSource();
                                     }
+                                });
+                    });
+        } else {
+            offerFontSource();
+        }
+    }
+
+    private void offerFontSource() {
+        new AlertDialog.Builder(this)
+                .setTitle("Font preview")
+                .setMessage(
+                        "Font preview draws every icon from the Material Symbols font instead of"
+                                + " downloading one SVG per icon.")
+                .setPositiveButton("Download font", (d, w) -> downloadFont())
+                .setNeutralButton("Choose file", (d, w) -> openFontPicker())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void downloadFont() {
+        Toast.makeText(this, "Downloading font...", Toast.LENGTH_SHORT).show();
+        model.diskExecutor().execute(
+                () -> {
+                    try {
+                        model.glyphRenderer.download(model.client());
+                        mainHandler.post(() -> setFontPreview(true));
+                    } catch (IOException e) {
+                        Log.e(TAG, "Font download failed", e);
+                        mainHandler.post(
+                                () ->
+                                        Toast.makeText(
+                                                        MainActivity.this,
+                                                        "Font download failed",
+                                                        Toast.LENGTH_SHORT)
+                                                .show());
+                    }
+                });
+    }
 
-                                    parseMetadataJson(jsonStr);
+    private void setupFontPicker() {
+        fontPickerLauncher =
+                registerForActivityResult(
+                        new ActivityResultContracts.StartActivityForResult(),
+                        result -> {
+                            if (result.getResultCode() == RESULT_OK && result.getData() != null) {
+                                Uri uri = result.getData().getData();
+                                if (uri != null) {
+                                    model.diskExecutor().execute(
+                                            () -> {
+                                                try {
+                                                    model.glyphRenderer.sideLoad(this, uri);
+                                                    mainHandler.post(() -> setFontPreview(true));
+                                                } catch (IOException e) {
+                                                    mainHandler.post(
+                                                            () ->
+                                                                    Toast.makeText(
+                                                                                    this,
+                                                                                    "Not a usable font file",
+                                                                                    Toast.LENGTH_SHORT)
+                                                                            .show());
+                                                }
+                                            });
                                 }
                             }
                         });
     }
 
-    private void parseMetadataJson(String jsonStr) {
-        try {
-            if (jsonStr.startsWith(")]}'")) {
-                jsonStr = jsonStr.substring(jsonStr.indexOf("\n") + 1);
-            }
+    private void openFontPicker() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        fontPickerLauncher.launch(intent);
+    }
 
-            JSONObject root = new JSONObject(jsonStr);
-            JSONArray iconsArray = root.getJSONArray("icons");
+    private void setFontPreview(boolean enabled) {
+        fontPreview = enabled && model.glyphRenderer.isReady();
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .edit()
+                .putBoolean(KEY_FONT_PREVIEW, fontPreview)
+                .apply();
+        btnPreviewMode.setAlpha(fontPreview ? 1f : 0.5f);
+        adapter.notifyDataSetChanged();
+    }
 
-            List<IconModel> parsedList = new ArrayList<>();
+    private void toggleOfflineSync() {
+        if (CatalogSyncService.isRunning()) {
+            CatalogSyncService.cancel(this);
+            Toast.makeText(this, "Offline sync paused", Toast.LENGTH_SHORT).show();
+        } else {
+            CatalogSyncService.start(this);
+            Toast.makeText(this, "Downloading all icons for offline use", Toast.LENGTH_SHORT)
+                    .show();
+        }
+    }
 
-            for (int i = 0; i < iconsArray.length(); i++) {
-                JSONObject item = iconsArray.getJSONObject(i);
-                String name = item.getString("name");
+    void beginPreviewLoadTest(File cacheRoot, List<IconModel> icons) {
+        fontPreview = false;
+        model.memoryCache.evictAll();
+        diskCache = new IconDiskCache(cacheRoot, variant);
+        iconSearch = new IconSearch(icons);
+        adapter.updateList(icons);
+        progressBar.setVisibility(View.GONE);
+    }
 
-                List<String> tagsList = new ArrayList<>();
-                if (item.has("tags")) {
-                    JSONArray tagsJson = item.getJSONArray("tags");
-                    for (int j = 0; j < tagsJson.length(); j++) {
-                        tagsList.add(tagsJson.getString(j).toLowerCase());
-                    }
-                }
+    void scrollGridBy(int dy) {
+        recyclerView.scrollBy(0, dy);
+    }
 
-                parsedList.add(new IconModel(name, tagsList));
-            }
+    void endPreviewLoadTest() {
+        model.memoryCache.evictAll();
+        diskCache = new IconDiskCache(this, variant);
+        restorePreviewMode();
+        fetchIconList();
+    }
 
-            mainHandler.post(
-                    () -> {
-                        allIcons = parsedList;
-                        adapter.updateList(allIcons);
+    private void fetchIconList() {
+        model.setIndexListener(
+                new MainViewModel.IndexListener() {
+                    @Override
+                    public void onFirstPage(List<IconModel> icons) {
+                        adapter.updateList(icons);
+                        progressBar.setVisibility(View.GONE);
+                        StartupTrace.mark("first_page");
+                    }
+
+                    @Override
+                    public void onIndexLoaded(IconSearch search, boolean fresh) {
+                        iconSearch = search;
+                        adapter.updateList(iconSearch.filter(searchBar.getText().toString()));
                         progressBar.setVisibility(View.GONE);
+                        if (!fresh) return;
+                        StartupTrace.mark("index_ready");
+                        reportFullyDrawn();
                         Toast.makeText(
                                         MainActivity.this,
-                                        "Loaded " + allIcons.size() + " Icons",
+                                        "Loaded " + search.all().size() + " Icons",
                                         Toast.LENGTH_SHORT)
                                 .show();
-                    });
+                    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            mainHandler.post(
-                    () ->
-                            Toast.makeText(MainActivity.this, "Parse Error", Toast.LENGTH_SHORT)
-                                    .show());
-        }
+                    @Override
+                    public void onIndexFailed(String message) {
+                        Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+                        progressBar.setVisibility(View.GONE);
+                    }
+                });
+        model.loadIndex();
     }
 
     private void filterIcons(String query) {
-        String q = query.toLowerCase().trim();
+        long start = System.nanoTime();
+        List<IconModel> results = iconSearch.filter(query);
+        Metrics.SEARCH.recordSince(start);
+        adapter.updateList(results);
+    }
+
+    private void saveBitmapToDisk(IconDiskCache cache, String name, Bitmap bitmap) {
+        model.diskExecutor().execute(
+                () -> {
+                    try {
+                        cache.saveBitmap(name, bitmap);
+                    } catch (Exception e) {
+                        Log.e(TAG, name + ": preview cache write failed", e);
+                    }
+                });
+    }
+
+    private void saveRawSvgToDisk(IconDiskCache cache, String name, String svgContent) {
+        model.diskExecutor().execute(
+                () -> {
+                    try {
+                        cache.saveSvg(name, svgContent);
+                    } catch (Exception e) {
+                        Log.e(TAG, name + ": SVG cache write failed", e);
+                    }
+                });
+    }
+
+    private String previewKey(IconVariant variant, String name) {
+        return variant.key() + "/" + name;
+    }
+
+    private void loadGlyphPreview(
+            ImageView imageView, IconModel icon, String key, Drawable placeholder) {
+        imageView.setTag(key);
+        imageView.setVisibility(View.VISIBLE);
 
-        if (q.isEmpty()) {
-            adapter.updateList(allIcons);
+        Metrics.PREVIEW_GLYPH.inc();
+        Bitmap memoryBitmap = model.memoryCache.get(key);
+        if (memoryBitmap != null) {
+            imageView.setImageBitmap(memoryBitmap);
             return;
         }
+        imageView.setImageDrawable(placeholder);
+        model.glyphRenderer.renderAsync(
+                icon,
+                variant,
+                bitmap -> {
+                    model.memoryCache.put(key, bitmap);
+                    if (key.equals(imageView.getTag())) imageView.setImageBitmap(bitmap);
+                });
+    }
 
-        List<IconModel> exactMatches = new ArrayList<>();
-        List<IconModel> nameMatches = new ArrayList<>();
-        List<IconModel> tagMatches = new ArrayList<>();
-
-        for (IconModel icon : allIcons) {
-            if (icon.name.equals(q)) {
-                exactMatches.add(icon);
-            } else if (icon.name.contains(q)) {
-                nameMatches.add(icon);
-            } else {
-                for (String tag : icon.tags) {
-                    if (tag.contains(q)) {
-                        tagMatches.add(icon);
-                        break;
-                    }
-                }
-            }
+    private void loadSvgPreview(
+            ImageView imageView, IconModel icon, String key, Drawable placeholder) {
+        if (fontPreview) {
+            loadGlyphPreview(imageView, icon, key, placeholder);
+            return;
         }
+        IconDiskCache cache = diskCache;
+        PreviewStats.bound(key);
+        imageView.setTag(key);
+        imageView.setVisibility(View.VISIBLE);
 
-        Set<String> addedNames = new HashSet<>();
-        List<IconModel> finalResult = new ArrayList<>();
+        Bitmap memoryBitmap = model.memoryCache.get(key);
+        if (memoryBitmap != null) {
+            Metrics.PREVIEW_MEMORY.inc();
+            imageView.setImageBitmap(memoryBitmap);
+            PreviewStats.shown(key);
+            return;
+        }
+        imageView.setImageDrawable(placeholder);
 
-        addUnique(exactMatches, finalResult, addedNames);
-        addUnique(nameMatches, finalResult, addedNames);
-        addUnique(tagMatches, finalResult, addedNames);
+        requestPreview(cache, icon.name, key, imageView, flinging);
+    }
 
-        adapter.updateList(finalResult);
+    private void requestPreview(
+            IconDiskCache cache, String name, String key, ImageView imageView, boolean deferrable) {
+        long queuedAt = System.nanoTime();
+        PipelineTrace trace = PipelineTrace.begin("preview", name);
+        model.diskExecutor()
+                .execute(
+                        () -> {
+                            Metrics.PREVIEW_QUEUE.recordSince(queuedAt);
+                            trace.mark("start");
+                            fetchPreview(cache, name, key, imageView, null, trace, deferrable);
+                        });
     }
 
-    private void addUnique(List<IconModel> source, List<IconModel> destination, Set<String> seen) {
-        for (IconModel icon : source) {
-            if (seen.add(icon.name)) {
-                destination.add(icon);
-            }
+    // Runs on diskExecutor. imageView is null when preloading; onDone fires once per call.
+    // A deferrable request still flinging stops after the disk PNG tier; the cell keeps its
+    // placeholder until the scroll settles.
+    private void fetchPreview(
+            IconDiskCache cache,
+            String name,
+            String key,
+            ImageView imageView,
+            Runnable onDone,
+            PipelineTrace trace,
+            boolean deferrable) {
+        Bitmap memoryBitmap = model.memoryCache.get(key);
+        if (memoryBitmap != null) {
+            Metrics.PREVIEW_MEMORY.inc();
+            trace.mark("memory_hit");
+            showPreview(imageView, key, memoryBitmap, trace);
+            if (onDone != null) onDone.run();
+            return;
         }
+
+        long start = System.nanoTime();
+        PipelineTrace.beginSection("preview:disk_png");
+        Bitmap diskBitmap = cache.loadBitmap(name);
+        PipelineTrace.endSection();
+        if (diskBitmap != null) {
+            Metrics.PREVIEW_DISK_PNG.recordSince(start);
+            trace.mark("disk_png_hit");
+            model.memoryCache.put(key, diskBitmap);
+            showPreview(imageView, key, diskBitmap, trace);
+            if (onDone != null) onDone.run();
+            return;
+        }
+        trace.mark("disk_png_miss");
+
+        if (deferrable && flinging) {
+            Metrics.PREVIEW_DEFERRED.inc();
+            trace.finish("deferred");
+            mainHandler.post(() -> deferPreview(key));
+            if (onDone != null) onDone.run();
+            return;
+        }
+
+        start = System.nanoTime();
+        PipelineTrace.beginSection("preview:disk_svg");
+        String localSvg = cache.loadSvg(name);
+        PipelineTrace.endSection();
+        if (localSvg != null) {
+            Metrics.PREVIEW_DISK_SVG.recordSince(start);
+            trace.mark("disk_svg_hit");
+            renderSvgAndCache(cache, name, key, localSvg, imageView, trace);
+            if (onDone != null) onDone.run();
+            return;
+        }
+        trace.mark("disk_svg_miss");
+
+        long requestedAt = System.nanoTime();
+        trace.mark("network_start");
+        Request request = new Request.Builder().url(cache.variant().svgUrl(name)).build();
+        model.client().newCall(request)
+                .enqueue(
+                        new Callback() {
+                            @Override
+                            public void onFailure(Call call, IOException e) {
+                                Metrics.PREVIEW_FAILED.inc();
+                                trace.mark("network_failed");
+                                hidePreview(imageView, key, trace);
+                                if (onDone != null) onDone.run();
+                            }
+
+                            @Override
+                            public void onResponse(Call call, Response response)
+                                    throws IOException {
+                                if (response.isSuccessful()) {
+                                    byte[] body = response.body().bytes();
+                                    Metrics.PREVIEW_NETWORK.recordSince(requestedAt);
+                                    Metrics.PREVIEW_BYTES.add(body.length);
+                                    trace.mark("network_done");
+                                    String rawSvg = new String(body, StandardCharsets.UTF_8);
+                                    saveRawSvgToDisk(cache, name, rawSvg);
+                                    renderSvgAndCache(cache, name, key, rawSvg, imageView, trace);
+                                } else {
+                                    Metrics.PREVIEW_FAILED.inc();
+                                    trace.mark("network_failed");
+                                    hidePreview(imageView, key, trace);
+                                }
+                                if (onDone != null) onDone.run();
+                            }
+                        });
     }
 
-    private void saveBitmapToDisk(String url, Bitmap bitmap) {
-        diskExecutor.execute(
+    private void showPreview(ImageView imageView, String key, Bitmap bitmap, PipelineTrace trace) {
+        if (imageView == null) {
+            trace.finish("cached");
+            return;
+        }
+        mainHandler.post(
                 () -> {
-                    try {
-                        File file =
-                                new File(getCacheDir(), String.valueOf(url.hashCode()) + ".png");
-                        try (FileOutputStream out = new FileOutputStream(file)) {
-                            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
-                        }
-                    } catch (Exception e) {
+                    if (key.equals(imageView.getTag())) {
+                        imageView.setImageBitmap(bitmap);
+                        PreviewStats.shown(key);
+                        trace.finish("shown");
+                    } else {
+                        PreviewStats.discarded(key);
+                        trace.finish("discarded");
                     }
                 });
     }
 
-    private Bitmap loadBitmapFromDisk(String url) {
-        File file = new File(getCacheDir(), String.valueOf(url.hashCode()) + ".png");
-        return file.exists() ? BitmapFactory.decodeFile(file.getAbsolutePath()) : null;
-    }
-
-    private void saveRawSvgToDisk(String url, String svgContent) {
-        diskExecutor.execute(
+    private void hidePreview(ImageView imageView, String key, PipelineTrace trace) {
+        trace.finish("failed");
+        if (imageView == null) return;
+        mainHandler.post(
                 () -> {
-                    try {
-                        File file =
-                                new File(getCacheDir(), String.valueOf(url.hashCode()) + ".svg");
-                        try (FileOutputStream out = new FileOutputStream(file)) {
-                            out.write(svgContent.getBytes(StandardCharsets.UTF_8));
-                        }
-                    } catch (Exception e) {
+                    if (key.equals(imageView.getTag())) {
+                        imageView.setVisibility(View.INVISIBLE);
                     }
                 });
     }
 
-    private String loadRawSvgFromDisk(String url) {
-        File file = new File(getCacheDir(), String.valueOf(url.hashCode()) + ".svg");
-        if (file.exists()) {
-            try (FileInputStream in = new FileInputStream(file)) {
-                byte[] buffer = new byte[(int) file.length()];
-                in.read(buffer);
-                return new String(buffer, StandardCharsets.UTF_8);
-            } catch (IOException e) {
+    private void renderSvgAndCache(
+            IconDiskCache cache,
+            String name,
+            String key,
+            String svgString,
+            ImageView imageView,
+            PipelineTrace trace) {
+        try {
+            long start = System.nanoTime();
+            PipelineTrace.beginSection("preview:parse");
+            SVG svg;
+            try {
+                svg = SvgRenderer.parse(svgString);
+            } finally {
+                PipelineTrace.endSection();
+            }
+            trace.mark("parse");
+            PipelineTrace.beginSection("preview:render");
+            Bitmap bitmap;
+            try {
+                bitmap = SvgRenderer.render(svg);
+            } finally {
+                PipelineTrace.endSection();
             }
+            Metrics.PREVIEW_RENDER.recordSince(start);
+            trace.mark("render");
+            PreviewStats.rendered(key);
+
+            model.memoryCache.put(key, bitmap);
+            saveBitmapToDisk(cache, name, bitmap);
+            trace.mark("cache_write");
+
+            showPreview(imageView, key, bitmap, trace);
+        } catch (Exception e) {
+            Log.e(TAG, name + ": preview render failed", e);
+            trace.finish("failed");
         }
-        return null;
     }
 
-    private void loadSvgPreview(ImageView imageView, IconModel icon) {
-        String url = String.format(ICON_BASE_URL, icon.name);
-        imageView.setTag(url);
-        imageView.setImageResource(android.R.drawable.ic_menu_help);
-        imageView.setVisibility(View.VISIBLE);
+    private void openVariantPicker() {
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_variant, null);
+        Spinner styleSpinner = dialogView.findViewById(R.id.spinnerStyle);
+        Spinner weightSpinner = dialogView.findViewById(R.id.spinnerWeight);
+        Spinner gradeSpinner = dialogView.findViewById(R.id.spinnerGrade);
+        Spinner sizeSpinner = dialogView.findViewById(R.id.spinnerOpticalSize);
+        CheckBox fillCheck = dialogView.findViewById(R.id.checkFill);
+
+        IconVariant.Style[] styles = IconVariant.Style.values();
+        String[] styleNames = new String[styles.length];
+        for (int i = 0; i < styles.length; i++) styleNames[i] = styles[i].name();
+        bindSpinner(styleSpinner, styleNames, variant.style.ordinal());
+        bindSpinner(weightSpinner, IconVariant.WEIGHTS, variant.weight);
+        bindSpinner(gradeSpinner, IconVariant.GRADES, variant.grade);
+        bindSpinner(sizeSpinner, IconVariant.OPTICAL_SIZES, variant.opticalSize);
+        fillCheck.setChecked(variant.filled);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Icon style")
+                .setView(dialogView)
+                .setPositiveButton(
+                        "Apply",
+                        (d, w) ->
+                                applyVariant(
+                                        new IconVariant(
+                                                styles[styleSpinner.getSelectedItemPosition()],
+                                                fillCheck.isChecked(),
+                                                IconVariant.WEIGHTS[
+                                                        weightSpinner.getSelectedItemPosition()],
+                                                IconVariant.GRADES[
+                                                        gradeSpinner.getSelectedItemPosition()],
+                                                IconVariant.OPTICAL_SIZES[
+                                                        sizeSpinner.getSelectedItemPosition()])))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-        Bitmap memoryBitmap = memoryCache.get(url);
-        if (memoryBitmap != null) {
-            imageView.setImageBitmap(memoryBitmap);
-            imageView.setColorFilter(0xFFFFFFFF);
+    private void bindSpinner(Spinner spinner, int[] values, int selected) {
+        String[] labels = new String[values.length];
+        int position = 0;
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = String.valueOf(values[i]);
+            if (values[i] == selected) position = i;
+        }
+        bindSpinner(spinner, labels, position);
+    }
+
+    private void bindSpinner(Spinner spinner, String[] labels, int position) {
+        ArrayAdapter<String> spinnerAdapter =
+                new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, labels);
+        spinnerAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinner.setAdapter(spinnerAdapter);
+        spinner.setSelection(position);
+    }
+
+    // Warms the visible range in the new variant before switching, so the grid swaps styles in
+    // one frame instead of flashing placeholders. Other variants stay in the shared LRU and on
+    // disk under their own namespace, so switching back is free.
+    private void applyVariant(IconVariant newVariant) {
+        if (newVariant.equals(variant)) return;
+        IconDiskCache newCache = new IconDiskCache(this, newVariant);
+        SharedPreferences.Editor editor =
+                getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
+        newVariant.writeTo(editor);
+        editor.apply();
+
+        Runnable swap =
+                () -> {
+                    if (pendingVariantSwap == null) return;
+                    pendingVariantSwap = null;
+                    variant = newVariant;
+                    diskCache = newCache;
+                    progressBar.setVisibility(View.GONE);
+                    adapter.notifyDataSetChanged();
+                };
+        pendingVariantSwap = swap;
+
+        List<String> visible = visibleIconNames();
+        if (fontPreview || visible.isEmpty()) {
+            swap.run();
             return;
         }
 
-        diskExecutor.execute(
+        progressBar.setVisibility(View.VISIBLE);
+        AtomicInteger remaining = new AtomicInteger(visible.size());
+        Runnable onDone =
                 () -> {
-                    Bitmap diskBitmap = loadBitmapFromDisk(url);
-                    if (diskBitmap != null) {
-                        memoryCache.put(url, diskBitmap);
+                    if (remaining.decrementAndGet() == 0) {
                         mainHandler.post(
                                 () -> {
-                                    if (url.equals(imageView.getTag())) {
-                                        imageView.setImageBitmap(diskBitmap);
-                                        imageView.setColorFilter(0xFFFFFFFF);
-                                    }
+                                    if (pendingVariantSwap == swap) swap.run();
                                 });
-                        return;
-                    }
-
-                    String localSvg = loadRawSvgFromDisk(url);
-                    if (localSvg != null) {
-                        renderSvgAndCache(url, localSvg, imageView);
-                        return;
                     }
+                };
+        for (String name : visible) {
+            String key = previewKey(newVariant, name);
+            PipelineTrace trace = PipelineTrace.begin("preload", name);
+            model.diskExecutor()
+                    .execute(() -> fetchPreview(newCache, name, key, null, onDone, trace, false));
+        }
+        mainHandler.postDelayed(
+                () -> {
+                    if (pendingVariantSwap == swap) swap.run();
+                },
+                VARIANT_PRELOAD_TIMEOUT_MS);
+    }
 
-                    Request request = new Request.Builder().url(url).build();
-                    client.newCall(request)
-                            .enqueue(
-                                    new Callback() {
-                                        @Override
-                                        public void onFailure(Call call, IOException e) {
-                                            mainHandler.post(
-                                                    () -> imageView.setVisibility(View.INVISIBLE));
-                                        }
-
-                                        @Override
-                                        public void onResponse(Call call, Response response)
-                                                throws IOException {
-                                            if (response.isSuccessful()) {
-                                                String rawSvg = response.body().string();
-                                                saveRawSvgToDisk(url, rawSvg);
-                                                renderSvgAndCache(url, rawSvg, imageView);
-                                            } else {
-                                                mainHandler.post(
-                                                        () ->
-                                                                imageView.setVisibility(
-                                                                        View.INVISIBLE));
-                                            }
-                                        }
-                                    });
-                });
+    private void deferPreview(String key) {
+        deferredPreviews.add(key);
+        if (!flinging) loadDeferredPreviews();
     }
 
-    private void renderSvgAndCache(String url, String svgString, ImageView imageView) {
-        try {
-            SVG svg = SVG.getFromString(svgString);
-            int size = 96;
-            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(bitmap);
-            svg.setDocumentWidth(size);
-            svg.setDocumentHeight(size);
-            svg.renderToCanvas(canvas);
+    private void loadDeferredPreviews() {
+        if (deferredPreviews.isEmpty()) return;
+        GridLayoutManager lm = (GridLayoutManager) recyclerView.getLayoutManager();
+        int first = lm.findFirstVisibleItemPosition();
+        int last = lm.findLastVisibleItemPosition();
+        int firstFull = lm.findFirstCompletelyVisibleItemPosition();
+        int lastFull = lm.findLastCompletelyVisibleItemPosition();
+        if (first != RecyclerView.NO_POSITION) {
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = first; i <= last; i++) {
+                    boolean full = i >= firstFull && i <= lastFull && firstFull >= 0;
+                    if (full != (pass == 0)) continue;
+                    RecyclerView.ViewHolder holder =
+                            recyclerView.findViewHolderForAdapterPosition(i);
+                    if (holder instanceof IconAdapter.ViewHolder) {
+                        loadDeferredPreview((IconAdapter.ViewHolder) holder);
+                    }
+                }
+            }
+        }
+        deferredPreviews.clear();
+    }
 
-            memoryCache.put(url, bitmap);
-            saveBitmapToDisk(url, bitmap);
+    private void loadDeferredPreview(IconAdapter.ViewHolder holder) {
+        Object tag = holder.preview.getTag();
+        if (!(tag instanceof String) || !deferredPreviews.remove(tag)) return;
+        requestPreview(diskCache, holder.boundName, (String) tag, holder.preview, false);
+    }
 
-            mainHandler.post(
-                    () -> {
-                        if (url.equals(imageView.getTag())) {
-                            imageView.setImageBitmap(bitmap);
-                            imageView.setColorFilter(0xFFFFFFFF);
-                        }
-                    });
-        } catch (Exception e) {
-            e.printStackTrace();
+    private List<String> visibleIconNames() {
+        List<String> names = new ArrayList<>();
+        GridLayoutManager lm = (GridLayoutManager) recyclerView.getLayoutManager();
+        int first = lm.findFirstVisibleItemPosition();
+        int last = lm.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return names;
+        for (int i = first; i <= last && i < adapter.getItemCount(); i++) {
+            names.add(adapter.data.get(i).name);
         }
+        return names;
     }
 
     private void processIcon(IconModel icon, int mode) {
-        String url = String.format(ICON_BASE_URL, icon.name);
+        IconDiskCache cache = diskCache;
+        String url = cache.variant().svgUrl(icon.name);
         String toastMsg = mode == 0 ? "Processing..." : "Saving...";
         Toast.makeText(this, toastMsg, Toast.LENGTH_SHORT).show();
 
-        diskExecutor.execute(
+        model.diskExecutor().execute(
                 () -> {
-                    String svgContent = loadRawSvgFromDisk(url);
+                    String svgContent = cache.loadSvg(icon.name);
                     if (svgContent != null) {
                         extractAndProcess(icon.name, svgContent, mode);
                     } else {
-                        client.newCall(new Request.Builder().url(url).build())
+                        model.client().newCall(new Request.Builder().url(url).build())
                                 .enqueue(
                                         new Callback() {
                                             @Override
@@ -435,7 +842,7 @@ public class MainActivity extends AppCompatActivity {
                                                     throws IOException {
                                                 if (response.isSuccessful()) {
                                                     String netSvg = response.body().string();
-                                                    saveRawSvgToDisk(url, netSvg);
+                                                    saveRawSvgToDisk(cache, icon.name, netSvg);
                                                     extractAndProcess(icon.name, netSvg, mode);
                                                 }
                                             }
@@ -445,61 +852,69 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void extractAndProcess(String name, String svgContent, int mode) {
-        String pathData = "";
+        SvgConverter.Options options = new SvgConverter.Options(optimizePaths);
+        String xmlOutput;
         try {
-            int start = svgContent.indexOf("d=\"") + 3;
-            int end = svgContent.indexOf("\"", start);
-            if (start > 3 && end > start) pathData = svgContent.substring(start, end);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        String xmlOutput =
-                "<vector xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
-                        + "    android:width=\"24dp\"\n"
-                        + "    android:height=\"24dp\"\n"
-                        + "    android:viewportWidth=\"960\"\n"
-                        + "    android:viewportHeight=\"960\"\n"
-                        + "    android:tint=\"#FFFFFF\">\n"
-                        + "    <group android:translateY=\"960\">\n"
-                        + "        <path\n"
-                        + "            android:fillColor=\"@android:color/white\"\n"
-                        + "            android:pathData=\""
-                        + pathData
-                        + "\"/>\n"
-                        + "    </group>\n"
-                        + "</vector>";
+            xmlOutput = SvgConverter.toVectorDrawable(svgContent, options);
+        } catch (IOException e) {
+            Log.e(TAG, name + ": SVG conversion failed", e);
+            mainHandler.post(
+                    () ->
+                            Toast.makeText(
+                                            MainActivity.this,
+                                            "Could not convert " + name,
+                                            Toast.LENGTH_SHORT)
+                                    .show());
+            return;
+        }
+        String savings = "";
+        if (options.optimizePaths) {
+            Log.d(
+                    TAG,
+                    name + ": path data " + options.pathBytesIn() + " -> "
+                            + options.pathBytesOut());
+            savings = " (-" + options.pathBytesSaved() + " path bytes)";
+        }
+        String suffix = savings;
 
+        if (mode != 0) {
+            saveXmlToFile(name, xmlOutput, suffix);
+            return;
+        }
         mainHandler.post(
                 () -> {
-                    if (mode == 0) {
-                        ClipboardManager clipboard =
-                                (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
-                        clipboard.setPrimaryClip(
-                                ClipData.newPlainText("Android Vector", xmlOutput));
-                        Toast.makeText(MainActivity.this, "Copied XML", Toast.LENGTH_SHORT)
-                                .show();
-                    } else {
-                        saveXmlToFile(name, xmlOutput);
-                    }
+                    ClipboardManager clipboard =
+                            (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
+                    clipboard.setPrimaryClip(ClipData.newPlainText("Android Vector", xmlOutput));
+                    Toast.makeText(MainActivity.this, "Copied XML" + suffix, Toast.LENGTH_SHORT)
+                            .show();
                 });
     }
 
     private void restoreDownloadLocation() {
+        if (!model.claimFolderRestore()) return;
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String uriString = prefs.getString(KEY_DOWNLOAD_DIR, null);
-        if (uriString != null) {
-            try {
-                customDownloadUri = Uri.parse(uriString);
-                getContentResolver()
-                        .takePersistableUriPermission(
-                                customDownloadUri,
-                                Intent.FLAG_GRANT_WRITE_URI_PERMISSION
-                                        | Intent.FLAG_GRANT_READ_URI_PERMISSION);
-            } catch (SecurityException e) {
-                customDownloadUri = null;
-            }
-        }
+        if (uriString == null) return;
+        Uri uri = Uri.parse(uriString);
+        model.setDownloadFolder(uri);
+        model.diskExecutor().execute(
+                () -> {
+                    try {
+                        getContentResolver()
+                                .takePersistableUriPermission(
+                                        uri,
+                                        Intent.FLAG_GRANT_WRITE_URI_PERMISSION
+                                                | Intent.FLAG_GRANT_READ_URI_PERMISSION);
+                    } catch (SecurityException e) {
+                        mainHandler.post(
+                                () -> {
+                                    if (uri.equals(model.downloadFolder())) {
+                                        model.setDownloadFolder(null);
+                                    }
+                                });
+                    }
+                });
     }
 
     private void setupFolderPicker() {
@@ -521,7 +936,7 @@ public class MainActivity extends AppCompatActivity {
                                     prefs.edit()
                                             .putString(KEY_DOWNLOAD_DIR, uri.toString())
                                             .apply();
-                                    customDownloadUri = uri;
+                                    model.setDownloadFolder(uri);
                                     Toast.makeText(
                                                     this,
                                                     "Location updated!",
@@ -537,64 +952,217 @@ public class MainActivity extends AppCompatActivity {
         folderPickerLauncher.launch(intent);
     }
 
-    private void saveXmlToFile(String iconName, String xmlContent) {
-        String fileName = "ic_" + iconName + ".xml";
-        if (customDownloadUri != null) {
-            try {
-                DocumentFile pickedDir = DocumentFile.fromTreeUri(this, customDownloadUri);
-                if (pickedDir != null && pickedDir.exists()) {
-                    DocumentFile newFile = pickedDir.createFile("text/xml", fileName);
-                    if (newFile != null) {
-                        try (OutputStream out =
-                                getContentResolver().openOutputStream(newFile.getUri())) {
-                            out.write(xmlContent.getBytes());
-                            Toast.makeText(this, "Saved to folder", Toast.LENGTH_SHORT)
-                                    .show();
-                            return;
-                        }
+    private void saveXmlToFile(String iconName, String xmlContent, String suffix) {
+        model.exportWriter.save(
+                SvgConverter.fileName(iconName),
+                "text/xml",
+                xmlContent.getBytes(StandardCharsets.UTF_8),
+                new ExportWriter.Callback() {
+                    @Override
+                    public void onSaved(String fileName, String location) {
+                        Toast.makeText(
+                                        MainActivity.this,
+                                        (ExportTarget.LOCATION_FOLDER.equals(location)
+                                                        ? "Saved to folder"
+                                                        : "Saved to Downloads")
+                                                + suffix,
+                                        Toast.LENGTH_SHORT)
+                                .show();
                     }
-                }
-            } catch (Exception e) {
-            }
+
+                    @Override
+                    public void onFailed(String fileName, Exception e) {
+                        Toast.makeText(
+                                        MainActivity.this,
+                                        "Save Failed: " + e.getMessage(),
+                                        Toast.LENGTH_SHORT)
+                                .show();
+                    }
+                });
+    }
+
+    private void toggleSelection(IconModel icon, int position) {
+        if (!selectedNames.remove(icon.name)) {
+            selectedNames.add(icon.name);
         }
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                ContentValues values = new ContentValues();
-                values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
-                values.put(MediaStore.MediaColumns.MIME_TYPE, "text/xml");
-                values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
-                Uri uri =
-                        getContentResolver()
-                                .insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
-                if (uri != null) {
-                    try (OutputStream out = getContentResolver().openOutputStream(uri)) {
-                        out.write(xmlContent.getBytes());
-                        Toast.makeText(this, "Saved to Downloads", Toast.LENGTH_SHORT).show();
+        adapter.notifyItemChanged(position);
+        updateSelectionBar();
+    }
+
+    private void selectAllVisible() {
+        for (IconModel icon : adapter.data) {
+            selectedNames.add(icon.name);
+        }
+        adapter.notifyDataSetChanged();
+        updateSelectionBar();
+    }
+
+    private void clearSelection() {
+        selectedNames.clear();
+        adapter.notifyDataSetChanged();
+        updateSelectionBar();
+    }
+
+    private void updateSelectionBar() {
+        boolean exporting = model.isExporting();
+        selectionBar.setVisibility(
+                selectedNames.isEmpty() && !exporting ? View.GONE : View.VISIBLE);
+        if (!exporting) {
+            selectionCount.setText(selectedNames.size() + " selected");
+        }
+        btnExportSelected.setText(exporting ? "CANCEL" : "EXPORT");
+        btnSelectAll.setEnabled(!exporting);
+        btnClearSelection.setEnabled(!exporting);
+        btnZipSelected.setVisibility(exporting ? View.GONE : View.VISIBLE);
+        btnPngSelected.setVisibility(exporting ? View.GONE : View.VISIBLE);
+        exportProgress.setVisibility(exporting ? View.VISIBLE : View.GONE);
+    }
+
+    private void attachExports() {
+        model.setExportListener(
+                new MainViewModel.ExportListener() {
+                    @Override
+                    public void onExportProgress(String label, int completed, int total) {
+                        exportProgress.setMax(total);
+                        exportProgress.setProgress(completed);
+                        selectionCount.setText(label + " " + completed + "/" + total);
                     }
-                }
-            } else {
-                File path =
-                        Environment.getExternalStoragePublicDirectory(
-                                Environment.DIRECTORY_DOWNLOADS);
-                File file = new File(path, fileName);
-                try (FileOutputStream fos = new FileOutputStream(file)) {
-                    fos.write(xmlContent.getBytes());
-                    Toast.makeText(this, "Saved to Downloads", Toast.LENGTH_SHORT).show();
-                }
-            }
-        } catch (Exception e) {
-            Toast.makeText(this, "Save Failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+
+                    @Override
+                    public void onExportFinished(String message) {
+                        Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+                        adapter.notifyDataSetChanged();
+                        updateSelectionBar();
+                    }
+                });
+        updateSelectionBar();
+    }
+
+    private void exportSelected() {
+        if (model.isExporting()) {
+            model.cancelExport();
+            return;
         }
+        if (selectedNames.isEmpty()) return;
+        model.startExport(diskCache, optimizePaths);
+        updateSelectionBar();
+    }
+
+    private void setupZipPicker() {
+        zipPickerLauncher =
+                registerForActivityResult(
+                        new ActivityResultContracts.StartActivityForResult(),
+                        result -> {
+                            if (result.getResultCode() == RESULT_OK && result.getData() != null) {
+                                Uri uri = result.getData().getData();
+                                if (uri != null) exportSelectedAsZip(uri);
+                            }
+                        });
+    }
+
+    private void openZipPicker(ZipExporter.Encoder encoder, String fileName) {
+        if (selectedNames.isEmpty()) return;
+        model.pendingZipEncoder = encoder;
+        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("application/zip");
+        intent.putExtra(Intent.EXTRA_TITLE, fileName);
+        zipPickerLauncher.launch(intent);
+    }
+
+    private void openPngOptions() {
+        if (selectedNames.isEmpty()) return;
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_png_export, null);
+        CheckBox[] checks = {
+            dialogView.findViewById(R.id.checkMdpi),
+            dialogView.findViewById(R.id.checkHdpi),
+            dialogView.findViewById(R.id.checkXhdpi),
+            dialogView.findViewById(R.id.checkXxhdpi),
+            dialogView.findViewById(R.id.checkXxxhdpi)
+        };
+        EditText extraSizes = dialogView.findViewById(R.id.editExtraSizes);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Export PNGs")
+                .setView(dialogView)
+                .setPositiveButton(
+                        "Choose file",
+                        (d, w) -> {
+                            boolean[] buckets = new boolean[checks.length];
+                            for (int i = 0; i < checks.length; i++) {
+                                buckets[i] = checks[i].isChecked();
+                            }
+                            DensityPngEncoder encoder =
+                                    new DensityPngEncoder(
+                                            buckets,
+                                            DensityPngEncoder.parseSizes(
+                                                    extraSizes.getText().toString()));
+                            if (encoder.isEmpty()) {
+                                Toast.makeText(this, "No sizes selected", Toast.LENGTH_SHORT)
+                                        .show();
+                                return;
+                            }
+                            openZipPicker(encoder, "material_icons_png.zip");
+                        })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void exportSelectedAsZip(Uri zipUri) {
+        ZipExporter.Encoder encoder =
+                model.pendingZipEncoder != null
+                        ? model.pendingZipEncoder
+                        : ZipExporter.vectorEncoder(optimizePaths);
+        model.pendingZipEncoder = null;
+        model.startZip(zipUri, diskCache, encoder);
+        updateSelectionBar();
     }
 
     class IconAdapter extends RecyclerView.Adapter<IconAdapter.ViewHolder> {
+        private final ColorStateList selectedBackground = ColorStateList.valueOf(0xFF1E3A5F);
+        private final ColorStateList idleBackground = ColorStateList.valueOf(0xFF333333);
+        private final HashMap<String, Long> stableIds = new HashMap<>();
+        private final HashMap<String, String> previewKeys = new HashMap<>();
         private List<IconModel> data = new ArrayList<>();
+        private IconVariant keysVariant;
+        private boolean keysGlyph;
+
+        IconAdapter() {
+            setHasStableIds(true);
+        }
 
         void updateList(List<IconModel> newData) {
             this.data = newData;
             notifyDataSetChanged();
         }
 
+        private String previewKeyFor(IconModel icon) {
+            IconVariant current = fontPreview ? variant : diskCache.variant();
+            if (current != keysVariant || fontPreview != keysGlyph) {
+                previewKeys.clear();
+                keysVariant = current;
+                keysGlyph = fontPreview;
+            }
+            String key = previewKeys.get(icon.name);
+            if (key == null) {
+                key = previewKey(current, icon.name);
+                if (fontPreview) key = "glyph:" + key;
+                previewKeys.put(icon.name, key);
+            }
+            return key;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            String name = data.get(position).name;
+            Long id = stableIds.get(name);
+            if (id == null) {
+                id = (long) stableIds.size();
+                stableIds.put(name, id);
+            }
+            return id;
+        }
+
         @Override
         public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
             View v =
@@ -606,10 +1174,13 @@ public class MainActivity extends AppCompatActivity {
         @Override
         public void onBindViewHolder(ViewHolder holder, int position) {
             IconModel icon = data.get(position);
-            holder.name.setText(icon.name);
-            loadSvgPreview(holder.preview, icon);
-            holder.btnCopy.setOnClickListener(v -> processIcon(icon, 0));
-            holder.btnSave.setOnClickListener(v -> processIcon(icon, 1));
+            if (!icon.name.equals(holder.boundName)) {
+                holder.name.setText(icon.name);
+                holder.boundName = icon.name;
+            }
+            loadSvgPreview(holder.preview, icon, previewKeyFor(icon), holder.placeholder);
+            holder.card.setCardBackgroundColor(
+                    selectedNames.contains(icon.name) ? selectedBackground : idleBackground);
         }
 
         @Override
@@ -618,27 +1189,48 @@ public class MainActivity extends AppCompatActivity {
         }
 
         class ViewHolder extends RecyclerView.ViewHolder {
+            CardView card;
             TextView name;
             ImageView preview;
             Button btnCopy, btnSave;
+            Drawable placeholder;
+            String boundName;
 
             ViewHolder(View v) {
                 super(v);
+                card = (CardView) v;
                 name = v.findViewById(R.id.iconName);
                 preview = v.findViewById(R.id.iconPreview);
                 btnCopy = v.findViewById(R.id.btnCopy);
                 btnSave = v.findViewById(R.id.btnSave);
+                placeholder = preview.getDrawable();
+                preview.setColorFilter(0xFFFFFFFF);
+                btnCopy.setOnClickListener(view -> onAction(0));
+                btnSave.setOnClickListener(view -> onAction(1));
+                card.setOnLongClickListener(
+                        view -> {
+                            IconModel icon = boundIcon();
+                            if (icon != null) toggleSelection(icon, getAdapterPosition());
+                            return true;
+                        });
+                card.setOnClickListener(
+                        view -> {
+                            IconModel icon = boundIcon();
+                            if (icon != null && !selectedNames.isEmpty() && !model.isExporting()) {
+                                toggleSelection(icon, getAdapterPosition());
+                            }
+                        });
             }
-        }
-    }
 
-    class IconModel {
-        String name;
-        List<String> tags;
+            private IconModel boundIcon() {
+                int position = getAdapterPosition();
+                return position == RecyclerView.NO_POSITION ? null : data.get(position);
+            }
 
-        IconModel(String n, List<String> t) {
-            name = n;
-            tags = t;
+            private void onAction(int mode) {
+                IconModel icon = boundIcon();
+                if (icon != null) processIcon(icon, mode);
+            }
         }
     }
 }
@@ -0,0 +1,444 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import aman.icons.core.IconCatalog;
+import aman.icons.core.IconModel;
+import aman.icons.core.IconSearch;
+import aman.icons.core.ZipExporter;
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import androidx.lifecycle.AndroidViewModel;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * State that outlives configuration changes: the parsed icon index, the thumbnail memory cache,
+ * the HTTP client, the disk executor, the export write queue, the selection and any running batch
+ * or ZIP export. A rotated activity re-attaches and picks up whatever is loaded or still running;
+ * once the activity finishes for good, {@link #onCleared()} cancels running exports and then
+ * shuts everything down. Work handed to the disk executor or write queue after that is dropped
+ * rather than rejected, since late network callbacks can still arrive.
+ */
+public class MainViewModel extends AndroidViewModel {
+
+    /** Index events, delivered on the main thread to the attached activity only. */
+    interface IndexListener {
+        void onFirstPage(List<IconModel> icons);
+
+        /** {@code fresh} is false when an already-loaded index is re-delivered after rotation. */
+        void onIndexLoaded(IconSearch search, boolean fresh);
+
+        void onIndexFailed(String message);
+    }
+
+    /** Export events, delivered on the main thread to the attached activity only. */
+    interface ExportListener {
+        void onExportProgress(String label, int completed, int total);
+
+        /** Also delivered on re-attach if the export finished while no activity was attached. */
+        void onExportFinished(String message);
+    }
+
+    private static final String TAG = "ICON_EXPORT";
+
+    private static final int FIRST_PAGE_SIZE = 48;
+    private static final long METRICS_LOG_INTERVAL_MS = 60_000;
+
+    final LruCache<String, Bitmap> memoryCache;
+    final ExportWriter exportWriter;
+    final GlyphPreviewRenderer glyphRenderer;
+    // Main thread only.
+    final Set<String> selectedNames = new LinkedHashSet<>();
+    ZipExporter.Encoder pendingZipEncoder;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final File cacheDir;
+    private final Runnable metricsLogger =
+            new Runnable() {
+                @Override
+                public void run() {
+                    Metrics.logIfChanged();
+                    mainHandler.postDelayed(this, METRICS_LOG_INTERVAL_MS);
+                }
+            };
+
+    private OkHttpClient client;
+    private ExecutorService diskExecutor;
+
+    // Main thread only.
+    private IndexListener listener;
+    private List<IconModel> firstPage;
+    private IconSearch search;
+    private boolean loading;
+    private boolean folderRestored;
+    private Uri downloadFolder;
+    private ExportListener exportListener;
+    private BatchExporter activeExport;
+    private ZipExporter activeZip;
+    private String exportLabel;
+    private int exportCompleted;
+    private int exportTotal;
+    private String undeliveredExportResult;
+
+    public MainViewModel(Application application) {
+        super(application);
+        cacheDir = application.getCacheDir();
+        int maxMemory = (int) (Runtime.getRuntime().maxMemory() / 1024);
+        memoryCache =
+                new LruCache<String, Bitmap>(maxMemory / 8) {
+                    @Override
+                    protected int sizeOf(String key, Bitmap bitmap) {
+                        return bitmap.getByteCount() / 1024;
+                    }
+                };
+        exportWriter = new ExportWriter(application, mainHandler);
+        glyphRenderer = new GlyphPreviewRenderer(application, mainHandler);
+        mainHandler.postDelayed(metricsLogger, METRICS_LOG_INTERVAL_MS);
+    }
+
+    synchronized OkHttpClient client() {
+        if (client == null) client = new OkHttpClient();
+        return client;
+    }
+
+    synchronized ExecutorService diskExecutor() {
+        if (diskExecutor == null) {
+            diskExecutor =
+                    new ThreadPoolExecutor(
+                            1,
+                            1,
+                            0L,
+                            TimeUnit.MILLISECONDS,
+                            new LinkedBlockingQueue<>(),
+                            new ThreadPoolExecutor.DiscardPolicy());
+        }
+        return diskExecutor;
+    }
+
+    /** True the first time it is called, so the saved export folder is only restored once. */
+    boolean claimFolderRestore() {
+        if (folderRestored) return false;
+        folderRestored = true;
+        return true;
+    }
+
+    /** The picked export folder, or null for Downloads. Survives configuration changes. */
+    Uri downloadFolder() {
+        return downloadFolder;
+    }
+
+    void setDownloadFolder(Uri uri) {
+        downloadFolder = uri;
+        exportWriter.setFolder(uri);
+    }
+
+    /** Attaches (or with null, detaches) the activity and replays the current index state. */
+    void setIndexListener(IndexListener newListener) {
+        listener = newListener;
+        if (listener == null) return;
+        if (search != null) {
+            listener.onIndexLoaded(search, false);
+        } else if (firstPage != null) {
+            listener.onFirstPage(firstPage);
+        }
+    }
+
+    /** Starts loading the index unless it is already loaded or loading. */
+    void loadIndex() {
+        if (search != null || loading) return;
+        loading = true;
+        diskExecutor()
+                .execute(
+                        () -> {
+                            List<IconModel> snapshot = IconCatalog.readSnapshot(cacheDir);
+                            if (!snapshot.isEmpty()) {
+                                mainHandler.post(() -> deliverFirstPage(snapshot));
+                            }
+                            if (IconCatalog.metadataFile(cacheDir).exists()) {
+                                try {
+                                    parse(IconCatalog.readMetadata(cacheDir));
+                                    return;
+                                } catch (IOException e) {
+                                }
+                            }
+                            fetchFromNetwork();
+                        });
+    }
+
+    private void fetchFromNetwork() {
+        long start = System.nanoTime();
+        Request request = new Request.Builder().url(Endpoints.iconListUrl()).build();
+        client().newCall(request)
+                .enqueue(
+                        new Callback() {
+                            @Override
+                            public void onFailure(Call call, IOException e) {
+                                mainHandler.post(() -> deliverFailure("Network Error"));
+                            }
+
+                            @Override
+                            public void onResponse(Call call, Response response)
+                                    throws IOException {
+                                if (response.isSuccessful()) {
+                                    byte[] body = response.body().bytes();
+                                    Metrics.INDEX_FETCH.recordSince(start);
+                                    Metrics.INDEX_BYTES.add(body.length);
+                                    String jsonStr = new String(body, StandardCharsets.UTF_8);
+                                    IconCatalog.writeMetadata(cacheDir, jsonStr);
+                                    parse(jsonStr);
+                                } else {
+                                    mainHandler.post(() -> deliverFailure("Network Error"));
+                                }
+                            }
+                        });
+    }
+
+    private void parse(String jsonStr) {
+        try {
+            long start = System.nanoTime();
+            List<IconModel> parsedList = IconCatalog.parse(jsonStr);
+            Metrics.INDEX_PARSE.recordSince(start);
+            IconCatalog.writeSnapshot(cacheDir, parsedList, FIRST_PAGE_SIZE);
+            IconSearch parsed = new IconSearch(parsedList);
+            mainHandler.post(() -> deliverIndex(parsed));
+        } catch (Exception e) {
+            e.printStackTrace();
+            mainHandler.post(() -> deliverFailure("Parse Error"));
+        }
+    }
+
+    private void deliverFirstPage(List<IconModel> icons) {
+        if (search != null) return;
+        firstPage = icons;
+        if (listener != null) listener.onFirstPage(icons);
+    }
+
+    private void deliverIndex(IconSearch parsed) {
+        loading = false;
+        search = parsed;
+        firstPage = null;
+        if (listener != null) listener.onIndexLoaded(parsed, true);
+    }
+
+    private void deliverFailure(String message) {
+        loading = false;
+        if (listener != null) listener.onIndexFailed(message);
+    }
+
+    /** Attaches (or with null, detaches) the activity and replays the current export state. */
+    void setExportListener(ExportListener newListener) {
+        exportListener = newListener;
+        if (exportListener == null) return;
+        if (isExporting()) {
+            exportListener.onExportProgress(exportLabel, exportCompleted, exportTotal);
+        } else if (undeliveredExportResult != null) {
+            String message = undeliveredExportResult;
+            undeliveredExportResult = null;
+            exportListener.onExportFinished(message);
+        }
+    }
+
+    boolean isExporting() {
+        return activeExport != null || activeZip != null;
+    }
+
+    void cancelExport() {
+        if (activeExport != null) activeExport.cancel();
+        if (activeZip != null) activeZip.cancel();
+    }
+
+    /** Writes the selection as individual VectorDrawables into the export folder. */
+    void startExport(IconDiskCache cache, boolean optimizePaths) {
+        if (isExporting() || selectedNames.isEmpty()) return;
+        List<String> names = new ArrayList<>(selectedNames);
+        activeExport =
+                new BatchExporter(
+                        client(),
+                        cache,
+                        exportWriter,
+                        mainHandler,
+                        optimizePaths,
+                        new BatchExporter.Listener() {
+                            @Override
+                            public void onProgress(int done, int failed, int total) {
+                                deliverExportProgress(done + failed);
+                            }
+
+                            @Override
+                            public void onFinished(
+                                    int done, int failed, int total, long elapsedMs) {
+                                activeExport = null;
+                                deliverExportResult(
+                                        "Exported "
+                                                + done
+                                                + "/"
+                                                + total
+                                                + (failed > 0 ? " (" + failed + " failed)" : ""));
+                            }
+                        });
+        beginExport("Exporting", names.size());
+        activeExport.start(names);
+    }
+
+    /** Streams the selection into one ZIP at {@code zipUri} on a dedicated thread. */
+    void startZip(Uri zipUri, IconDiskCache cache, ZipExporter.Encoder encoder) {
+        if (isExporting() || selectedNames.isEmpty()) return;
+        List<String> names = new ArrayList<>(selectedNames);
+        ZipExporter zipExporter =
+                new ZipExporter(
+                        name -> {
+                            long start = System.nanoTime();
+                            PipelineTrace.beginSection("zip:fetch");
+                            try {
+                                String svg = cache.loadSvg(name);
+                                if (svg != null) return svg;
+                                Request request =
+                                        new Request.Builder()
+                                                .url(cache.variant().svgUrl(name))
+                                                .build();
+                                try (Response response = client().newCall(request).execute()) {
+                                    if (!response.isSuccessful()) return null;
+                                    byte[] body = response.body().bytes();
+                                    Metrics.EXPORT_BYTES.add(body.length);
+                                    svg = new String(body, StandardCharsets.UTF_8);
+                                }
+                                cache.saveSvg(name, svg);
+                                return svg;
+                            } finally {
+                                PipelineTrace.endSection();
+                                Metrics.ZIP_FETCH.recordSince(start);
+                            }
+                        },
+                        Runtime.getRuntime().availableProcessors(),
+                        (name, svg) -> {
+                            long start = System.nanoTime();
+                            PipelineTrace.beginSection("zip:encode");
+                            try {
+                                return encoder.encode(name, svg);
+                            } finally {
+                                PipelineTrace.endSection();
+                                Metrics.ZIP_ENCODE.recordSince(start);
+                            }
+                        });
+        activeZip = zipExporter;
+        beginExport("Zipping", names.size());
+
+        AtomicBoolean progressPosted = new AtomicBoolean();
+        new Thread(
+                        () -> {
+                            String message;
+                            try (OutputStream out =
+                                    getApplication()
+                                            .getContentResolver()
+                                            .openOutputStream(zipUri, "w")) {
+                                if (out == null) throw new IOException("Cannot open " + zipUri);
+                                ZipExporter.Result r =
+                                        zipExporter.export(
+                                                names,
+                                                out,
+                                                (done, failed, total) -> {
+                                                    if (!progressPosted.compareAndSet(
+                                                            false, true)) return;
+                                                    mainHandler.post(
+                                                            () -> {
+                                                                progressPosted.set(false);
+                                                                deliverExportProgress(
+                                                                        done + failed);
+                                                            });
+                                                });
+                                Metrics.ZIP_TOTAL.recordNanos(r.elapsedNanos);
+                                Metrics.ZIP_WRITTEN.add(r.written);
+                                Metrics.ZIP_FAILED.add(r.failed);
+                                Metrics.ZIP_BYTES_OUT.add(r.bytesOut);
+                                message =
+                                        String.format(
+                                                Locale.US,
+                                                "Zipped %d icons (%d failed), %.0f KB, %.1f icons/s",
+                                                r.written,
+                                                r.failed,
+                                                r.bytesOut / 1024f,
+                                                r.iconsPerSecond());
+                                if (r.pathBytesSaved > 0) {
+                                    message += ", " + r.pathBytesSaved + " path bytes saved";
+                                }
+                                Log.i(TAG, message);
+                            } catch (IOException e) {
+                                Log.e(TAG, "ZIP export failed", e);
+                                message = "ZIP export failed: " + e.getMessage();
+                            }
+                            String result = message;
+                            mainHandler.post(
+                                    () -> {
+                                        activeZip = null;
+                                        deliverExportResult(result);
+                                    });
+                        },
+                        "zip-export")
+                .start();
+    }
+
+    private void beginExport(String label, int total) {
+        exportLabel = label;
+        exportCompleted = 0;
+        exportTotal = total;
+        undeliveredExportResult = null;
+        deliverExportProgress(0);
+    }
+
+    private void deliverExportProgress(int completed) {
+        exportCompleted = completed;
+        if (exportListener != null) {
+            exportListener.onExportProgress(exportLabel, exportCompleted, exportTotal);
+        }
+    }
+
+    private void deliverExportResult(String message) {
+        selectedNames.clear();
+        if (exportListener != null) {
+            exportListener.onExportFinished(message);
+        } else {
+            undeliveredExportResult = message;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        listener = null;
+        exportListener = null;
+        cancelExport();
+        mainHandler.removeCallbacks(metricsLogger);
+        Metrics.logIfChanged();
+        exportWriter.shutdown();
+        glyphRenderer.shutdown();
+        synchronized (this) {
+            if (diskExecutor != null) diskExecutor.shutdown();
+            if (client != null) {
+                client.dispatcher().cancelAll();
+                client.dispatcher().executorService().shutdown();
+                client.connectionPool().evictAll();
+            }
+        }
+        memoryCache.evictAll();
+    }
+}
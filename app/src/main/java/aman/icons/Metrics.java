@@ -0,0 +1,211 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide pipeline metrics: lock-free counters and fixed-bucket latency histograms for each
+ * preview tier, the index load, every export stage and search. Recording is a couple of atomic
+ * increments, so it stays on in release builds. {@link #dump()} feeds the debug metrics screen
+ * and the periodic log line.
+ */
+final class Metrics {
+
+    private static final String TAG = "METRICS";
+
+    private static final List<Counter> COUNTERS = new ArrayList<>();
+    private static final List<Histogram> HISTOGRAMS = new ArrayList<>();
+
+    // Preview tiers, in the order loadSvgPreview tries them. A histogram's count is its hits.
+    static final Counter PREVIEW_MEMORY = counter("preview.memory");
+    static final Histogram PREVIEW_QUEUE = histogram("preview.queue_wait");
+    static final Histogram PREVIEW_DISK_PNG = histogram("preview.disk_png");
+    static final Histogram PREVIEW_DISK_SVG = histogram("preview.disk_svg");
+    static final Histogram PREVIEW_NETWORK = histogram("preview.network");
+    static final Histogram PREVIEW_RENDER = histogram("preview.render");
+    static final Counter PREVIEW_FAILED = counter("preview.failed");
+    static final Counter PREVIEW_DEFERRED = counter("preview.deferred_while_flinging");
+    static final Counter PREVIEW_GLYPH = counter("preview.glyph");
+    static final Counter PREVIEW_BYTES = counter("preview.bytes_fetched");
+
+    static final Histogram INDEX_FETCH = histogram("index.fetch");
+    static final Histogram INDEX_PARSE = histogram("index.parse");
+    static final Counter INDEX_BYTES = counter("index.bytes_fetched");
+
+    static final Histogram EXPORT_FETCH = histogram("export.fetch");
+    static final Histogram EXPORT_CONVERT = histogram("export.convert");
+    static final Histogram EXPORT_WRITE = histogram("export.write");
+    static final Counter EXPORT_DONE = counter("export.done");
+    static final Counter EXPORT_FAILED = counter("export.failed");
+    static final Counter EXPORT_BYTES = counter("export.bytes_fetched");
+
+    static final Histogram ZIP_FETCH = histogram("zip.fetch");
+    static final Histogram ZIP_ENCODE = histogram("zip.encode");
+    static final Histogram ZIP_TOTAL = histogram("zip.total");
+    static final Counter ZIP_WRITTEN = counter("zip.written");
+    static final Counter ZIP_FAILED = counter("zip.failed");
+    static final Counter ZIP_BYTES_OUT = counter("zip.bytes_out");
+
+    static final Histogram SEARCH = histogram("search");
+
+    private static long lastLoggedVersion;
+
+    private Metrics() {}
+
+    /** Monotonic event or byte counter. */
+    static final class Counter {
+        final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        void inc() {
+            value.incrementAndGet();
+        }
+
+        void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        long get() {
+            return value.get();
+        }
+    }
+
+    /**
+     * Latency histogram with power-of-two millisecond buckets: [0,1), [1,2), [2,4) ... [4096,inf).
+     * Percentiles are reported as the upper bound of the bucket they fall in.
+     */
+    static final class Histogram {
+        private static final int BUCKETS = 14;
+
+        final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMicros = new AtomicLong();
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        void recordSince(long startNanos) {
+            recordNanos(System.nanoTime() - startNanos);
+        }
+
+        void recordNanos(long nanos) {
+            long ms = nanos / 1_000_000;
+            int bucket = ms <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(ms));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sumMicros.addAndGet(nanos / 1000);
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        /** Upper bound in ms of the bucket holding the p-th quantile, -1 past the last bound. */
+        long percentileMs(double p) {
+            long total = count.get();
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return i == BUCKETS - 1 ? -1 : 1L << i;
+            }
+            return -1;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            count.set(0);
+            sumMicros.set(0);
+        }
+    }
+
+    private static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    private static Histogram histogram(String name) {
+        Histogram histogram = new Histogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    /** Multi-line report: preview tier hit rates, then every counter and histogram. */
+    static String dump() {
+        StringBuilder sb = new StringBuilder();
+        long memory = PREVIEW_MEMORY.get();
+        long png = PREVIEW_DISK_PNG.count();
+        long svg = PREVIEW_DISK_SVG.count();
+        long network = PREVIEW_NETWORK.count();
+        long previews = memory + png + svg + network;
+        if (previews > 0) {
+            sb.append(
+                    String.format(
+                            Locale.US,
+                            "previews=%d memory=%.1f%% disk_png=%.1f%% disk_svg=%.1f%%"
+                                    + " network=%.1f%%\n",
+                            previews,
+                            100f * memory / previews,
+                            100f * png / previews,
+                            100f * svg / previews,
+                            100f * network / previews));
+        }
+        for (Counter counter : COUNTERS) {
+            sb.append(counter.name).append(' ').append(counter.get()).append('\n');
+        }
+        for (Histogram h : HISTOGRAMS) {
+            long n = h.count();
+            sb.append(h.name).append(" n=").append(n);
+            if (n > 0) {
+                sb.append(
+                        String.format(
+                                Locale.US,
+                                " mean=%.1fms p50%s p90%s p99%s",
+                                h.sumMicros.get() / 1000f / n,
+                                bound(h.percentileMs(0.50)),
+                                bound(h.percentileMs(0.90)),
+                                bound(h.percentileMs(0.99))));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String bound(long ms) {
+        return ms < 0 ? ">4s" : "<" + ms + "ms";
+    }
+
+    /** Logs {@link #dump()} unless nothing was recorded since the last call. */
+    static void logIfChanged() {
+        long version = version();
+        synchronized (Metrics.class) {
+            if (version == lastLoggedVersion) return;
+            lastLoggedVersion = version;
+        }
+        Log.i(TAG, Metrics::dump);
+    }
+
+    static void reset() {
+        for (Counter counter : COUNTERS) counter.value.set(0);
+        for (Histogram histogram : HISTOGRAMS) histogram.reset();
+    }
+
+    private static long version() {
+        long version = 0;
+        for (Counter counter : COUNTERS) version += counter.get();
+        for (Histogram histogram : HISTOGRAMS) version += histogram.count();
+        return version;
+    }
+}
@@ -0,0 +1,128 @@
+package aman.icons;
+
+import android.os.Build;
+import android.os.Trace;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Timeline of one preview or export request, identified by a process-unique id. Stages are
+ * marked with {@link #mark} as the request moves between threads; {@link #finish} files the
+ * timeline in a ring of the most recent ones, which {@link #recentAsJson()} exports for offline
+ * analysis. The whole request is also an async Perfetto slice (API 29+, only while tracing), and
+ * {@link #beginSection}/{@link #endSection} wrap the synchronous work of each stage.
+ */
+final class PipelineTrace {
+
+    private static final int RECENT_CAPACITY = 256;
+    private static final int MAX_EVENTS = 16;
+
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+    private static final PipelineTrace[] recent = new PipelineTrace[RECENT_CAPACITY];
+    private static int recentCount;
+
+    final int id;
+    final String kind;
+    final String icon;
+    private final long startNanos = System.nanoTime();
+    private final long startWallMs = System.currentTimeMillis();
+    private final String[] stages = new String[MAX_EVENTS];
+    private final long[] offsetsNanos = new long[MAX_EVENTS];
+    private int events;
+    private String outcome;
+    private String asyncSection;
+
+    private PipelineTrace(String kind, String icon) {
+        this.id = nextId.getAndIncrement();
+        this.kind = kind;
+        this.icon = icon;
+    }
+
+    /** Starts a timeline with an "enqueue" event. */
+    static PipelineTrace begin(String kind, String icon) {
+        PipelineTrace trace = new PipelineTrace(kind, icon);
+        trace.mark("enqueue");
+        if (Build.VERSION.SDK_INT >= 29 && Trace.isEnabled()) {
+            trace.asyncSection = sectionName(kind + " " + icon);
+            Trace.beginAsyncSection(trace.asyncSection, trace.id);
+        }
+        return trace;
+    }
+
+    /** Records that the request reached {@code stage}. Extra events past the cap are dropped. */
+    synchronized void mark(String stage) {
+        if (events == MAX_EVENTS) return;
+        stages[events] = stage;
+        offsetsNanos[events] = System.nanoTime() - startNanos;
+        events++;
+    }
+
+    /** Ends the timeline once; later calls are ignored. */
+    void finish(String result) {
+        synchronized (this) {
+            if (outcome != null) return;
+            outcome = result;
+        }
+        mark(result);
+        if (asyncSection != null && Build.VERSION.SDK_INT >= 29) {
+            Trace.endAsyncSection(asyncSection, id);
+        }
+        synchronized (PipelineTrace.class) {
+            recent[recentCount % RECENT_CAPACITY] = this;
+            recentCount++;
+        }
+    }
+
+    /** Opens a synchronous Perfetto section on the current thread, e.g. "preview:render". */
+    static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    static void endSection() {
+        Trace.endSection();
+    }
+
+    /** The retained timelines, oldest first, as a JSON array. */
+    static String recentAsJson() {
+        PipelineTrace[] snapshot;
+        synchronized (PipelineTrace.class) {
+            int count = Math.min(recentCount, RECENT_CAPACITY);
+            snapshot = new PipelineTrace[count];
+            for (int i = 0; i < count; i++) {
+                snapshot[i] = recent[(recentCount - count + i) % RECENT_CAPACITY];
+            }
+        }
+        JSONArray timelines = new JSONArray();
+        try {
+            for (PipelineTrace trace : snapshot) timelines.put(trace.toJson());
+            return timelines.toString(1);
+        } catch (JSONException e) {
+            return "[]";
+        }
+    }
+
+    private synchronized JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("kind", kind);
+        json.put("icon", icon);
+        json.put("start_wall_ms", startWallMs);
+        json.put("outcome", outcome);
+        JSONArray timeline = new JSONArray();
+        for (int i = 0; i < events; i++) {
+            JSONObject event = new JSONObject();
+            event.put("stage", stages[i]);
+            event.put("t_ms", offsetsNanos[i] / 1e6);
+            timeline.put(event);
+        }
+        json.put("events", timeline);
+        return json;
+    }
+
+    // Trace section names are capped at 127 characters.
+    private static String sectionName(String name) {
+        return name.length() <= 127 ? name : name.substring(0, 127);
+    }
+}
@@ -0,0 +1,139 @@
+package aman.icons;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements of the grid preview pipeline, collected only while a load test is running. The
+ * static hooks are a single volatile read when inactive.
+ */
+final class PreviewStats {
+
+    private static volatile PreviewStats active;
+
+    private final ConcurrentHashMap<String, Long> boundAt = new ConcurrentHashMap<>();
+    private final Set<String> shownKeys =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> renderedKeys =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger renders = new AtomicInteger();
+    private final AtomicInteger wastedRenders = new AtomicInteger();
+    private final AtomicLong peakHeap = new AtomicLong();
+
+    private PreviewStats() {}
+
+    static PreviewStats start() {
+        PreviewStats stats = new PreviewStats();
+        active = stats;
+        return stats;
+    }
+
+    static void stop() {
+        active = null;
+    }
+
+    /** A cell asked for the preview of {@code key}. */
+    static void bound(String key) {
+        PreviewStats stats = active;
+        if (stats != null) stats.boundAt.putIfAbsent(key, System.nanoTime());
+    }
+
+    /** A preview was rasterized from SVG. */
+    static void rendered(String key) {
+        PreviewStats stats = active;
+        if (stats == null) return;
+        stats.renders.incrementAndGet();
+        stats.renderedKeys.add(key);
+        stats.sampleHeap();
+    }
+
+    /** A preview reached a cell that still shows {@code key}. */
+    static void shown(String key) {
+        PreviewStats stats = active;
+        if (stats == null || !stats.shownKeys.add(key)) return;
+        Long bound = stats.boundAt.get(key);
+        if (bound != null) stats.latenciesNanos.add(System.nanoTime() - bound);
+        stats.sampleHeap();
+    }
+
+    /** A preview arrived after its cell had been rebound to another icon. */
+    static void discarded(String key) {
+        PreviewStats stats = active;
+        if (stats != null && stats.renderedKeys.contains(key) && !stats.shownKeys.contains(key)) {
+            stats.wastedRenders.incrementAndGet();
+        }
+    }
+
+    void sampleHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = rt.totalMemory() - rt.freeMemory();
+        long peak;
+        while (used > (peak = peakHeap.get()) && !peakHeap.compareAndSet(peak, used)) {
+            // retry
+        }
+    }
+
+    int boundCount() {
+        return boundAt.size();
+    }
+
+    int shownCount() {
+        return shownKeys.size();
+    }
+
+    int renderCount() {
+        return renders.get();
+    }
+
+    int wastedRenderCount() {
+        return wastedRenders.get();
+    }
+
+    long peakHeapBytes() {
+        return peakHeap.get();
+    }
+
+    /** Bind-to-shown latency at percentile {@code p} (0..1), or 0 before anything was shown. */
+    long latencyMs(double p) {
+        return percentileMs(sortedLatencies(), p);
+    }
+
+    String report() {
+        List<Long> sorted = sortedLatencies();
+        return String.format(
+                Locale.US,
+                "cells=%d shown=%d p50=%dms p90=%dms p99=%dms max=%dms renders=%d wasted=%d"
+                        + " peakHeap=%.1fMB",
+                boundCount(),
+                sorted.size(),
+                percentileMs(sorted, 0.50),
+                percentileMs(sorted, 0.90),
+                percentileMs(sorted, 0.99),
+                percentileMs(sorted, 1.0),
+                renderCount(),
+                wastedRenderCount(),
+                peakHeapBytes() / (1024f * 1024f));
+    }
+
+    private List<Long> sortedLatencies() {
+        List<Long> sorted;
+        synchronized (latenciesNanos) {
+            sorted = new ArrayList<>(latenciesNanos);
+        }
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static long percentileMs(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1_000_000;
+    }
+}
@@ -0,0 +1,32 @@
+package aman.icons;
+
+import aman.icons.Logging.Log;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cold-start timing marks, logged once per process relative to process start (API 24+) or to
+ * the first mark on older releases. Main thread only.
+ */
+final class StartupTrace {
+
+    private static final String TAG = "STARTUP";
+
+    private static final long START =
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                    ? Process.getStartUptimeMillis()
+                    : SystemClock.uptimeMillis();
+
+    private static final Set<String> marked = Collections.synchronizedSet(new HashSet<>());
+
+    private StartupTrace() {}
+
+    static void mark(String event) {
+        if (!marked.add(event)) return;
+        Log.i(TAG, event + " +" + (SystemClock.uptimeMillis() - START) + "ms");
+    }
+}
@@ -0,0 +1,31 @@
+package aman.icons;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import com.caverock.androidsvg.SVG;
+import com.caverock.androidsvg.SVGParseException;
+
+final class SvgRenderer {
+
+    static final int THUMBNAIL_SIZE = 96;
+
+    private SvgRenderer() {}
+
+    static Bitmap renderThumbnail(String svgString) throws SVGParseException {
+        return render(parse(svgString));
+    }
+
+    static SVG parse(String svgString) throws SVGParseException {
+        return SVG.getFromString(svgString);
+    }
+
+    static Bitmap render(SVG svg) {
+        int size = THUMBNAIL_SIZE;
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        svg.setDocumentWidth(size);
+        svg.setDocumentHeight(size);
+        svg.renderToCanvas(canvas);
+        return bitmap;
+    }
+}
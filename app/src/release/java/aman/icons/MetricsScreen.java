@@ -0,0 +1,13 @@
+package aman.icons;
+
+import android.app.Activity;
+
+/** The metrics screen only exists in debug builds; release builds still log {@link Metrics}. */
+final class MetricsScreen {
+
+    private MetricsScreen() {}
+
+    static boolean show(Activity activity) {
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package aman.icons;
+
+import android.content.Intent;
+
+/** The preview load harness only exists in debug builds. */
+final class PreviewLoadHarness {
+
+    private PreviewLoadHarness() {}
+
+    static boolean maybeStart(MainActivity activity, Intent intent) {
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package aman.icons.Logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The compact call() payload must carry exactly what bulkInsert() would have: the same records,
+ * field for field, in the same order.
+ */
+public class BatchCodecTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Log.BatchCodec codec = new Log.BatchCodec();
+
+    @Test
+    public void roundTripPreservesFieldsAndOrder() throws IOException {
+        List<Log.Record> sent =
+                Arrays.asList(
+                        new Log.Record("INFO", "Main", "started", 1_700_000_000_000L),
+                        new Log.Record("DEBUG", "Net", "GET /icons", 1_700_000_000_004L),
+                        new Log.Record("ERROR", "Main", "caf\u00e9 \u2603 \ud83d\ude00", 1_700_000_000_004L),
+                        // Clocks can step backwards; deltas are zigzag-encoded
+                        new Log.Record("WARN", "Net", "retry", 1_699_999_999_000L),
+                        new Log.Record("INFO", "Main", "", 1_700_000_100_000L));
+        assertSameAsBulkInsert(sent, roundTrip(sent, false));
+    }
+
+    @Test
+    public void compressedRoundTripPreservesFieldsAndOrder() throws IOException {
+        Random random = new Random(3);
+        String[] levels = {"DEBUG", "INFO", "WARN", "ERROR"};
+        List<Log.Record> sent = new ArrayList<>();
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < 500; i++) {
+            timestamp += random.nextInt(50);
+            sent.add(
+                    new Log.Record(
+                            levels[random.nextInt(levels.length)],
+                            "Tag" + random.nextInt(7),
+                            "message " + i + " of a batch that compresses well",
+                            timestamp));
+        }
+        byte[] payload = codec.encodePayload(sent);
+        byte[] deflated = codec.deflate(payload);
+        assertTrue(deflated.length < payload.length);
+        assertSameAsBulkInsert(sent, Log.BatchCodec.decode(deflated, true, sent.size()));
+    }
+
+    @Test
+    public void nullTagAndMessageArriveAsEmptyStrings() throws IOException {
+        List<Log.Record> sent = Arrays.asList(new Log.Record("INFO", null, null, 5));
+        Log.Record received = roundTrip(sent, false).get(0);
+        assertEquals("", received.tag);
+        assertEquals("", received.message);
+        assertEquals(5, received.timestamp);
+    }
+
+    @Test
+    public void spoolReplayBatchRoundTripsInSpoolOrder() throws IOException {
+        // Replay hands the same list to call() or bulkInsert(); both must see spool order
+        Log.Spool spool = Log.Spool.open(folder.newFile(), 64 * 1024);
+        for (int i = 0; i < 40; i++) {
+            spool.append(new Log.Record(i % 3 == 0 ? "WARN" : "INFO", "T" + (i % 4), "r" + i, i));
+        }
+        List<Log.Record> pending = new ArrayList<>();
+        spool.readUnacked(pending, Integer.MAX_VALUE);
+        List<Log.Record> received = roundTrip(pending, true);
+        assertSameAsBulkInsert(pending, received);
+        for (int i = 0; i < received.size(); i++) assertEquals("r" + i, received.get(i).message);
+    }
+
+    @Test
+    public void codecIsReusableAcrossBatches() throws IOException {
+        List<Log.Record> first = Arrays.asList(new Log.Record("INFO", "A", "one", 1));
+        List<Log.Record> second =
+                Arrays.asList(
+                        new Log.Record("WARN", "B", "two", 2), new Log.Record("INFO", "A", "3", 3));
+        roundTrip(first, false);
+        assertSameAsBulkInsert(second, roundTrip(second, false));
+    }
+
+    @Test
+    public void truncatedPayloadIsRejected() throws IOException {
+        List<Log.Record> sent =
+                Arrays.asList(
+                        new Log.Record("INFO", "Main", "first", 1),
+                        new Log.Record("INFO", "Main", "second", 2));
+        byte[] payload = codec.encodePayload(sent);
+        for (int length = 0; length < payload.length; length++) {
+            try {
+                Log.BatchCodec.decode(Arrays.copyOf(payload, length), false, sent.size());
+                fail("decoded a payload cut at " + length + " of " + payload.length);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private List<Log.Record> roundTrip(List<Log.Record> sent, boolean compress)
+            throws IOException {
+        byte[] payload = codec.encodePayload(sent);
+        if (compress) payload = codec.deflate(payload);
+        return Log.BatchCodec.decode(payload, compress, sent.size());
+    }
+
+    /** What bulkInsert() would have inserted: one row per record, same order, same fields. */
+    private static void assertSameAsBulkInsert(List<Log.Record> sent, List<Log.Record> received) {
+        assertEquals(sent.size(), received.size());
+        for (int i = 0; i < sent.size(); i++) {
+            Log.Record expected = sent.get(i);
+            Log.Record actual = received.get(i);
+            assertEquals("level of " + i, expected.level, actual.level);
+            assertEquals("tag of " + i, expected.tag, actual.tag);
+            assertEquals("message of " + i, expected.message, actual.message);
+            assertEquals("timestamp of " + i, expected.timestamp, actual.timestamp);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package aman.icons.Logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * The "Recent logs" section of a crash report: after the ring has wrapped it holds exactly the
+ * last N lines, oldest first, each in the logcat-like "time L/tag: message" form.
+ */
+public class BreadcrumbsTest {
+
+    private static final Pattern LINE =
+            Pattern.compile("\\d\\d:\\d\\d:\\d\\d\\.\\d\\d\\d ([VDIWEA])/([^:]*): (.*)");
+
+    @Test
+    public void keepsTheLastRecordsInOrderAfterWrapping() {
+        Log.Breadcrumbs ring = new Log.Breadcrumbs(8, 32);
+        int[] priorities = {
+            android.util.Log.VERBOSE, android.util.Log.DEBUG, android.util.Log.INFO,
+            android.util.Log.WARN, android.util.Log.ERROR, android.util.Log.ASSERT
+        };
+        for (int i = 0; i < 21; i++) {
+            ring.add(priorities[i % priorities.length], "Tag" + i % 3, "line " + i, 1000L * i);
+        }
+
+        String[] lines = payload(ring);
+        assertEquals(8, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            int record = 13 + i;
+            Matcher m = parse(lines[i]);
+            assertEquals("VDIWEA".charAt(record % 6), m.group(1).charAt(0));
+            assertEquals("Tag" + record % 3, m.group(2));
+            assertEquals("line " + record, m.group(3));
+        }
+    }
+
+    @Test
+    public void holdsOnlyWhatWasLoggedBeforeWrapping() {
+        Log.Breadcrumbs ring = new Log.Breadcrumbs(8, 32);
+        assertEquals("", appendTo(ring));
+        ring.add(android.util.Log.INFO, "A", "first", 1);
+        ring.add(android.util.Log.INFO, "B", null, 2);
+        ring.add(android.util.Log.INFO, "C", "third", 3);
+
+        String[] lines = payload(ring);
+        assertEquals(3, lines.length);
+        assertEquals("first", parse(lines[0]).group(3));
+        assertEquals("", parse(lines[1]).group(3));
+        assertEquals("third", parse(lines[2]).group(3));
+    }
+
+    @Test
+    public void longMessagesAreCutToTheSlotAndMarked() {
+        Log.Breadcrumbs ring = new Log.Breadcrumbs(4, 10);
+        ring.add(android.util.Log.DEBUG, "T", "0123456789abcdef", 0);
+        ring.add(android.util.Log.DEBUG, "T", "0123456789", 0);
+        ring.add(android.util.Log.DEBUG, "T", "012345678", 0);
+
+        String[] lines = payload(ring);
+        assertEquals("0123456789...", parse(lines[0]).group(3));
+        // Exactly a full slot is indistinguishable from a cut one
+        assertEquals("0123456789...", parse(lines[1]).group(3));
+        assertEquals("012345678", parse(lines[2]).group(3));
+    }
+
+    @Test
+    public void concurrentWritersLeaveTheLastRecordsOfEachThreadInOrder()
+            throws InterruptedException {
+        Log.Breadcrumbs ring = new Log.Breadcrumbs(64, 32);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String tag = "T" + t;
+            threads[t] =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < 20000; i++) {
+                                    ring.add(android.util.Log.INFO, tag, Integer.toString(i), i);
+                                }
+                            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        String[] lines = payload(ring);
+        assertEquals(64, lines.length);
+        int[] last = {-1, -1, -1, -1};
+        for (String line : lines) {
+            Matcher m = parse(line);
+            int thread = m.group(2).charAt(1) - '0';
+            int sequence = Integer.parseInt(m.group(3));
+            assertTrue(line, sequence > last[thread]);
+            last[thread] = sequence;
+        }
+        // The very last add was some thread's final record
+        int finals = 0;
+        for (int sequence : last) if (sequence == 19999) finals++;
+        assertTrue("final records present: " + finals, finals >= 1);
+    }
+
+    private static String appendTo(Log.Breadcrumbs ring) {
+        StringBuilder sb = new StringBuilder();
+        ring.appendTo(sb);
+        return sb.toString();
+    }
+
+    private static String[] payload(Log.Breadcrumbs ring) {
+        String text = appendTo(ring);
+        assertTrue(text.endsWith("\n"));
+        return text.substring(0, text.length() - 1).split("\n", -1);
+    }
+
+    private static Matcher parse(String line) {
+        Matcher m = LINE.matcher(line);
+        assertTrue(line, m.matches());
+        return m;
+    }
+}
@@ -0,0 +1,266 @@
+package aman.icons.Logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcel;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * Pushes one record stream to a stand-in LogHub provider three ways - an insert() per record, as
+ * the original Log did, a bulkInsert() per batch, and the compact call("insertBatch") payload -
+ * and checks that the provider ends up with identical rows each time. Every transaction parcels
+ * its arguments the way binder would, so the records/s and bytes/record printed for each path
+ * include marshalling, not just building the arguments.
+ *
+ * <p>A plain Application replaces Log here so its own transport doesn't write into the stand-in.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class LogHubTransferTest {
+
+    private static final String AUTHORITY = "aman.loghub.provider";
+    private static final Uri LOGHUB_URI = Uri.parse("content://" + AUTHORITY + "/logs");
+    private static final String APP = "aman.icons";
+    private static final int RECORDS = 20_000;
+    private static final int BATCH = 64;
+
+    private StandInProvider provider;
+    private ContentResolver resolver;
+    private List<Log.Record> stream;
+
+    @Before
+    public void setUp() {
+        provider = Robolectric.setupContentProvider(StandInProvider.class, AUTHORITY);
+        resolver = RuntimeEnvironment.getApplication().getContentResolver();
+        stream = recordStream();
+    }
+
+    @Test
+    public void everyPathDeliversIdenticalRows() {
+        List<ContentValues> expected = new ArrayList<>();
+        for (Log.Record record : stream) expected.add(record.toValues(APP));
+
+        long perRecord = time(this::insertEach);
+        List<ContentValues> viaInsert = provider.takeRows();
+        long bulk = time(this::bulkInsertBatches);
+        List<ContentValues> viaBulkInsert = provider.takeRows();
+        long plain = time(() -> callBatches(false));
+        List<ContentValues> viaCall = provider.takeRows();
+        long deflated = time(() -> callBatches(true));
+        List<ContentValues> viaDeflatedCall = provider.takeRows();
+
+        assertRows("insert", expected, viaInsert);
+        assertRows("bulkInsert", expected, viaBulkInsert);
+        assertRows("call", expected, viaCall);
+        assertRows("call+deflate", expected, viaDeflatedCall);
+
+        report("insert per record", perRecord, provider.bytes[StandInProvider.INSERT]);
+        report("bulkInsert", bulk, provider.bytes[StandInProvider.BULK]);
+        report("call insertBatch", plain, provider.bytes[StandInProvider.CALL]);
+        report("call insertBatch+deflate", deflated, provider.bytes[StandInProvider.DEFLATED]);
+
+        assertEquals(RECORDS, provider.transactions[StandInProvider.INSERT]);
+        int batches = (RECORDS + BATCH - 1) / BATCH;
+        assertEquals(batches, provider.transactions[StandInProvider.BULK]);
+        assertEquals(batches, provider.transactions[StandInProvider.CALL]);
+        // The point of the format: far fewer bytes cross the process boundary
+        assertTrue(provider.bytes[StandInProvider.CALL] < provider.bytes[StandInProvider.BULK] / 2);
+        assertTrue(provider.bytes[StandInProvider.DEFLATED] < provider.bytes[StandInProvider.CALL]);
+    }
+
+    private void insertEach() {
+        for (Log.Record record : stream) resolver.insert(LOGHUB_URI, record.toValues(APP));
+    }
+
+    private void bulkInsertBatches() {
+        for (int from = 0; from < stream.size(); from += BATCH) {
+            List<Log.Record> batch = stream.subList(from, Math.min(from + BATCH, stream.size()));
+            resolver.bulkInsert(LOGHUB_URI, Log.Record.toValues(APP, batch));
+        }
+    }
+
+    private void callBatches(boolean compress) {
+        Log.BatchCodec codec = new Log.BatchCodec();
+        for (int from = 0; from < stream.size(); from += BATCH) {
+            List<Log.Record> batch = stream.subList(from, Math.min(from + BATCH, stream.size()));
+            Bundle extras = codec.encode(APP, batch, compress);
+            Bundle reply = resolver.call(LOGHUB_URI, "insertBatch", null, extras);
+            assertTrue(reply != null && reply.getBoolean("ok"));
+        }
+    }
+
+    private static long time(Runnable path) {
+        long start = System.nanoTime();
+        path.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String path, long nanos, long bytes) {
+        System.out.println(
+                String.format(
+                        Locale.US,
+                        "%-26s %,10.0f records/s %8.1f bytes/record",
+                        path,
+                        RECORDS * 1e9 / nanos,
+                        (double) bytes / RECORDS));
+    }
+
+    private static void assertRows(
+            String path, List<ContentValues> expected, List<ContentValues> actual) {
+        assertEquals(path, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(path + " row " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    /** Preview-logging shaped traffic: a few hot tags, bursts of close timestamps. */
+    private static List<Log.Record> recordStream() {
+        Random random = new Random(46);
+        String[] levels = {"DEBUG", "INFO", "WARN", "ERROR"};
+        String[] tags = {"MainActivity", "ICON_EXPORT", "PreviewLoader", "CatalogSync", "OkHttp"};
+        List<Log.Record> records = new ArrayList<>(RECORDS);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < RECORDS; i++) {
+            timestamp += random.nextInt(8) == 0 ? random.nextInt(2000) : random.nextInt(3);
+            records.add(
+                    new Log.Record(
+                            levels[random.nextInt(10) < 7 ? 0 : random.nextInt(levels.length)],
+                            tags[random.nextInt(tags.length)],
+                            "Preview bound for icon_" + random.nextInt(3800) + " at position " + i,
+                            timestamp));
+        }
+        return records;
+    }
+
+    /**
+     * What LogHub's provider does with each entry point, reduced to keeping the rows. Arguments
+     * go through a Parcel first, as they would across binder, and the parcel sizes are summed
+     * per path.
+     */
+    public static class StandInProvider extends ContentProvider {
+
+        static final int INSERT = 0;
+        static final int BULK = 1;
+        static final int CALL = 2;
+        static final int DEFLATED = 3;
+
+        final long[] bytes = new long[4];
+        final int[] transactions = new int[4];
+        private final List<ContentValues> rows = new ArrayList<>();
+
+        List<ContentValues> takeRows() {
+            List<ContentValues> taken = new ArrayList<>(rows);
+            rows.clear();
+            return taken;
+        }
+
+        @Override
+        public boolean onCreate() {
+            return true;
+        }
+
+        @Override
+        public Uri insert(Uri uri, ContentValues values) {
+            Parcel parcel = Parcel.obtain();
+            try {
+                values.writeToParcel(parcel, 0);
+                count(INSERT, parcel);
+                parcel.setDataPosition(0);
+                rows.add(ContentValues.CREATOR.createFromParcel(parcel));
+            } finally {
+                parcel.recycle();
+            }
+            return uri;
+        }
+
+        @Override
+        public int bulkInsert(Uri uri, ContentValues[] values) {
+            Parcel parcel = Parcel.obtain();
+            try {
+                parcel.writeTypedArray(values, 0);
+                count(BULK, parcel);
+                parcel.setDataPosition(0);
+                ContentValues[] received = parcel.createTypedArray(ContentValues.CREATOR);
+                for (ContentValues row : received) rows.add(row);
+            } finally {
+                parcel.recycle();
+            }
+            return values.length;
+        }
+
+        @Override
+        public Bundle call(String method, String arg, Bundle extras) {
+            if (!"insertBatch".equals(method)) return null;
+            Parcel parcel = Parcel.obtain();
+            Bundle received;
+            try {
+                parcel.writeBundle(extras);
+                count(extras.getBoolean("compressed") ? DEFLATED : CALL, parcel);
+                parcel.setDataPosition(0);
+                received = parcel.readBundle(StandInProvider.class.getClassLoader());
+            } finally {
+                parcel.recycle();
+            }
+            String app = received.getString("app_name");
+            List<Log.Record> records;
+            try {
+                records =
+                        Log.BatchCodec.decode(
+                                received.getByteArray("payload"),
+                                received.getBoolean("compressed"),
+                                received.getInt("count"));
+            } catch (IOException e) {
+                return null;
+            }
+            for (Log.Record record : records) rows.add(record.toValues(app));
+            Bundle reply = new Bundle();
+            reply.putBoolean("ok", true);
+            return reply;
+        }
+
+        private void count(int path, Parcel parcel) {
+            bytes[path] += parcel.dataSize();
+            transactions[path]++;
+        }
+
+        @Override
+        public Cursor query(
+                Uri uri, String[] projection, String selection, String[] args, String sortOrder) {
+            return null;
+        }
+
+        @Override
+        public String getType(Uri uri) {
+            return null;
+        }
+
+        @Override
+        public int delete(Uri uri, String selection, String[] selectionArgs) {
+            return 0;
+        }
+
+        @Override
+        public int update(Uri uri, ContentValues values, String selection, String[] args) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package aman.icons.Logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The spool's crash/replay contract: what was appended and not acknowledged comes back, in
+ * order, from a freshly mapped file; only contiguous delivered ranges are acknowledged; and
+ * overwriting old records never counts as delivering them.
+ */
+public class LogSpoolTest {
+
+    private static final int SIZE = 64 * 1024;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void crashAndUnackedRecordsAreReplayedAfterRestart() throws Exception {
+        File file = folder.newFile("loghub.spool");
+        Log.Spool spool = Log.Spool.open(file, SIZE);
+        List<Log.Record> sent = new ArrayList<>();
+        for (int i = 0; i < 10; i++) sent.add(append(spool, "INFO", "Tag", "line " + i, 1000 + i));
+        assertTrue(spool.ack(sent.subList(0, 4)));
+        for (int i = 10; i < 20; i++) append(spool, "DEBUG", "Tag", "line " + i, 1000 + i);
+        append(spool, "ERROR", "CRASH", "CRASH: java.lang.IllegalStateException", 2000);
+        // The process dies here: nothing is flushed or closed
+
+        Log.Spool reopened = Log.Spool.open(file, SIZE);
+        List<Log.Record> replay = readAll(reopened);
+        assertEquals(17, replay.size());
+        for (int i = 0; i < 16; i++) {
+            Log.Record record = replay.get(i);
+            assertEquals("line " + (i + 4), record.message);
+            assertEquals(1004 + i, record.timestamp);
+            assertEquals("Tag", record.tag);
+        }
+        Log.Record crash = replay.get(16);
+        assertEquals("CRASH", crash.tag);
+        assertEquals("ERROR", crash.level);
+        assertEquals("CRASH: java.lang.IllegalStateException", crash.message);
+
+        assertTrue(reopened.ack(replay));
+        assertFalse(reopened.hasUnacked());
+        assertTrue(readAll(Log.Spool.open(file, SIZE)).isEmpty());
+    }
+
+    @Test
+    public void ackStopsAtTheFirstGap() throws Exception {
+        Log.Spool spool = Log.Spool.open(folder.newFile(), SIZE);
+        Log.Record first = append(spool, "INFO", "T", "first", 1);
+        Log.Record second = append(spool, "INFO", "T", "second", 2);
+        Log.Record third = append(spool, "INFO", "T", "third", 3);
+
+        // second was dropped from the ring or sent in a batch that failed
+        assertFalse(spool.ack(Arrays.asList(first, third)));
+        assertEquals(first.spoolEnd, spool.delivered());
+        assertMessages(readAll(spool), "second", "third");
+
+        assertTrue(spool.ack(Arrays.asList(second, third)));
+        assertEquals(third.spoolEnd, spool.delivered());
+    }
+
+    @Test
+    public void failedBatchIsNotAcknowledgedByALaterOne() throws Exception {
+        Log.Spool spool = Log.Spool.open(folder.newFile(), SIZE);
+        List<Log.Record> failedBatch = new ArrayList<>();
+        List<Log.Record> laterBatch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) failedBatch.add(append(spool, "WARN", "T", "f" + i, i));
+        for (int i = 0; i < 3; i++) laterBatch.add(append(spool, "WARN", "T", "l" + i, i));
+
+        assertFalse(spool.ack(laterBatch));
+        assertEquals(0, spool.delivered());
+        assertMessages(readAll(spool), "f0", "f1", "f2", "l0", "l1", "l2");
+    }
+
+    @Test
+    public void overwritingDoesNotMarkRecordsDelivered() throws Exception {
+        Log.Spool spool = Log.Spool.open(folder.newFile(), 1024);
+        List<Log.Record> ring = new ArrayList<>();
+        for (int i = 0; i < 40; i++) ring.add(append(spool, "INFO", "T", "record " + i, i));
+
+        // The oldest records are gone from the spool, but their ring copies
+        // must still be sent: the transport only skips spoolEnd <= delivered
+        assertEquals(0, spool.delivered());
+        for (Log.Record record : ring) assertTrue(record.spoolEnd > spool.delivered());
+
+        List<Log.Record> retained = readAll(spool);
+        assertTrue(retained.size() < ring.size());
+        int firstRetained = ring.size() - retained.size();
+        for (int i = 0; i < retained.size(); i++) {
+            assertEquals(ring.get(firstRetained + i).message, retained.get(i).message);
+        }
+
+        // Delivering the whole ring acknowledges everything still stored
+        assertTrue(spool.ack(ring));
+        assertFalse(spool.hasUnacked());
+    }
+
+    @Test
+    public void ringOrderIsSpoolOrderUnderConcurrentLogging() throws Exception {
+        Log.Transport transport = new Log.Transport(4096);
+        transport.spool = Log.Spool.open(folder.newFile(), 256 * 1024);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String tag = "T" + t;
+            threads[t] =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < 500; i++) {
+                                    transport.enqueue(new Log.Record("INFO", tag, "m" + i, i));
+                                }
+                            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        List<Log.Record> ring = transport.drain();
+        assertEquals(2000, ring.size());
+        for (int i = 1; i < ring.size(); i++) {
+            assertEquals(ring.get(i - 1).spoolEnd, ring.get(i).spoolStart);
+        }
+        assertTrue(transport.spool.ack(ring));
+        assertFalse(transport.spool.hasUnacked());
+    }
+
+    @Test(timeout = 30_000)
+    public void evictingProducersKeepRingInSpoolOrder() throws Exception {
+        Log.Transport transport = new Log.Transport(64);
+        transport.spool = Log.Spool.open(folder.newFile(), 1024 * 1024);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < 5000; i++) {
+                                    transport.enqueue(new Log.Record("INFO", "T", "m", i));
+                                }
+                            });
+            threads[t].start();
+        }
+        List<Log.Record> received = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread thread : threads) running |= thread.isAlive();
+            received.addAll(transport.drain());
+        }
+        received.addAll(transport.drain());
+
+        assertEquals(20000, received.size() + transport.dropped.get());
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(received.get(i - 1).spoolEnd <= received.get(i).spoolStart);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void blockedProducerWaitsWithoutHoldingALock() throws Exception {
+        Log.Transport transport = new Log.Transport(4);
+        transport.spool = Log.Spool.open(folder.newFile(), SIZE);
+        transport.policy = Log.OverflowPolicy.BLOCK;
+        for (int i = 0; i < 4; i++) transport.enqueue(new Log.Record("INFO", "T", "m" + i, i));
+
+        Thread producer =
+                new Thread(() -> transport.enqueue(new Log.Record("INFO", "T", "blocked", 4)));
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) Thread.sleep(1);
+        ThreadInfo info =
+                ManagementFactory.getThreadMXBean()
+                        .getThreadInfo(new long[] {producer.getId()}, true, true)[0];
+        assertEquals(0, info.getLockedMonitors().length);
+        assertEquals(0, info.getLockedSynchronizers().length);
+
+        // The crash path and other producers' spool appends still go through
+        Log.Record crash = append(transport.spool, "ERROR", "CRASH", "crash", 5);
+        assertTrue(crash.spoolEnd > 0);
+
+        List<Log.Record> first = transport.drain();
+        producer.join();
+        assertMessages(first, "m0", "m1", "m2", "m3");
+        assertMessages(transport.drain(), "blocked");
+        assertMessages(readAll(transport.spool), "m0", "m1", "m2", "m3", "blocked", "crash");
+    }
+
+    @Test
+    public void dropNewestLeavesTheRecordSpooledForReplay() throws Exception {
+        Log.Transport transport = new Log.Transport(4);
+        transport.spool = Log.Spool.open(folder.newFile(), SIZE);
+        transport.policy = Log.OverflowPolicy.DROP_NEWEST;
+        for (int i = 0; i < 6; i++) transport.enqueue(new Log.Record("INFO", "T", "m" + i, i));
+
+        List<Log.Record> ring = transport.drain();
+        assertMessages(ring, "m0", "m1", "m2", "m3");
+        assertEquals(2, transport.dropped.get());
+        assertTrue(transport.spool.ack(ring));
+        assertMessages(readAll(transport.spool), "m4", "m5");
+    }
+
+    private static Log.Record append(
+            Log.Spool spool, String level, String tag, String msg, long timestamp) {
+        Log.Record record = new Log.Record(level, tag, msg, timestamp);
+        spool.append(record);
+        return record;
+    }
+
+    private static List<Log.Record> readAll(Log.Spool spool) {
+        List<Log.Record> out = new ArrayList<>();
+        spool.readUnacked(out, Integer.MAX_VALUE);
+        return out;
+    }
+
+    private static void assertMessages(List<Log.Record> records, String... expected) {
+        assertEquals(expected.length, records.size());
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], records.get(i).message);
+    }
+}
@@ -0,0 +1,96 @@
+package aman.icons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * What the load harness reports: one latency per icon from its first bind to its first shown
+ * preview, wasted renders only for previews that never reached a cell, and nothing at all
+ * outside a run.
+ */
+public class PreviewStatsTest {
+
+    @After
+    public void tearDown() {
+        PreviewStats.stop();
+    }
+
+    @Test
+    public void latencyRunsFromFirstBindToFirstShow() throws InterruptedException {
+        PreviewStats stats = PreviewStats.start();
+        PreviewStats.bound("a");
+        Thread.sleep(30);
+        PreviewStats.bound("a");
+        PreviewStats.rendered("a");
+        PreviewStats.shown("a");
+        Thread.sleep(300);
+        PreviewStats.shown("a");
+
+        assertEquals(1, stats.boundCount());
+        assertEquals(1, stats.shownCount());
+        assertEquals(1, stats.renderCount());
+        long latency = stats.latencyMs(1.0);
+        assertTrue("latency " + latency, latency >= 30 && latency < 300);
+        assertEquals(latency, stats.latencyMs(0.5));
+    }
+
+    @Test
+    public void percentilesAreTakenOverShownIcons() {
+        PreviewStats stats = PreviewStats.start();
+        assertEquals(0, stats.latencyMs(0.5));
+        for (int i = 0; i < 100; i++) PreviewStats.bound("icon" + i);
+        for (int i = 0; i < 100; i++) PreviewStats.shown("icon" + i);
+        // Shown without a recorded bind: counted, but has no latency
+        PreviewStats.shown("preloaded");
+
+        assertEquals(100, stats.boundCount());
+        assertEquals(101, stats.shownCount());
+        assertTrue(stats.latencyMs(0.5) <= stats.latencyMs(0.9));
+        assertTrue(stats.latencyMs(0.9) <= stats.latencyMs(0.99));
+        assertTrue(stats.latencyMs(0.99) <= stats.latencyMs(1.0));
+        assertTrue(stats.report(), stats.report().startsWith("cells=100 shown=100 "));
+    }
+
+    @Test
+    public void onlyRenderedPreviewsThatNeverShowAreWasted() {
+        PreviewStats stats = PreviewStats.start();
+        PreviewStats.bound("recycled");
+        PreviewStats.rendered("recycled");
+        PreviewStats.discarded("recycled");
+
+        PreviewStats.bound("shownLater");
+        PreviewStats.rendered("shownLater");
+        PreviewStats.shown("shownLater");
+        PreviewStats.discarded("shownLater");
+
+        // A disk hit for a recycled cell was never rendered in this run
+        PreviewStats.discarded("diskHit");
+
+        assertEquals(2, stats.renderCount());
+        assertEquals(1, stats.wastedRenderCount());
+        assertTrue(stats.peakHeapBytes() > 0);
+    }
+
+    @Test
+    public void hooksAreIgnoredOutsideARun() {
+        PreviewStats stats = PreviewStats.start();
+        PreviewStats.stop();
+        PreviewStats.bound("a");
+        PreviewStats.rendered("a");
+        PreviewStats.shown("a");
+        PreviewStats.discarded("a");
+
+        assertEquals(0, stats.boundCount());
+        assertEquals(0, stats.shownCount());
+        assertEquals(0, stats.renderCount());
+        assertEquals(0, stats.wastedRenderCount());
+
+        PreviewStats next = PreviewStats.start();
+        PreviewStats.bound("b");
+        assertEquals(0, stats.boundCount());
+        assertEquals(1, next.boundCount());
+    }
+}
@@ -0,0 +1,33 @@
+package aman.icons.benchmarks;
+
+import aman.icons.core.IconCatalog;
+import aman.icons.core.IconModel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Full metadata document to icon list, as done on every cold start. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CatalogParseBenchmark {
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = Fixtures.metadataJson();
+    }
+
+    @Benchmark
+    public List<IconModel> parse() throws JSONException {
+        return IconCatalog.parse(json);
+    }
+}
@@ -0,0 +1,45 @@
+package aman.icons.benchmarks;
+
+import aman.icons.core.SvgConverter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Converts a catalogue-sized corpus of single-path, multi-path, grouped and transformed SVGs in
+ * one invocation. The score is icons/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CatalogueConvertBenchmark {
+
+    @Param({"false", "true"})
+    public boolean optimizePaths;
+
+    private String[] svgs;
+
+    @Setup
+    public void setUp() {
+        svgs = Fixtures.catalogueSvgs();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.ICON_COUNT)
+    public long convertCatalogue() throws IOException {
+        SvgConverter.Options options = new SvgConverter.Options(optimizePaths);
+        long bytes = 0;
+        for (String svg : svgs) {
+            bytes += SvgConverter.toVectorDrawableBytes(svg, options).length;
+        }
+        return bytes;
+    }
+}
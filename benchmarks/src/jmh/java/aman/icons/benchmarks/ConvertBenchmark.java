@@ -0,0 +1,31 @@
+package aman.icons.benchmarks;
+
+import aman.icons.core.SvgConverter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** SVG to VectorDrawable XML per icon, with and without path-data optimization. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertBenchmark {
+
+    @Param({"0", "1", "2"})
+    public int icon;
+
+    @Param({"false", "true"})
+    public boolean optimizePaths;
+
+    @Benchmark
+    public byte[] convert() throws IOException {
+        return SvgConverter.toVectorDrawableBytes(
+                Fixtures.SVGS[icon], new SvgConverter.Options(optimizePaths));
+    }
+}
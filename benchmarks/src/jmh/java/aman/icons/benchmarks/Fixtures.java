@@ -0,0 +1,113 @@
+package aman.icons.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic inputs shaped like the real data: a metadata document in the fonts.google.com
+ * format (XSSI prefix, ~3800 icons with tags and codepoints), Material Symbols SVGs in the
+ * 960-unit viewBox the app downloads, and multi-element SVGs like those other icon sets ship.
+ */
+final class Fixtures {
+
+    static final int ICON_COUNT = 3800;
+
+    private static final String[] WORDS = {
+        "arrow", "home", "search", "settings", "account", "circle", "add", "check", "close", "menu",
+        "star", "favorite", "delete", "edit", "share", "cloud", "download", "upload", "folder",
+        "file", "image", "camera", "photo", "video", "music", "mail", "chat", "call", "lock", "key",
+        "person", "group", "shopping", "cart", "map", "place", "time", "alarm", "calendar", "event",
+        "info", "help", "warning", "error", "notifications", "wifi", "bluetooth", "battery", "sync",
+        "refresh", "back", "forward", "up", "down", "left", "right", "outline", "filled", "sharp"
+    };
+
+    static final String[] SVGS = {
+        // home
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                + " width=\"24\"><path d=\"M240-200h120v-240h240v240h120v-360L480-740 240-560v360Z"
+                + "m-80 80v-480l320-240 320 240v480H520v-240h-80v240H160Zm320-350Z\"/></svg>",
+        // radio_button_unchecked
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                + " width=\"24\"><path d=\"M480-80q-83 0-156-31.5T197-197q-54-54-85.5-127T80-480"
+                + "q0-83 31.5-156T197-763q54-54 127-85.5T480-880q83 0 156 31.5T763-763q54 54 85.5"
+                + " 127T880-480q0 83-31.5 156T763-197q-54 54-127 85.5T480-80Zm0-80q134 0 227-93t93"
+                + "-227q0-134-93-227t-227-93q-134 0-227 93t-93 227q0 134 93 227t227 93Zm0-320Z\"/>"
+                + "</svg>",
+        // settings (long path, many curves)
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                + " width=\"24\"><path d=\"m370-80-16-128q-13-5-24.5-12T307-235l-119 50L78-375l103"
+                + "-78q-1-7-1-13.5v-27q0-6.5 1-13.5L78-585l110-190 119 50q11-8 23-15t24-12l16-128h"
+                + "220l16 128q13 5 24.5 12t22.5 15l119-50 110 190-103 78q1 7 1 13.5v27q0 6.5-2 13.5"
+                + "l103 78-110 190-118-50q-11 8-23 15t-24 12L590-80H370Zm70-80h79l14-106q31-8 57.5"
+                + "-23.5T639-327l99 41 39-68-86-65q5-14 7-29.5t2-31.5q0-16-2-31.5t-7-29.5l86-65-39"
+                + "-68-99 42q-22-23-48.5-38.5T533-694l-13-106h-79l-14 106q-31 8-57.5 23.5T321-633"
+                + "l-99-41-39 68 86 64q-5 15-7 30t-2 32q0 16 2 31t7 30l-86 65 39 68 99-42q22 23 48.5"
+                + " 38.5T427-266l13 106Zm42-180q58 0 99-41t41-99q0-58-41-99t-99-41q-59 0-99.5 41T342"
+                + "-480q0 58 40.5 99t99.5 41Zm-2-140Z\"/></svg>"
+    };
+
+    /**
+     * Icons built from more than one path: several paths, nested groups with inherited stroke
+     * style, transform lists including a skewed matrix, basic shapes, and a nested svg viewport.
+     */
+    static final String[] STRUCTURED_SVGS = {
+        // multi-path list
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"24\" viewBox=\"0 -960 960 960\""
+                + " width=\"24\"><path d=\"M160-680h640v80H160Z\"/><path"
+                + " d=\"M160-520h640v80H160Z\"/><path d=\"M160-360h400v80H160Z\"/><path"
+                + " fill-rule=\"evenodd\" d=\"M640-360h160v160H640ZM680-320v80h80v-80Z\"/></svg>",
+        // grouped strokes
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"24\" height=\"24\" viewBox=\"0 0 24"
+                + " 24\" fill=\"none\" stroke=\"currentColor\" stroke-width=\"2\"><g"
+                + " stroke-linecap=\"round\" stroke-linejoin=\"round\"><path d=\"M3 9l9-7 9 7v11a2"
+                + " 2 0 0 1-2 2H5a2 2 0 0 1-2-2z\"/><g opacity=\"0.5\"><polyline points=\"9 22 9"
+                + " 12 15 12 15 22\"/></g></g><circle cx=\"12\" cy=\"7\" r=\"1\""
+                + " style=\"fill:currentColor;stroke:none\"/></svg>",
+        // transformed
+        "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"24\" height=\"24\" viewBox=\"0 0 24"
+                + " 24\"><g transform=\"translate(12 12) rotate(45)\"><rect x=\"-2\" y=\"-9\""
+                + " width=\"4\" height=\"18\" rx=\"1\"/><rect x=\"-9\" y=\"-2\" width=\"18\""
+                + " height=\"4\" rx=\"1\"/></g><path transform=\"matrix(1 0 0.3 1 -2 0)"
+                + " scale(0.5)\" d=\"M4 36h8v8H4z\"/><svg x=\"16\" y=\"16\" width=\"6\""
+                + " height=\"6\" viewBox=\"0 0 10 10\"><ellipse cx=\"5\" cy=\"5\" rx=\"5\""
+                + " ry=\"3\"/><line x1=\"0\" y1=\"5\" x2=\"10\" y2=\"5\" stroke=\"#000\"/></svg>"
+                + "</svg>"
+    };
+
+    private Fixtures() {}
+
+    /**
+     * {@link #ICON_COUNT} SVGs alternating between the single-path and structured fixtures, so a
+     * whole-catalogue conversion sees both kinds.
+     */
+    static String[] catalogueSvgs() {
+        String[] svgs = new String[ICON_COUNT];
+        for (int i = 0; i < ICON_COUNT; i++) {
+            String[] kind = i % 2 == 0 ? SVGS : STRUCTURED_SVGS;
+            svgs[i] = kind[(i / 2) % kind.length];
+        }
+        return svgs;
+    }
+
+    static String metadataJson() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(ICON_COUNT * 160);
+        sb.append(")]}'\n{\"host\":\"fonts.gstatic.com\",\"familyCount\":5,\"icons\":[");
+        for (int i = 0; i < ICON_COUNT; i++) {
+            if (i > 0) sb.append(',');
+            String name =
+                    WORDS[random.nextInt(WORDS.length)] + "_" + WORDS[random.nextInt(WORDS.length)]
+                            + "_" + i;
+            sb.append("{\"name\":\"").append(name).append("\",\"version\":1,\"popularity\":")
+                    .append(random.nextInt(100000)).append(",\"codepoint\":")
+                    .append(0xe000 + i).append(",\"categories\":[\"action\"],\"tags\":[");
+            int tags = 3 + random.nextInt(6);
+            for (int t = 0; t < tags; t++) {
+                if (t > 0) sb.append(',');
+                sb.append('"').append(WORDS[random.nextInt(WORDS.length)]).append('"');
+            }
+            sb.append("],\"sizes_px\":[20,24,40,48]}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package aman.icons.benchmarks;
+
+import aman.icons.core.IconCatalog;
+import aman.icons.core.IconModel;
+import aman.icons.core.IconSearch;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One keystroke worth of filtering. Queries range from matching most of the catalog ("a") to
+ * matching nothing, so both the result-building and the full-scan costs show up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    @Param({"a", "arrow", "home_search", "zzz"})
+    public String query;
+
+    private IconSearch search;
+
+    @Setup
+    public void setUp() throws JSONException {
+        search = new IconSearch(IconCatalog.parse(Fixtures.metadataJson()));
+    }
+
+    @Benchmark
+    public List<IconModel> filter() {
+        return search.filter(query);
+    }
+}
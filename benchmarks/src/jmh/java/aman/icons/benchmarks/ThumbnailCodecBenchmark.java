@@ -0,0 +1,55 @@
+package aman.icons.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * PNG encode/decode of a 96px ARGB thumbnail, the format of the on-disk preview cache. Bitmap is
+ * not available on the JVM, so ImageIO stands in; treat the numbers as relative, not absolute.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ThumbnailCodecBenchmark {
+
+    private static final int SIZE = 96;
+
+    private BufferedImage image;
+    private byte[] png;
+
+    @Setup
+    public void setUp() throws IOException {
+        image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        // A ring, roughly the coverage of a typical glyph.
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                double d = Math.hypot(x - SIZE / 2.0, y - SIZE / 2.0);
+                if (d > 30 && d < 40) image.setRGB(x, y, 0xFF000000);
+            }
+        }
+        png = encode();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+}
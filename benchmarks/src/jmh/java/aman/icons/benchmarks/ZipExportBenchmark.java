@@ -0,0 +1,64 @@
+package aman.icons.benchmarks;
+
+import aman.icons.core.ZipExporter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Whole ZIP export of the fixture SVGs into a discarding stream, so the score is convert and
+ * deflate throughput without network or SAF cost. Divide {@code icons} by the score for icons/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZipExportBenchmark {
+
+    @Param({"1000"})
+    public int icons;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param({"false", "true"})
+    public boolean optimizePaths;
+
+    private List<String> names;
+    private ZipExporter.SvgSource source;
+
+    @Setup
+    public void setUp() {
+        names = new ArrayList<>(icons);
+        for (int i = 0; i < icons; i++) names.add("icon_" + i);
+        source =
+                name -> {
+                    int i = Integer.parseInt(name.substring(name.indexOf('_') + 1));
+                    return Fixtures.SVGS[i % Fixtures.SVGS.length];
+                };
+    }
+
+    @Benchmark
+    public ZipExporter.Result export() throws IOException {
+        ZipExporter exporter =
+                new ZipExporter(source, parallelism, ZipExporter.vectorEncoder(optimizePaths));
+        return exporter.export(names, new DiscardingOutputStream(), null);
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void write(byte[] b, int off, int len) {}
+    }
+}
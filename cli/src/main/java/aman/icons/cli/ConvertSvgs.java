@@ -0,0 +1,142 @@
+package aman.icons.cli;
+
+import aman.icons.core.SvgConverter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch converter: turns every {@code *.svg} in a directory into an {@code ic_*.xml}
+ * VectorDrawable using the same converter as the app. Files are converted by a parallel stream on
+ * a dedicated fork-join pool sized by {@code --threads}.
+ *
+ * <pre>
+ * ConvertSvgs &lt;input-dir&gt; &lt;output-dir&gt; [--optimize] [--threads N]
+ * </pre>
+ */
+public final class ConvertSvgs {
+
+    private ConvertSvgs() {}
+
+    public static void main(String[] args) throws Exception {
+        Path input = null;
+        Path output = null;
+        boolean optimize = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--optimize".equals(arg)) {
+                optimize = true;
+            } else if ("--threads".equals(arg) && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (input == null) {
+                input = Paths.get(arg);
+            } else if (output == null) {
+                output = Paths.get(arg);
+            } else {
+                usage();
+                return;
+            }
+        }
+        if (input == null || output == null || !Files.isDirectory(input)) {
+            usage();
+            return;
+        }
+        Files.createDirectories(output);
+
+        List<Path> svgs;
+        try (Stream<Path> files = Files.list(input)) {
+            svgs =
+                    files.filter(p -> p.getFileName().toString().endsWith(".svg"))
+                            .sorted()
+                            .collect(Collectors.toList());
+        }
+
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong pathBytesSaved = new AtomicLong();
+        boolean optimizePaths = optimize;
+        Path outDir = output;
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(
+                            () ->
+                                    svgs.parallelStream()
+                                            .forEach(
+                                                    svg -> {
+                                                        if (convert(
+                                                                svg,
+                                                                outDir,
+                                                                optimizePaths,
+                                                                pathBytesSaved)) {
+                                                            written.incrementAndGet();
+                                                        } else {
+                                                            failed.incrementAndGet();
+                                                        }
+                                                    }))
+                    .get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.println(
+                String.format(
+                        Locale.US,
+                        "Converted %d/%d icons (%d failed) in %d ms on %d threads, %.1f icons/s%s",
+                        written.get(),
+                        svgs.size(),
+                        failed.get(),
+                        elapsedNanos / 1_000_000,
+                        threads,
+                        written.get() * 1e9 / Math.max(1, elapsedNanos),
+                        optimize ? ", " + pathBytesSaved.get() + " path bytes saved" : ""));
+        if (failed.get() > 0) System.exit(1);
+    }
+
+    private static boolean convert(
+            Path svg, Path outDir, boolean optimizePaths, AtomicLong pathBytesSaved) {
+        String fileName = svg.getFileName().toString();
+        String name = resourceName(fileName.substring(0, fileName.length() - ".svg".length()));
+        try {
+            String content = new String(Files.readAllBytes(svg), StandardCharsets.UTF_8);
+            SvgConverter.Options options = new SvgConverter.Options(optimizePaths);
+            byte[] xml = SvgConverter.toVectorDrawableBytes(content, options);
+            Files.write(outDir.resolve(SvgConverter.fileName(name)), xml);
+            pathBytesSaved.addAndGet(options.pathBytesSaved());
+            return true;
+        } catch (IOException e) {
+            System.err.println(fileName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Android resource names only allow lowercase letters, digits and underscores. */
+    static String resourceName(String base) {
+        StringBuilder sb = new StringBuilder(base.length());
+        for (int i = 0; i < base.length(); i++) {
+            char c = Character.toLowerCase(base.charAt(i));
+            sb.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static void usage() {
+        System.err.println(
+                "Usage: ConvertSvgs <input-dir> <output-dir> [--optimize] [--threads N]");
+    }
+}
@@ -0,0 +1,127 @@
+package aman.icons.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public final class IconCatalog {
+
+    public static final String ICON_LIST_URL =
+            "https://fonts.google.com/metadata/icons?key=material_symbols&incomplete=true";
+
+    public static final String METADATA_FILE = "icons_metadata.json";
+
+    /** The first screenful of icons as "codepoint name" lines, shown before the full parse. */
+    public static final String SNAPSHOT_FILE = "icons_first_page.txt";
+
+    private IconCatalog() {}
+
+    public static File metadataFile(File cacheDir) {
+        return new File(cacheDir, METADATA_FILE);
+    }
+
+    public static String readMetadata(File cacheDir) throws IOException {
+        return new String(readFile(metadataFile(cacheDir)), StandardCharsets.UTF_8);
+    }
+
+    public static void writeMetadata(File cacheDir, String jsonStr) {
+        try (FileOutputStream out = new FileOutputStream(metadataFile(cacheDir))) {
+            out.write(jsonStr.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception ignored) {
+        }
+    }
+
+    public static List<IconModel> readSnapshot(File cacheDir) {
+        List<IconModel> icons = new ArrayList<>();
+        File file = new File(cacheDir, SNAPSHOT_FILE);
+        if (!file.exists()) return icons;
+        try (BufferedReader in =
+                new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space <= 0) continue;
+                icons.add(
+                        new IconModel(
+                                line.substring(space + 1),
+                                new ArrayList<>(),
+                                Integer.parseInt(line.substring(0, space))));
+            }
+        } catch (IOException | NumberFormatException e) {
+            icons.clear();
+        }
+        return icons;
+    }
+
+    /** Writes the first {@code count} icons, skipping the write when nothing changed. */
+    public static void writeSnapshot(File cacheDir, List<IconModel> icons, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(count, icons.size()); i++) {
+            IconModel icon = icons.get(i);
+            sb.append(icon.codepoint).append(' ').append(icon.name).append('\n');
+        }
+        byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+        File file = new File(cacheDir, SNAPSHOT_FILE);
+        if (file.length() == content.length) {
+            try {
+                if (Arrays.equals(content, readFile(file))) return;
+            } catch (IOException ignored) {
+            }
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[(int) file.length()];
+            int read = 0;
+            while (read < buffer.length) {
+                int n = in.read(buffer, read, buffer.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            return read == buffer.length ? buffer : Arrays.copyOf(buffer, read);
+        }
+    }
+
+    public static List<IconModel> parse(String jsonStr) throws JSONException {
+        if (jsonStr.startsWith(")]}'")) {
+            jsonStr = jsonStr.substring(jsonStr.indexOf("\n") + 1);
+        }
+
+        JSONObject root = new JSONObject(jsonStr);
+        JSONArray iconsArray = root.getJSONArray("icons");
+
+        List<IconModel> parsedList = new ArrayList<>();
+
+        for (int i = 0; i < iconsArray.length(); i++) {
+            JSONObject item = iconsArray.getJSONObject(i);
+            String name = item.getString("name");
+
+            List<String> tagsList = new ArrayList<>();
+            if (item.has("tags")) {
+                JSONArray tagsJson = item.getJSONArray("tags");
+                for (int j = 0; j < tagsJson.length(); j++) {
+                    tagsList.add(tagsJson.getString(j).toLowerCase());
+                }
+            }
+
+            parsedList.add(new IconModel(name, tagsList, item.optInt("codepoint", 0)));
+        }
+        return parsedList;
+    }
+}
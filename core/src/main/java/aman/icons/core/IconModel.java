@@ -0,0 +1,19 @@
+package aman.icons.core;
+
+import java.util.List;
+
+public class IconModel {
+    public final String name;
+    public final List<String> tags;
+    public final int codepoint;
+
+    public IconModel(String n, List<String> t) {
+        this(n, t, 0);
+    }
+
+    public IconModel(String n, List<String> t, int c) {
+        name = n;
+        tags = t;
+        codepoint = c;
+    }
+}
@@ -0,0 +1,62 @@
+package aman.icons.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranked substring search over the catalog: exact name matches first, then names containing the
+ * query, then icons with a tag containing it. Names are unique in the result, first rank wins.
+ */
+public final class IconSearch {
+
+    private final List<IconModel> icons;
+
+    public IconSearch(List<IconModel> icons) {
+        this.icons = icons;
+    }
+
+    public List<IconModel> all() {
+        return icons;
+    }
+
+    public List<IconModel> filter(String query) {
+        String q = query.toLowerCase().trim();
+        if (q.isEmpty()) return icons;
+
+        List<IconModel> exactMatches = new ArrayList<>();
+        List<IconModel> nameMatches = new ArrayList<>();
+        List<IconModel> tagMatches = new ArrayList<>();
+
+        for (IconModel icon : icons) {
+            if (icon.name.equals(q)) {
+                exactMatches.add(icon);
+            } else if (icon.name.contains(q)) {
+                nameMatches.add(icon);
+            } else {
+                for (String tag : icon.tags) {
+                    if (tag.contains(q)) {
+                        tagMatches.add(icon);
+                        break;
+                    }
+                }
+            }
+        }
+
+        Set<String> addedNames = new HashSet<>();
+        List<IconModel> result =
+                new ArrayList<>(exactMatches.size() + nameMatches.size() + tagMatches.size());
+        addUnique(exactMatches, result, addedNames);
+        addUnique(nameMatches, result, addedNames);
+        addUnique(tagMatches, result, addedNames);
+        return result;
+    }
+
+    private static void addUnique(
+            List<IconModel> source, List<IconModel> destination, Set<String> seen) {
+        for (IconModel icon : source) {
+            if (seen.add(icon.name)) destination.add(icon);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package aman.icons.core;
+
+/**
+ * Rewrites SVG/VectorDrawable path data into a shorter equivalent: coordinates rounded to a fixed
+ * number of decimals, each segment emitted in whichever of absolute or relative form is shorter,
+ * lines collapsed to H/V where possible, repeated command letters dropped and separators kept
+ * only where the grammar needs them.
+ *
+ * <p>Relative input is resolved against the exact, unrounded current point, and only the resulting
+ * absolute coordinates are rounded to fixed-point longs. Relative output is derived from those
+ * already-rounded positions, so rounding error never accumulates along a subpath. Arc flags
+ * are always separated by spaces because the platform path parser does not accept packed flags.
+ */
+public final class PathDataOptimizer {
+
+    private final int decimals;
+    private final long scale;
+    private final StringBuilder out = new StringBuilder();
+
+    private long bytesIn;
+    private long bytesOut;
+
+    // Emission state
+    private char lastLetter;
+    private boolean lastWasNumber;
+    private boolean lastHadDot;
+
+    public PathDataOptimizer(int decimals) {
+        this.decimals = Math.max(0, Math.min(decimals, 6));
+        long s = 1;
+        for (int i = 0; i < this.decimals; i++) s *= 10;
+        scale = s;
+    }
+
+    /** Picks the precision that keeps rounding error under 0.1% of the viewport. */
+    public static PathDataOptimizer forViewport(float viewportSize) {
+        double tolerance = Math.max(viewportSize, 1e-3) / 1000.0;
+        int decimals = (int) Math.ceil(-Math.log10(2 * tolerance));
+        return new PathDataOptimizer(Math.max(0, decimals));
+    }
+
+    public long bytesIn() {
+        return bytesIn;
+    }
+
+    public long bytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Returns the optimized form of {@code pathData}, or the input unchanged if it cannot be
+     * parsed (so a malformed path is never made worse).
+     */
+    public String optimize(String pathData) {
+        String result;
+        try {
+            result = rewrite(pathData);
+        } catch (IllegalArgumentException e) {
+            result = pathData;
+        }
+        if (result.length() > pathData.length()) result = pathData;
+        bytesIn += pathData.length();
+        bytesOut += result.length();
+        return result;
+    }
+
+    private String rewrite(String d) {
+        out.setLength(0);
+        lastLetter = 0;
+        lastWasNumber = false;
+        lastHadDot = false;
+
+        Tokenizer t = new Tokenizer(d);
+        // Rounded positions drive emission; exact ones resolve relative input.
+        long cx = 0, cy = 0, sx = 0, sy = 0;
+        double ex = 0, ey = 0, esx = 0, esy = 0;
+        char cmd = 0;
+        boolean first = true;
+
+        while (t.skipSeparators()) {
+            if (t.atCommand()) {
+                cmd = t.command();
+            } else if (cmd == 0) {
+                throw new IllegalArgumentException("Path must start with a command");
+            } else if (cmd == 'M') {
+                cmd = 'L'; // implicit repetition of a moveto is a lineto
+            } else if (cmd == 'm') {
+                cmd = 'l';
+            } else if (cmd == 'Z' || cmd == 'z') {
+                throw new IllegalArgumentException("Numbers after closepath");
+            }
+
+            boolean rel = Character.isLowerCase(cmd);
+            double ox = rel ? ex : 0, oy = rel ? ey : 0;
+            switch (Character.toUpperCase(cmd)) {
+                case 'Z':
+                    emitLetter('z', 'Z', new long[0], new long[0], false);
+                    cx = sx;
+                    cy = sy;
+                    ex = esx;
+                    ey = esy;
+                    break;
+                case 'M':
+                    {
+                        double[] p = t.points(1, ox, oy);
+                        long x = fixed(p[0]), y = fixed(p[1]);
+                        // A leading relative moveto is absolute; emit it that way.
+                        emitPoints('M', cx, cy, new long[] {x, y}, first);
+                        cx = sx = x;
+                        cy = sy = y;
+                        ex = esx = p[0];
+                        ey = esy = p[1];
+                        break;
+                    }
+                case 'L':
+                    {
+                        double[] p = t.points(1, ox, oy);
+                        long x = fixed(p[0]), y = fixed(p[1]);
+                        if (y == cy && x != cx) {
+                            emitLetter('h', 'H', new long[] {x - cx}, new long[] {x}, false);
+                        } else if (x == cx && y != cy) {
+                            emitLetter('v', 'V', new long[] {y - cy}, new long[] {y}, false);
+                        } else {
+                            emitPoints('L', cx, cy, new long[] {x, y}, false);
+                        }
+                        cx = x;
+                        cy = y;
+                        ex = p[0];
+                        ey = p[1];
+                        break;
+                    }
+                case 'H':
+                    {
+                        ex = ox + t.number();
+                        long x = fixed(ex);
+                        emitLetter('h', 'H', new long[] {x - cx}, new long[] {x}, false);
+                        cx = x;
+                        break;
+                    }
+                case 'V':
+                    {
+                        ey = oy + t.number();
+                        long y = fixed(ey);
+                        emitLetter('v', 'V', new long[] {y - cy}, new long[] {y}, false);
+                        cy = y;
+                        break;
+                    }
+                case 'C':
+                case 'S':
+                case 'Q':
+                case 'T':
+                    {
+                        char upper = Character.toUpperCase(cmd);
+                        int count = upper == 'C' ? 3 : upper == 'T' ? 1 : 2;
+                        double[] p = t.points(count, ox, oy);
+                        long[] fp = new long[p.length];
+                        for (int i = 0; i < p.length; i++) fp[i] = fixed(p[i]);
+                        emitPoints(upper, cx, cy, fp, false);
+                        cx = fp[fp.length - 2];
+                        cy = fp[fp.length - 1];
+                        ex = p[p.length - 2];
+                        ey = p[p.length - 1];
+                        break;
+                    }
+                case 'A':
+                    {
+                        long rx = fixed(t.number()), ry = fixed(t.number());
+                        long rotation = fixed(t.number());
+                        long large = t.flag(), sweep = t.flag();
+                        double[] p = t.points(1, ox, oy);
+                        long x = fixed(p[0]), y = fixed(p[1]);
+                        long[] prefix = {rx, ry, rotation};
+                        long[] flags = {large, sweep};
+                        String abs = arcArgs(prefix, flags, x, y);
+                        String relArgs = arcArgs(prefix, flags, x - cx, y - cy);
+                        boolean useRel = cost('a', relArgs) <= cost('A', abs);
+                        appendRaw(useRel ? 'a' : 'A', useRel ? relArgs : abs);
+                        cx = x;
+                        cy = y;
+                        ex = p[0];
+                        ey = p[1];
+                        break;
+                    }
+                default:
+                    throw new IllegalArgumentException("Unknown command " + cmd);
+            }
+            first = false;
+        }
+        return out.toString();
+    }
+
+    // -------------------------------------------------------------------------------------------
+    // Emission
+    // -------------------------------------------------------------------------------------------
+
+    private void emitPoints(char upper, long cx, long cy, long[] abs, boolean forceAbsolute) {
+        long[] rel = new long[abs.length];
+        for (int i = 0; i < abs.length; i += 2) {
+            rel[i] = abs[i] - cx;
+            rel[i + 1] = abs[i + 1] - cy;
+        }
+        emitLetter(Character.toLowerCase(upper), upper, rel, abs, forceAbsolute);
+    }
+
+    private void emitLetter(char lower, char upper, long[] rel, long[] abs, boolean forceAbs) {
+        String absArgs = numbers(abs);
+        String relArgs = numbers(rel);
+        boolean useRel = !forceAbs && cost(lower, relArgs) <= cost(upper, absArgs);
+        appendRaw(useRel ? lower : upper, useRel ? relArgs : absArgs);
+    }
+
+    /** Characters needed to emit {@code letter} + args given what was emitted last. */
+    private int cost(char letter, String args) {
+        int c = args.length();
+        if (!canOmitLetter(letter)) {
+            c += 1;
+        } else if (!args.isEmpty() && needsSeparator(args)) {
+            c += 1;
+        }
+        return c;
+    }
+
+    private boolean canOmitLetter(char letter) {
+        if (letter == 'z' || letter == 'Z') return false;
+        if (letter == lastLetter && letter != 'M' && letter != 'm') return true;
+        return (lastLetter == 'M' && letter == 'L') || (lastLetter == 'm' && letter == 'l');
+    }
+
+    private void appendRaw(char letter, String args) {
+        if (canOmitLetter(letter)) {
+            if (!args.isEmpty() && needsSeparator(args)) out.append(' ');
+        } else {
+            out.append(letter);
+            lastWasNumber = false;
+            lastHadDot = false;
+        }
+        out.append(args);
+        if (!args.isEmpty()) {
+            lastWasNumber = true;
+            int lastSep = Math.max(args.lastIndexOf(' '), args.lastIndexOf('-'));
+            lastHadDot = args.indexOf('.', lastSep + 1) >= 0;
+        }
+        // After moveto, implicit repeats mean lineto; track the letter that repeats.
+        lastLetter = letter == 'Z' || letter == 'z' ? 0 : letter;
+    }
+
+    private boolean needsSeparator(String next) {
+        if (!lastWasNumber) return false;
+        char c = next.charAt(0);
+        if (c == '-') return false;
+        return !(c == '.' && lastHadDot);
+    }
+
+    private String numbers(long[] values) {
+        StringBuilder sb = new StringBuilder();
+        boolean prevDot = false;
+        for (int i = 0; i < values.length; i++) {
+            String n = format(values[i]);
+            if (i > 0) {
+                char c = n.charAt(0);
+                if (!(c == '-' || (c == '.' && prevDot))) sb.append(' ');
+            }
+            sb.append(n);
+            prevDot = n.indexOf('.') >= 0;
+        }
+        return sb.toString();
+    }
+
+    private String arcArgs(long[] prefix, long[] flags, long x, long y) {
+        // Flags must stay space-delimited for the platform parser.
+        return numbers(prefix)
+                + ' '
+                + flags[0]
+                + ' '
+                + flags[1]
+                + ' '
+                + numbers(new long[] {x, y});
+    }
+
+    private long fixed(double value) {
+        return Math.round(value * scale);
+    }
+
+    private String format(long v) {
+        StringBuilder sb = new StringBuilder();
+        if (v < 0) {
+            sb.append('-');
+            v = -v;
+        }
+        long whole = v / scale;
+        long frac = v % scale;
+        if (whole != 0 || frac == 0) sb.append(whole);
+        if (frac != 0) {
+            String f = Long.toString(frac + scale).substring(1); // zero-padded
+            int end = f.length();
+            while (f.charAt(end - 1) == '0') end--;
+            sb.append('.').append(f, 0, end);
+        }
+        return sb.toString();
+    }
+
+    // -------------------------------------------------------------------------------------------
+    // Parsing
+    // -------------------------------------------------------------------------------------------
+
+    private final class Tokenizer {
+        private final String s;
+        private int i;
+
+        Tokenizer(String s) {
+            this.s = s;
+        }
+
+        boolean skipSeparators() {
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (c == ' ' || c == ',' || c == '\n' || c == '\t' || c == '\r') i++;
+                else return true;
+            }
+            return false;
+        }
+
+        boolean atCommand() {
+            char c = s.charAt(i);
+            return Character.isLetter(c) && c != 'e' && c != 'E';
+        }
+
+        char command() {
+            char c = s.charAt(i++);
+            if ("MmLlHhVvCcSsQqTtAaZz".indexOf(c) < 0) {
+                throw new IllegalArgumentException("Unknown command " + c);
+            }
+            return c;
+        }
+
+        long flag() {
+            skipSeparators();
+            if (i >= s.length()) throw new IllegalArgumentException("Missing arc flag");
+            char c = s.charAt(i++);
+            if (c != '0' && c != '1') throw new IllegalArgumentException("Bad arc flag " + c);
+            return c - '0';
+        }
+
+        /** Reads {@code count} x,y pairs, offset by ({@code ox}, {@code oy}), unrounded. */
+        double[] points(int count, double ox, double oy) {
+            double[] p = new double[2 * count];
+            for (int k = 0; k < p.length; k += 2) {
+                p[k] = ox + number();
+                p[k + 1] = oy + number();
+            }
+            return p;
+        }
+
+        /** Reads one number exactly as written; callers round absolute values only. */
+        double number() {
+            skipSeparators();
+            int start = i;
+            if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) i++;
+            boolean dot = false, digits = false;
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits = true;
+                    i++;
+                } else if (c == '.' && !dot) {
+                    dot = true;
+                    i++;
+                } else if ((c == 'e' || c == 'E') && digits) {
+                    i++;
+                    if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) i++;
+                    while (i < s.length() && Character.isDigit(s.charAt(i))) i++;
+                    break;
+                } else {
+                    break;
+                }
+            }
+            if (!digits) throw new IllegalArgumentException("Expected number at " + start);
+            return Double.parseDouble(s.substring(start, i));
+        }
+    }
+}
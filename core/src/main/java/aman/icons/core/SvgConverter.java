@@ -0,0 +1,650 @@
+package aman.icons.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+/**
+ * Streaming SVG to VectorDrawable converter. The SVG is read with a pull parser and the drawable
+ * is written to the output as elements are encountered, so no DOM or intermediate string is built.
+ *
+ * <p>Handles every {@code path}, {@code rect}, {@code circle}, {@code ellipse}, {@code line},
+ * {@code polyline} and {@code polygon}, nested {@code g} groups, {@code transform} lists
+ * (translate, scale, rotate, skewX, skewY, matrix), {@code fill-rule}, fill/stroke opacity and
+ * stroke attributes, including those given through {@code style}. A non-zero viewBox origin
+ * becomes a translating root group. A nested {@code svg} becomes a group mapping its viewBox onto
+ * its x/y/width/height viewport per {@code preserveAspectRatio}; that viewport is not clipped.
+ * Non-rendering content ({@code defs}, {@code clipPath}, {@code mask}, {@code title}, ...) is
+ * skipped. Colors are emitted as white since the drawable is tinted.
+ */
+public final class SvgConverter {
+
+    private static final String ANDROID_NS = "http://schemas.android.com/apk/res/android";
+    private static final String COLOR = "@android:color/white";
+
+    private static final String[] INHERITED = {
+        "fill", "fill-rule", "fill-opacity", "stroke", "stroke-width", "stroke-opacity",
+        "stroke-linecap", "stroke-linejoin", "stroke-miterlimit", "opacity"
+    };
+
+    /**
+     * Per-conversion options. With {@code optimizePaths} set, path data goes through
+     * {@link PathDataOptimizer} and the path bytes before and after are added to the counters.
+     */
+    public static final class Options {
+        public final boolean optimizePaths;
+        private long pathBytesIn;
+        private long pathBytesOut;
+
+        public Options(boolean optimizePaths) {
+            this.optimizePaths = optimizePaths;
+        }
+
+        public long pathBytesIn() {
+            return pathBytesIn;
+        }
+
+        public long pathBytesOut() {
+            return pathBytesOut;
+        }
+
+        public long pathBytesSaved() {
+            return pathBytesIn - pathBytesOut;
+        }
+    }
+
+    private SvgConverter() {}
+
+    /** Drawable resource name for an icon, shared by the XML and PNG exports. */
+    public static String resourceName(String iconName) {
+        return "ic_" + iconName;
+    }
+
+    public static String fileName(String iconName) {
+        return resourceName(iconName) + ".xml";
+    }
+
+    /**
+     * Convenience wrapper for callers that need the drawable as a string (clipboard). Parse
+     * failures surface as IOException; a partially written drawable is never returned.
+     */
+    public static String toVectorDrawable(String svgContent) throws IOException {
+        return toVectorDrawable(svgContent, null);
+    }
+
+    public static String toVectorDrawable(String svgContent, Options options) throws IOException {
+        StringWriter out = new StringWriter(svgContent.length() + 512);
+        try {
+            convert(new StringReader(svgContent), out, options);
+        } catch (XmlPullParserException e) {
+            throw new IOException(e);
+        }
+        return out.toString();
+    }
+
+    /** Converts into a byte array for batch writers; parse failures surface as IOException. */
+    public static byte[] toVectorDrawableBytes(String svgContent) throws IOException {
+        return toVectorDrawableBytes(svgContent, null);
+    }
+
+    public static byte[] toVectorDrawableBytes(String svgContent, Options options) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(svgContent.length() + 512);
+        try {
+            convert(new StringReader(svgContent), out, options);
+        } catch (XmlPullParserException e) {
+            throw new IOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void convert(Reader in, OutputStream out, Options options)
+            throws IOException, XmlPullParserException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        convert(in, writer, options);
+        writer.flush();
+    }
+
+    public static void convert(Reader in, Writer out, Options options)
+            throws IOException, XmlPullParserException {
+        XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+        factory.setNamespaceAware(false);
+        XmlPullParser parser = factory.newPullParser();
+        parser.setInput(in);
+        new Converter(parser, out, options).run();
+    }
+
+    private static final class Converter {
+        private final XmlPullParser parser;
+        private final Writer out;
+        private final Options options;
+        private final ArrayDeque<Map<String, String>> styles = new ArrayDeque<>();
+        // Number of </group> tags each open SVG element must close when it ends.
+        private final ArrayDeque<Integer> openGroups = new ArrayDeque<>();
+        // Viewport size percentages resolve against, one per open svg element.
+        private final ArrayDeque<float[]> viewports = new ArrayDeque<>();
+        private int depth = 1;
+        private boolean rootSeen;
+        private PathDataOptimizer optimizer;
+
+        Converter(XmlPullParser parser, Writer out, Options options) {
+            this.parser = parser;
+            this.out = out;
+            this.options = options;
+        }
+
+        void run() throws IOException, XmlPullParserException {
+            for (int event = parser.getEventType();
+                    event != XmlPullParser.END_DOCUMENT;
+                    event = parser.next()) {
+                if (event == XmlPullParser.START_TAG) {
+                    startElement(parser.getName());
+                } else if (event == XmlPullParser.END_TAG) {
+                    endElement(parser.getName());
+                }
+            }
+            if (!rootSeen) throw new XmlPullParserException("No <svg> root element");
+            if (optimizer != null) {
+                options.pathBytesIn += optimizer.bytesIn();
+                options.pathBytesOut += optimizer.bytesOut();
+            }
+        }
+
+        private void startElement(String name) throws IOException, XmlPullParserException {
+            if (!rootSeen) {
+                if (!"svg".equals(name)) throw new XmlPullParserException("Not an SVG: " + name);
+                rootSeen = true;
+                Map<String, String> attrs = attributes();
+                styles.push(inherit(new HashMap<>(), attrs));
+                openGroups.push(writeRoot(attrs));
+                return;
+            }
+            switch (name) {
+                case "svg":
+                    {
+                        Map<String, String> attrs = attributes();
+                        styles.push(inherit(styles.peek(), attrs));
+                        int groups = writeTransformGroups(attrs.get("transform"));
+                        openGroups.push(groups + writeViewport(attrs));
+                        return;
+                    }
+                case "g":
+                case "a":
+                    {
+                        Map<String, String> attrs = attributes();
+                        styles.push(inherit(styles.peek(), attrs));
+                        openGroups.push(writeTransformGroups(attrs.get("transform")));
+                        return;
+                    }
+                case "path":
+                case "rect":
+                case "circle":
+                case "ellipse":
+                case "line":
+                case "polyline":
+                case "polygon":
+                    {
+                        Map<String, String> attrs = attributes();
+                        Map<String, String> style = inherit(styles.peek(), attrs);
+                        if ("line".equals(name)) style.put("fill", "none"); // encloses no area
+                        String pathData = pathData(name, attrs);
+                        if (pathData != null && !pathData.isEmpty()) {
+                            int groups = writeTransformGroups(attrs.get("transform"));
+                            writePath(pathData, style);
+                            closeGroups(groups);
+                        }
+                        skipSubtree();
+                        return;
+                    }
+                default:
+                    skipSubtree();
+            }
+        }
+
+        private void endElement(String name) throws IOException {
+            if (openGroups.isEmpty()) return;
+            if ("svg".equals(name)) viewports.pop();
+            styles.pop();
+            int groups = openGroups.pop();
+            closeGroups(groups);
+            if (openGroups.isEmpty()) {
+                out.write("</vector>");
+            }
+        }
+
+        private int writeRoot(Map<String, String> attrs) throws IOException {
+            float[] viewBox = numbers(attrs.get("viewBox"));
+            float vbX = 0, vbY = 0, vbW, vbH;
+            if (viewBox.length == 4) {
+                vbX = viewBox[0];
+                vbY = viewBox[1];
+                vbW = viewBox[2];
+                vbH = viewBox[3];
+            } else {
+                vbW = length(attrs.get("width"), 24);
+                vbH = length(attrs.get("height"), 24);
+            }
+            if (vbW <= 0 || vbH <= 0) throw new IOException("Empty viewBox");
+            viewports.push(new float[] {vbW, vbH});
+            float width = 24;
+            float height = width * vbH / vbW;
+            if (options != null && options.optimizePaths) {
+                optimizer = PathDataOptimizer.forViewport(Math.max(vbW, vbH));
+            }
+
+            out.write("<vector xmlns:android=\"" + ANDROID_NS + "\"\n");
+            out.write("    android:width=\"" + format(width) + "dp\"\n");
+            out.write("    android:height=\"" + format(height) + "dp\"\n");
+            out.write("    android:viewportWidth=\"" + format(vbW) + "\"\n");
+            out.write("    android:viewportHeight=\"" + format(vbH) + "\"\n");
+            out.write("    android:tint=\"#FFFFFF\">\n");
+
+            int groups = 0;
+            if (vbX != 0 || vbY != 0) {
+                indent();
+                out.write("<group");
+                if (vbX != 0) out.write(" android:translateX=\"" + format(-vbX) + "\"");
+                if (vbY != 0) out.write(" android:translateY=\"" + format(-vbY) + "\"");
+                out.write(">\n");
+                depth++;
+                groups++;
+            }
+            return groups + writeTransformGroups(attrs.get("transform"));
+        }
+
+        private void writePath(String pathData, Map<String, String> style) throws IOException {
+            String fill = style.containsKey("fill") ? style.get("fill") : "black";
+            String stroke = style.containsKey("stroke") ? style.get("stroke") : "none";
+            boolean hasFill = !"none".equals(fill);
+            boolean hasStroke = !"none".equals(stroke);
+            if (!hasFill && !hasStroke) return;
+            float opacity = number(style.get("opacity"), 1f);
+            if (optimizer != null) pathData = optimizer.optimize(pathData);
+
+            indent();
+            out.write("<path\n");
+            String pad = pad();
+            if (hasFill) {
+                out.write(pad + "android:fillColor=\"" + COLOR + "\"\n");
+                float alpha = opacity * number(style.get("fill-opacity"), 1f);
+                if (alpha < 1f) out.write(pad + "android:fillAlpha=\"" + format(alpha) + "\"\n");
+                if ("evenodd".equals(style.get("fill-rule"))) {
+                    out.write(pad + "android:fillType=\"evenOdd\"\n");
+                }
+            }
+            if (hasStroke) {
+                out.write(pad + "android:strokeColor=\"" + COLOR + "\"\n");
+                out.write(
+                        pad
+                                + "android:strokeWidth=\""
+                                + format(number(style.get("stroke-width"), 1f))
+                                + "\"\n");
+                float alpha = opacity * number(style.get("stroke-opacity"), 1f);
+                if (alpha < 1f) {
+                    out.write(pad + "android:strokeAlpha=\"" + format(alpha) + "\"\n");
+                }
+                String cap = style.get("stroke-linecap");
+                if (cap != null && !"butt".equals(cap)) {
+                    out.write(pad + "android:strokeLineCap=\"" + cap + "\"\n");
+                }
+                String join = style.get("stroke-linejoin");
+                if (join != null && !"miter".equals(join)) {
+                    out.write(pad + "android:strokeLineJoin=\"" + join + "\"\n");
+                }
+                String miter = style.get("stroke-miterlimit");
+                if (miter != null) {
+                    out.write(pad + "android:strokeMiterLimit=\"" + miter + "\"\n");
+                }
+            }
+            out.write(pad + "android:pathData=\"" + escape(pathData) + "\"/>\n");
+        }
+
+        /** Writes one nested group per transform function; returns how many were opened. */
+        private int writeTransformGroups(String transform) throws IOException {
+            if (transform == null) return 0;
+            int groups = 0;
+            int i = 0;
+            while (i < transform.length()) {
+                int open = transform.indexOf('(', i);
+                int close = transform.indexOf(')', open + 1);
+                if (open < 0 || close < 0) break;
+                String fn = transform.substring(i, open).replace(',', ' ').trim();
+                float[] a = numbers(transform.substring(open + 1, close));
+                switch (fn) {
+                    case "matrix":
+                        if (a.length >= 6) groups += writeMatrixGroups(a);
+                        break;
+                    case "skewX":
+                        if (a.length >= 1) {
+                            float t = (float) Math.tan(Math.toRadians(a[0]));
+                            groups += writeMatrixGroups(new float[] {1, 0, t, 1, 0, 0});
+                        }
+                        break;
+                    case "skewY":
+                        if (a.length >= 1) {
+                            float t = (float) Math.tan(Math.toRadians(a[0]));
+                            groups += writeMatrixGroups(new float[] {1, t, 0, 1, 0, 0});
+                        }
+                        break;
+                    default:
+                        groups += writeGroup(groupAttributes(fn, a));
+                }
+                i = close + 1;
+            }
+            return groups;
+        }
+
+        /**
+         * A group scales, then rotates, then translates, so a matrix without skew fits in one
+         * group. A skewed one is split by SVD into rotate * scale * rotate: the outer group takes
+         * the translation, first rotation and scale, the inner group the second rotation.
+         */
+        private int writeMatrixGroups(float[] m) throws IOException {
+            float a = m[0], b = m[1], c = m[2], d = m[3];
+            float sx = (float) Math.hypot(a, b);
+            if (sx != 0 && Math.abs(a * c + b * d) <= 1e-6f * sx * sx) {
+                float sy = (a * d - b * c) / sx;
+                float rotation = (float) Math.toDegrees(Math.atan2(b, a));
+                return writeGroup(transformAttributes(m[4], m[5], rotation, sx, sy));
+            }
+            double e = (a + d) / 2.0, f = (a - d) / 2.0, g = (b + c) / 2.0, h = (b - c) / 2.0;
+            double q = Math.hypot(e, h), r = Math.hypot(f, g);
+            double a1 = Math.atan2(g, f), a2 = Math.atan2(h, e);
+            float outer = (float) Math.toDegrees((a2 + a1) / 2);
+            float inner = (float) Math.toDegrees((a2 - a1) / 2);
+            float scaleX = (float) (q + r), scaleY = (float) (q - r);
+            int groups = writeGroup(transformAttributes(m[4], m[5], outer, scaleX, scaleY));
+            return groups + writeGroup(transformAttributes(0, 0, inner, 1, 1));
+        }
+
+        /**
+         * Maps a nested svg's viewBox onto its viewport with a translate and scale group, aligned
+         * and fitted per {@code preserveAspectRatio}. Percentages resolve against the enclosing
+         * viewport.
+         */
+        private int writeViewport(Map<String, String> attrs) throws IOException {
+            float[] parent = viewports.peek();
+            float x = length(attrs.get("x"), parent[0], 0);
+            float y = length(attrs.get("y"), parent[1], 0);
+            float w = length(attrs.get("width"), parent[0], parent[0]);
+            float h = length(attrs.get("height"), parent[1], parent[1]);
+            float[] viewBox = numbers(attrs.get("viewBox"));
+            if (viewBox.length != 4 || viewBox[2] <= 0 || viewBox[3] <= 0) {
+                viewports.push(new float[] {w, h});
+                return writeGroup(transformAttributes(x, y, 0, 1, 1));
+            }
+            viewports.push(new float[] {viewBox[2], viewBox[3]});
+            float sx = w / viewBox[2], sy = h / viewBox[3];
+            String ratio = attrs.get("preserveAspectRatio");
+            String[] parts = ratio == null ? new String[0] : ratio.trim().split("\\s+");
+            String align = parts.length > 0 ? parts[0] : "xMidYMid";
+            if (!"none".equals(align)) {
+                boolean slice = parts.length > 1 && "slice".equals(parts[1]);
+                float s = slice ? Math.max(sx, sy) : Math.min(sx, sy);
+                boolean xMin = align.startsWith("xMin"), xMax = align.startsWith("xMax");
+                boolean yMin = align.endsWith("YMin"), yMax = align.endsWith("YMax");
+                x += (w - viewBox[2] * s) * alignment(xMin, xMax);
+                y += (h - viewBox[3] * s) * alignment(yMin, yMax);
+                sx = sy = s;
+            }
+            return writeGroup(
+                    transformAttributes(x - viewBox[0] * sx, y - viewBox[1] * sy, 0, sx, sy));
+        }
+
+        private int writeGroup(String attrs) throws IOException {
+            if (attrs == null) return 0;
+            indent();
+            out.write("<group" + attrs + ">\n");
+            depth++;
+            return 1;
+        }
+
+        private void closeGroups(int groups) throws IOException {
+            for (int g = 0; g < groups; g++) {
+                depth--;
+                indent();
+                out.write("</group>\n");
+            }
+        }
+
+        private void skipSubtree() throws IOException, XmlPullParserException {
+            int level = 1;
+            while (level > 0) {
+                int event = parser.next();
+                if (event == XmlPullParser.START_TAG) level++;
+                else if (event == XmlPullParser.END_TAG) level--;
+                else if (event == XmlPullParser.END_DOCUMENT) return;
+            }
+        }
+
+        private Map<String, String> attributes() {
+            Map<String, String> attrs = new HashMap<>();
+            for (int i = 0; i < parser.getAttributeCount(); i++) {
+                attrs.put(parser.getAttributeName(i), parser.getAttributeValue(i));
+            }
+            String style = attrs.get("style");
+            if (style != null) {
+                for (String decl : style.split(";")) {
+                    int colon = decl.indexOf(':');
+                    if (colon > 0) {
+                        attrs.put(decl.substring(0, colon).trim(), decl.substring(colon + 1).trim());
+                    }
+                }
+            }
+            return attrs;
+        }
+
+        private void indent() throws IOException {
+            for (int i = 0; i < depth; i++) out.write("    ");
+        }
+
+        private String pad() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i <= depth; i++) sb.append("    ");
+            return sb.toString();
+        }
+    }
+
+    private static Map<String, String> inherit(
+            Map<String, String> parent, Map<String, String> attrs) {
+        Map<String, String> style = new HashMap<>(parent);
+        style.remove("opacity"); // group opacity is not inherited by value
+        for (String key : INHERITED) {
+            String value = attrs.get(key);
+            if (value != null && !"inherit".equals(value)) style.put(key, value);
+        }
+        if (parent.containsKey("opacity") || attrs.containsKey("opacity")) {
+            float combined =
+                    number(parent.get("opacity"), 1f) * number(attrs.get("opacity"), 1f);
+            style.put("opacity", Float.toString(combined));
+        }
+        return style;
+    }
+
+    private static String groupAttributes(String fn, float[] a) {
+        switch (fn) {
+            case "translate":
+                if (a.length < 1) return null;
+                return " android:translateX=\""
+                        + format(a[0])
+                        + "\" android:translateY=\""
+                        + format(a.length > 1 ? a[1] : 0)
+                        + "\"";
+            case "scale":
+                if (a.length < 1) return null;
+                return " android:scaleX=\""
+                        + format(a[0])
+                        + "\" android:scaleY=\""
+                        + format(a.length > 1 ? a[1] : a[0])
+                        + "\"";
+            case "rotate":
+                if (a.length < 1) return null;
+                if (a.length >= 3) {
+                    return " android:rotation=\""
+                            + format(a[0])
+                            + "\" android:pivotX=\""
+                            + format(a[1])
+                            + "\" android:pivotY=\""
+                            + format(a[2])
+                            + "\"";
+                }
+                return " android:rotation=\"" + format(a[0]) + "\"";
+            default:
+                return null;
+        }
+    }
+
+    /** Group attributes for translate * rotate * scale, leaving out identity parts. */
+    private static String transformAttributes(
+            float tx, float ty, float rotation, float sx, float sy) {
+        StringBuilder sb = new StringBuilder();
+        if (tx != 0) sb.append(" android:translateX=\"").append(format(tx)).append('"');
+        if (ty != 0) sb.append(" android:translateY=\"").append(format(ty)).append('"');
+        if (rotation != 0) sb.append(" android:rotation=\"").append(format(rotation)).append('"');
+        if (sx != 1) sb.append(" android:scaleX=\"").append(format(sx)).append('"');
+        if (sy != 1) sb.append(" android:scaleY=\"").append(format(sy)).append('"');
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /** Fraction of the spare viewport space placed before the content for one axis. */
+    private static float alignment(boolean min, boolean max) {
+        return min ? 0f : max ? 1f : 0.5f;
+    }
+
+    private static String pathData(String element, Map<String, String> a) {
+        switch (element) {
+            case "path":
+                return a.get("d");
+            case "rect":
+                {
+                    float x = number(a.get("x"), 0), y = number(a.get("y"), 0);
+                    float w = number(a.get("width"), 0), h = number(a.get("height"), 0);
+                    if (w <= 0 || h <= 0) return null;
+                    float rx = number(a.get("rx"), -1), ry = number(a.get("ry"), -1);
+                    if (rx < 0) rx = ry;
+                    if (ry < 0) ry = rx;
+                    rx = Math.min(Math.max(rx, 0), w / 2);
+                    ry = Math.min(Math.max(ry, 0), h / 2);
+                    if (rx == 0 || ry == 0) {
+                        return "M" + format(x) + "," + format(y) + "h" + format(w) + "v"
+                                + format(h) + "h" + format(-w) + "z";
+                    }
+                    String arc = "a" + format(rx) + "," + format(ry) + " 0 0 1 ";
+                    return "M" + format(x + rx) + "," + format(y)
+                            + "h" + format(w - 2 * rx)
+                            + arc + format(rx) + "," + format(ry)
+                            + "v" + format(h - 2 * ry)
+                            + arc + format(-rx) + "," + format(ry)
+                            + "h" + format(-(w - 2 * rx))
+                            + arc + format(-rx) + "," + format(-ry)
+                            + "v" + format(-(h - 2 * ry))
+                            + arc + format(rx) + "," + format(-ry)
+                            + "z";
+                }
+            case "circle":
+                {
+                    float r = number(a.get("r"), 0);
+                    return ellipse(number(a.get("cx"), 0), number(a.get("cy"), 0), r, r);
+                }
+            case "ellipse":
+                return ellipse(
+                        number(a.get("cx"), 0),
+                        number(a.get("cy"), 0),
+                        number(a.get("rx"), 0),
+                        number(a.get("ry"), 0));
+            case "line":
+                return "M" + format(number(a.get("x1"), 0)) + "," + format(number(a.get("y1"), 0))
+                        + "L" + format(number(a.get("x2"), 0)) + ","
+                        + format(number(a.get("y2"), 0));
+            case "polyline":
+            case "polygon":
+                {
+                    float[] p = numbers(a.get("points"));
+                    if (p.length < 4) return null;
+                    StringBuilder sb = new StringBuilder("M");
+                    for (int i = 0; i + 1 < p.length; i += 2) {
+                        if (i == 2) sb.append('L');
+                        else if (i > 2) sb.append(' ');
+                        sb.append(format(p[i])).append(',').append(format(p[i + 1]));
+                    }
+                    if ("polygon".equals(element)) sb.append('z');
+                    return sb.toString();
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static String ellipse(float cx, float cy, float rx, float ry) {
+        if (rx <= 0 || ry <= 0) return null;
+        String arc = "a" + format(rx) + "," + format(ry) + " 0 1 0 ";
+        return "M" + format(cx - rx) + "," + format(cy)
+                + arc + format(2 * rx) + ",0"
+                + arc + format(-2 * rx) + ",0z";
+    }
+
+    private static float[] numbers(String s) {
+        if (s == null) return new float[0];
+        List<Float> values = new ArrayList<>();
+        for (String token : s.trim().split("[\\s,]+")) {
+            if (token.isEmpty()) continue;
+            try {
+                values.add(Float.parseFloat(token));
+            } catch (NumberFormatException e) {
+                // ignore garbage tokens
+            }
+        }
+        float[] result = new float[values.size()];
+        for (int i = 0; i < result.length; i++) result[i] = values.get(i);
+        return result;
+    }
+
+    private static float number(String s, float fallback) {
+        if (s == null) return fallback;
+        try {
+            return Float.parseFloat(s.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static float length(String s, float fallback) {
+        if (s == null) return fallback;
+        return number(s.replaceAll("[a-z%]+$", ""), fallback);
+    }
+
+    private static float length(String s, float reference, float fallback) {
+        if (s != null && s.trim().endsWith("%")) {
+            return number(s.trim().replace("%", ""), 100f) * reference / 100f;
+        }
+        return length(s, fallback);
+    }
+
+    static String format(float v) {
+        if (v == (long) v) return Long.toString((long) v);
+        String s = String.format(Locale.US, "%.4f", v);
+        int end = s.length();
+        while (s.charAt(end - 1) == '0') end--;
+        if (s.charAt(end - 1) == '.') end--;
+        return s.substring(0, end);
+    }
+
+    private static String escape(String s) {
+        if (s.indexOf('&') < 0 && s.indexOf('<') < 0 && s.indexOf('"') < 0) return s;
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,215 @@
+package aman.icons.core;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a set of icons into one ZIP. Each icon is turned into one or more entries by an
+ * {@link Encoder}; the default produces {@code res/drawable/ic_*.xml} VectorDrawables, with path
+ * data optionally shrunk by {@link PathDataOptimizer}. Fetching and encoding run in parallel ahead
+ * of a single sequential {@link ZipOutputStream} writer, through a fixed window of pending
+ * results, so memory is bounded by the window rather than the set size and entries come out in
+ * input order.
+ */
+public class ZipExporter {
+
+    public interface SvgSource {
+        String load(String iconName) throws IOException;
+    }
+
+    public interface ProgressListener {
+        void onProgress(int done, int failed, int total);
+    }
+
+    /** Produces the ZIP entries for one icon. Called concurrently from the worker pool. */
+    public interface Encoder {
+        List<Entry> encode(String iconName, String svg) throws IOException;
+    }
+
+    public static final class Entry {
+        public final String path;
+        public final byte[] data;
+        public final long pathBytesSaved;
+
+        public Entry(String path, byte[] data) {
+            this(path, data, 0);
+        }
+
+        public Entry(String path, byte[] data, long pathBytesSaved) {
+            this.path = path;
+            this.data = data;
+            this.pathBytesSaved = pathBytesSaved;
+        }
+    }
+
+    public static final class Result {
+        public final int written;
+        public final int failed;
+        public final long bytesIn;
+        public final long bytesOut;
+        public final long pathBytesSaved;
+        public final long elapsedNanos;
+
+        Result(
+                int written,
+                int failed,
+                long bytesIn,
+                long bytesOut,
+                long pathBytesSaved,
+                long elapsedNanos) {
+            this.written = written;
+            this.failed = failed;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.pathBytesSaved = pathBytesSaved;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double iconsPerSecond() {
+            return written * 1e9 / Math.max(1, elapsedNanos);
+        }
+    }
+
+    public static final String ENTRY_DIR = "res/drawable/";
+
+    private final SvgSource source;
+    private final int parallelism;
+    private final int window;
+    private final Encoder encoder;
+    private volatile boolean cancelled;
+
+    public ZipExporter(SvgSource source, int parallelism, Encoder encoder) {
+        this.source = source;
+        this.encoder = encoder;
+        this.parallelism = Math.max(1, parallelism);
+        this.window = this.parallelism * 4;
+    }
+
+    public static Encoder vectorEncoder(boolean optimizePaths) {
+        return (name, svg) -> {
+            SvgConverter.Options options = new SvgConverter.Options(optimizePaths);
+            byte[] xml = SvgConverter.toVectorDrawableBytes(svg, options);
+            return Collections.singletonList(
+                    new Entry(
+                            ENTRY_DIR + SvgConverter.fileName(name),
+                            xml,
+                            options.pathBytesSaved()));
+        };
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** Blocks until every icon is written or failed. The stream is finished but not closed. */
+    public Result export(List<String> iconNames, OutputStream out, ProgressListener listener)
+            throws IOException {
+        long start = System.nanoTime();
+        int total = iconNames.size();
+        int written = 0;
+        int failed = 0;
+        long bytesIn = 0;
+        long pathBytesSaved = 0;
+        CountingOutputStream counter = new CountingOutputStream(out);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<Future<Converted>> pending = new ArrayDeque<>(window);
+        Iterator<String> names = iconNames.iterator();
+        try {
+            ZipOutputStream zip =
+                    new ZipOutputStream(new BufferedOutputStream(counter, 64 * 1024));
+            while (!cancelled && (names.hasNext() || !pending.isEmpty())) {
+                while (pending.size() < window && names.hasNext()) {
+                    String name = names.next();
+                    pending.add(pool.submit(() -> convert(name)));
+                }
+                Converted c;
+                try {
+                    c = pending.poll().get();
+                } catch (ExecutionException e) {
+                    c = null;
+                }
+                if (c == null) {
+                    failed++;
+                } else {
+                    for (Entry entry : c.entries) {
+                        zip.putNextEntry(new ZipEntry(entry.path));
+                        zip.write(entry.data);
+                        zip.closeEntry();
+                        pathBytesSaved += entry.pathBytesSaved;
+                    }
+                    bytesIn += c.svgBytes;
+                    written++;
+                }
+                if (listener != null) listener.onProgress(written, failed, total);
+            }
+            zip.finish();
+            zip.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(
+                written, failed, bytesIn, counter.count, pathBytesSaved, System.nanoTime() - start);
+    }
+
+    private Converted convert(String name) {
+        try {
+            String svg = source.load(name);
+            if (svg == null) return null;
+            List<Entry> entries = encoder.encode(name, svg);
+            if (entries.isEmpty()) return null;
+            return new Converted(entries, svg.length());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class Converted {
+        final List<Entry> entries;
+        final int svgBytes;
+
+        Converted(List<Entry> entries, int svgBytes) {
+            this.entries = entries;
+            this.svgBytes = svgBytes;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package aman.icons.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Point2D;
+import org.junit.Test;
+
+/**
+ * Rasterizes original and optimized path data with the same reference renderer and checks that
+ * the two masks stay within a pixel-diff budget, so rounding never visibly moves geometry.
+ */
+public class PathDataOptimizerTest {
+
+    private static final int RASTER = 96;
+    private static final double MAX_DIFF = 0.002;
+
+    // Material Symbols outlines in the 0 -960 960 960 viewBox
+    private static final String HOME =
+            "M240-200h120v-240h240v240h120v-360L480-740 240-560v360Zm-80 80v-480l320-240 320"
+                    + " 240v480H520v-240h-80v240H160Zm320-350Z";
+    private static final String RADIO =
+            "M480-80q-83 0-156-31.5T197-197q-54-54-85.5-127T80-480q0-83 31.5-156T197-763q54-54"
+                    + " 127-85.5T480-880q83 0 156 31.5T763-763q54 54 85.5 127T880-480q0 83-31.5"
+                    + " 156T763-197q-54 54-127 85.5T480-80Zm0-80q134 0 227-93t93-227q0-134-93"
+                    + "-227t-227-93q-134 0-227 93t-93 227q0 134 93 227t227 93Zm0-320Z";
+    private static final String SETTINGS =
+            "m370-80-16-128q-13-5-24.5-12T307-235l-119 50L78-375l103-78q-1-7-1-13.5v-27q0-6.5"
+                    + " 1-13.5L78-585l110-190 119 50q11-8 23-15t24-12l16-128h220l16 128q13 5"
+                    + " 24.5 12t22.5 15l119-50 110 190-103 78q1 7 1 13.5v27q0 6.5-2 13.5l103 78"
+                    + "-110 190-118-50q-11 8-23 15t-24 12L590-80H370Zm70-80h79l14-106q31-8 57.5"
+                    + "-23.5T639-327l99 41 39-68-86-65q5-14 7-29.5t2-31.5q0-16-2-31.5t-7-29.5l86"
+                    + "-65-39-68-99 42q-22-23-48.5-38.5T533-694l-13-106h-79l-14 106q-31 8-57.5"
+                    + " 23.5T321-633l-99-41-39 68 86 64q-5 15-7 30t-2 32q0 16 2 31t7 30l-86 65 39"
+                    + " 68 99-42q22 23 48.5 38.5T427-266l13 106Zm42-180q58 0 99-41t41-99q0-58-41"
+                    + "-99t-99-41q-59 0-99.5 41T342-480q0 58 40.5 99t99.5 41Zm-2-140Z";
+
+    @Test
+    public void materialSymbolsRasterizeIdentically() {
+        for (String d : new String[] {HOME, RADIO, SETTINGS}) {
+            assertRastersMatch(d, PathDataOptimizer.forViewport(960), 0, -960, 960);
+        }
+    }
+
+    @Test
+    public void fractionalRelativeSegmentsRasterizeIdentically() {
+        // The same outline in a 24-unit viewport with arcs and smooth curves, all relative
+        String d =
+                "M12 2.25c-5.385 0-9.75 4.365-9.75 9.75s4.365 9.75 9.75 9.75 9.75-4.365"
+                        + " 9.75-9.75S17.385 2.25 12 2.25zm0 3.3a6.45 6.45 0 1 1 0 12.9"
+                        + " 6.45 6.45 0 0 1 0-12.9zm-.35 2.2l.7 0 .35 3.15 3.2.35v.7l-3.2.35"
+                        + "-.35 3.15h-.7l-.35-3.15-3.2-.35v-.7l3.2-.35z";
+        assertRastersMatch(d, PathDataOptimizer.forViewport(24), 0, 0, 24);
+    }
+
+    @Test
+    public void longRelativeSubpathDoesNotAccumulateRoundingError() {
+        StringBuilder d = new StringBuilder("M100 100");
+        for (int i = 0; i < 10; i++) d.append("l0.5 0.5");
+        for (int i = 0; i < 8; i++) d.append("l-0.5 0.5");
+        String original = d.toString();
+        String optimized = PathDataOptimizer.forViewport(960).optimize(original);
+
+        Point2D end = PathRasterizer.endPoint(optimized);
+        assertEquals(101, end.getX(), 0.5);
+        assertEquals(109, end.getY(), 0.5);
+        assertEquals(PathRasterizer.endPoint(original).getX(), end.getX(), 0.5);
+        assertEquals(PathRasterizer.endPoint(original).getY(), end.getY(), 0.5);
+
+        // Closed into a shape, the staircase must still cover the same pixels
+        String shape = original + "H90z";
+        assertRastersMatch(shape, PathDataOptimizer.forViewport(960), 80, 90, 40);
+    }
+
+    @Test
+    public void manyTinyRelativeStepsStayOnTheExactPath() {
+        // 300 steps of 0.3 units round to 0 each; summed they move 90 units
+        StringBuilder d = new StringBuilder("M10 10");
+        for (int i = 0; i < 300; i++) d.append("l.3 .1");
+        String optimized = PathDataOptimizer.forViewport(960).optimize(d.toString());
+
+        Point2D corner = PathRasterizer.endPoint(optimized);
+        assertEquals(100, corner.getX(), 0.5);
+        assertEquals(40, corner.getY(), 0.5);
+        assertRastersMatch(d + "v40H10z", PathDataOptimizer.forViewport(960), 0, 0, 240);
+    }
+
+    private static void assertRastersMatch(
+            String original, PathDataOptimizer optimizer, double minX, double minY, double size) {
+        String optimized = optimizer.optimize(original);
+        assertTrue(optimized.length() <= original.length());
+        boolean[] expected = PathRasterizer.rasterize(original, minX, minY, size, RASTER);
+        boolean[] actual = PathRasterizer.rasterize(optimized, minX, minY, size, RASTER);
+        double diff = PathRasterizer.difference(expected, actual);
+        assertTrue(
+                "pixel diff " + diff + " for " + optimized + " (from " + original + ")",
+                diff <= MAX_DIFF);
+    }
+}
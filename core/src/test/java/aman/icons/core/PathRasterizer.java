@@ -0,0 +1,248 @@
+package aman.icons.core;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Test-only reference renderer: parses SVG path data into a {@link Path2D} and fills it with
+ * Java2D, so optimized and original paths can be compared pixel by pixel without a device.
+ */
+final class PathRasterizer {
+
+    private PathRasterizer() {}
+
+    /** Fills {@code pathData} (viewBox {@code minX minY size size}) into a size x size mask. */
+    static boolean[] rasterize(String pathData, double minX, double minY, double viewport, int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setColor(Color.WHITE);
+        g.scale(size / viewport, size / viewport);
+        g.translate(-minX, -minY);
+        g.fill(parse(pathData));
+        g.dispose();
+        boolean[] mask = new boolean[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) mask[y * size + x] = (image.getRGB(x, y) & 0xFF) > 127;
+        }
+        return mask;
+    }
+
+    /** Fraction of pixels that differ between two masks of the same size. */
+    static double difference(boolean[] a, boolean[] b) {
+        int differ = 0;
+        for (int i = 0; i < a.length; i++) if (a[i] != b[i]) differ++;
+        return (double) differ / a.length;
+    }
+
+    /** The current point after the last segment of {@code pathData}. */
+    static Point2D endPoint(String pathData) {
+        return parse(pathData).getCurrentPoint();
+    }
+
+    static Path2D parse(String d) {
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO);
+        Scanner s = new Scanner(d);
+        double cx = 0, cy = 0, sx = 0, sy = 0;
+        // Reflection points for S and T
+        double qx = 0, qy = 0;
+        char cmd = 0, prev = 0;
+        while (s.more()) {
+            if (s.atCommand()) {
+                cmd = s.command();
+            } else if (cmd == 'M') {
+                cmd = 'L';
+            } else if (cmd == 'm') {
+                cmd = 'l';
+            }
+            boolean rel = Character.isLowerCase(cmd);
+            double ox = rel ? cx : 0, oy = rel ? cy : 0;
+            char upper = Character.toUpperCase(cmd);
+            switch (upper) {
+                case 'M':
+                    cx = sx = ox + s.number();
+                    cy = sy = oy + s.number();
+                    path.moveTo(cx, cy);
+                    break;
+                case 'L':
+                    cx = ox + s.number();
+                    cy = oy + s.number();
+                    path.lineTo(cx, cy);
+                    break;
+                case 'H':
+                    cx = ox + s.number();
+                    path.lineTo(cx, cy);
+                    break;
+                case 'V':
+                    cy = oy + s.number();
+                    path.lineTo(cx, cy);
+                    break;
+                case 'C':
+                    {
+                        double x1 = ox + s.number(), y1 = oy + s.number();
+                        qx = ox + s.number();
+                        qy = oy + s.number();
+                        cx = ox + s.number();
+                        cy = oy + s.number();
+                        path.curveTo(x1, y1, qx, qy, cx, cy);
+                        break;
+                    }
+                case 'S':
+                    {
+                        boolean smooth = prev == 'C' || prev == 'S';
+                        double x1 = smooth ? 2 * cx - qx : cx, y1 = smooth ? 2 * cy - qy : cy;
+                        qx = ox + s.number();
+                        qy = oy + s.number();
+                        cx = ox + s.number();
+                        cy = oy + s.number();
+                        path.curveTo(x1, y1, qx, qy, cx, cy);
+                        break;
+                    }
+                case 'Q':
+                    qx = ox + s.number();
+                    qy = oy + s.number();
+                    cx = ox + s.number();
+                    cy = oy + s.number();
+                    path.quadTo(qx, qy, cx, cy);
+                    break;
+                case 'T':
+                    {
+                        boolean smooth = prev == 'Q' || prev == 'T';
+                        qx = smooth ? 2 * cx - qx : cx;
+                        qy = smooth ? 2 * cy - qy : cy;
+                        cx = ox + s.number();
+                        cy = oy + s.number();
+                        path.quadTo(qx, qy, cx, cy);
+                        break;
+                    }
+                case 'A':
+                    {
+                        double rx = s.number(), ry = s.number(), angle = s.number();
+                        boolean large = s.flag(), sweep = s.flag();
+                        double x = ox + s.number(), y = oy + s.number();
+                        arcTo(path, cx, cy, rx, ry, angle, large, sweep, x, y);
+                        cx = x;
+                        cy = y;
+                        break;
+                    }
+                case 'Z':
+                    path.closePath();
+                    cx = sx;
+                    cy = sy;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command " + cmd);
+            }
+            prev = upper;
+        }
+        return path;
+    }
+
+    /** SVG endpoint arc (implementation notes, appendix F.6) via a rotated {@link Arc2D}. */
+    private static void arcTo(
+            Path2D path,
+            double x0,
+            double y0,
+            double rx,
+            double ry,
+            double angle,
+            boolean large,
+            boolean sweep,
+            double x,
+            double y) {
+        if (rx == 0 || ry == 0) {
+            path.lineTo(x, y);
+            return;
+        }
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+        double phi = Math.toRadians(angle % 360);
+        double cos = Math.cos(phi), sin = Math.sin(phi);
+        double dx = (x0 - x) / 2, dy = (y0 - y) / 2;
+        double x1 = cos * dx + sin * dy, y1 = -sin * dx + cos * dy;
+        double lambda = (x1 * x1) / (rx * rx) + (y1 * y1) / (ry * ry);
+        if (lambda > 1) {
+            rx *= Math.sqrt(lambda);
+            ry *= Math.sqrt(lambda);
+        }
+        double num = rx * rx * ry * ry - rx * rx * y1 * y1 - ry * ry * x1 * x1;
+        double den = rx * rx * y1 * y1 + ry * ry * x1 * x1;
+        double coef = Math.sqrt(Math.max(0, num / den)) * (large == sweep ? -1 : 1);
+        double cx1 = coef * rx * y1 / ry, cy1 = -coef * ry * x1 / rx;
+        double cx = cos * cx1 - sin * cy1 + (x0 + x) / 2;
+        double cy = sin * cx1 + cos * cy1 + (y0 + y) / 2;
+        double start = Math.toDegrees(Math.atan2((y1 - cy1) / ry, (x1 - cx1) / rx));
+        double end = Math.toDegrees(Math.atan2((-y1 - cy1) / ry, (-x1 - cx1) / rx));
+        double extent = end - start;
+        if (sweep && extent < 0) extent += 360;
+        if (!sweep && extent > 0) extent -= 360;
+        // Arc2D measures angles counter-clockwise in a y-up sense; negate for y-down.
+        Arc2D arc = new Arc2D.Double(-rx, -ry, 2 * rx, 2 * ry, -start, -extent, Arc2D.OPEN);
+        AffineTransform t = AffineTransform.getTranslateInstance(cx, cy);
+        t.rotate(phi);
+        path.append(t.createTransformedShape(arc).getPathIterator(null), true);
+        path.lineTo(x, y);
+    }
+
+    private static final class Scanner {
+        private final String s;
+        private int i;
+
+        Scanner(String s) {
+            this.s = s;
+        }
+
+        boolean more() {
+            skip();
+            return i < s.length();
+        }
+
+        private void skip() {
+            while (i < s.length() && (s.charAt(i) == ',' || Character.isWhitespace(s.charAt(i)))) {
+                i++;
+            }
+        }
+
+        boolean atCommand() {
+            char c = s.charAt(i);
+            return Character.isLetter(c) && c != 'e' && c != 'E';
+        }
+
+        char command() {
+            return s.charAt(i++);
+        }
+
+        boolean flag() {
+            skip();
+            return s.charAt(i++) == '1';
+        }
+
+        double number() {
+            skip();
+            int start = i;
+            if (s.charAt(i) == '-' || s.charAt(i) == '+') i++;
+            boolean dot = false;
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (Character.isDigit(c)) {
+                    i++;
+                } else if (c == '.' && !dot) {
+                    dot = true;
+                    i++;
+                } else if (c == 'e' || c == 'E') {
+                    i++;
+                    if (s.charAt(i) == '-' || s.charAt(i) == '+') i++;
+                } else {
+                    break;
+                }
+            }
+            return Double.parseDouble(s.substring(start, i));
+        }
+    }
+}
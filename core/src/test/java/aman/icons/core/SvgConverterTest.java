@@ -0,0 +1,172 @@
+package aman.icons.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Golden files under {@code golden/} for {@link #ICONS} are the output of the template converter
+ * the streaming one replaced, for the Material Symbols SVGs under {@code svg/}. Single-path icons
+ * must still come out byte for byte the same, and malformed input must fail instead of yielding
+ * partial XML. The {@link #FEATURES} fixtures each exercise one part of SVG the template converter
+ * never handled; their goldens were checked by hand against the SVG rendering rules.
+ */
+public class SvgConverterTest {
+
+    private static final List<String> ICONS =
+            Arrays.asList("add", "check", "close", "home", "radio_button_unchecked", "settings");
+
+    private static final List<String> FEATURES =
+            Arrays.asList(
+                    "multi_path",
+                    "groups",
+                    "transforms",
+                    "even_odd",
+                    "opacity_style",
+                    "shapes",
+                    "nested_svg");
+
+    @Test
+    public void matchesTemplateConverterOutput() throws IOException {
+        for (String name : ICONS) {
+            String svg = resource("svg/" + name + ".svg");
+            String golden = resource("golden/" + SvgConverter.fileName(name));
+            assertEquals(name, golden, SvgConverter.toVectorDrawable(svg));
+            assertArrayEquals(
+                    name,
+                    golden.getBytes(StandardCharsets.UTF_8),
+                    SvgConverter.toVectorDrawableBytes(svg));
+        }
+    }
+
+    @Test
+    public void featureFixturesMatchGoldenFiles() throws IOException {
+        for (String name : FEATURES) {
+            String svg = resource("svg/" + name + ".svg");
+            String golden = resource("golden/" + SvgConverter.fileName(name));
+            assertEquals(name, golden, SvgConverter.toVectorDrawable(svg));
+            assertArrayEquals(
+                    name,
+                    golden.getBytes(StandardCharsets.UTF_8),
+                    SvgConverter.toVectorDrawableBytes(svg));
+        }
+    }
+
+    @Test
+    public void skewedTransformsComposeBackToTheirMatrix() throws IOException {
+        assertGroupsCompose("matrix(1 0.5 -0.3 2 4 5)", 1, 0.5, -0.3, 2, 4, 5);
+        assertGroupsCompose("matrix(-1 0.2 0.4 1 3 0)", -1, 0.2, 0.4, 1, 3, 0);
+        assertGroupsCompose("skewX(30)", 1, 0, Math.tan(Math.toRadians(30)), 1, 0, 0);
+        assertGroupsCompose("skewY(-20)", 1, Math.tan(Math.toRadians(-20)), 0, 1, 0, 0);
+    }
+
+    @Test
+    public void zipEntriesMatchGoldenFiles() throws IOException {
+        ZipExporter.Encoder encoder = ZipExporter.vectorEncoder(false);
+        for (String name : ICONS) {
+            List<ZipExporter.Entry> entries = encoder.encode(name, resource("svg/" + name + ".svg"));
+            assertEquals(1, entries.size());
+            assertEquals(
+                    ZipExporter.ENTRY_DIR + SvgConverter.fileName(name), entries.get(0).path);
+            assertEquals(
+                    resource("golden/" + SvgConverter.fileName(name)),
+                    new String(entries.get(0).data, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void truncatedSvgThrows() throws IOException {
+        String svg = resource("svg/home.svg");
+        assertConversionFails(svg.substring(0, svg.indexOf("<path") + 12));
+    }
+
+    @Test
+    public void nonSvgRootThrows() {
+        assertConversionFails("<html><body/></html>");
+    }
+
+    @Test
+    public void emptyDocumentThrows() {
+        assertConversionFails("");
+    }
+
+    /**
+     * Multiplies out the groups written for {@code transform} the way VectorDrawable applies them
+     * (scale, then rotate, then translate, outermost group last) and compares with the matrix.
+     */
+    private static void assertGroupsCompose(String transform, double... expected)
+            throws IOException {
+        String xml =
+                SvgConverter.toVectorDrawable(
+                        "<svg viewBox=\"0 0 24 24\"><path transform=\""
+                                + transform
+                                + "\" d=\"M0 0h1v1z\"/></svg>");
+        double[] m = {1, 0, 0, 1, 0, 0};
+        Matcher group = Pattern.compile("<group([^>]*)>").matcher(xml);
+        while (group.find()) {
+            String attrs = group.group(1);
+            double r = Math.toRadians(attribute(attrs, "rotation", 0));
+            double sx = attribute(attrs, "scaleX", 1), sy = attribute(attrs, "scaleY", 1);
+            double cos = Math.cos(r), sin = Math.sin(r);
+            double[] g = {
+                cos * sx,
+                sin * sx,
+                -sin * sy,
+                cos * sy,
+                attribute(attrs, "translateX", 0),
+                attribute(attrs, "translateY", 0)
+            };
+            m =
+                    new double[] {
+                        m[0] * g[0] + m[2] * g[1],
+                        m[1] * g[0] + m[3] * g[1],
+                        m[0] * g[2] + m[2] * g[3],
+                        m[1] * g[2] + m[3] * g[3],
+                        m[0] * g[4] + m[2] * g[5] + m[4],
+                        m[1] * g[4] + m[3] * g[5] + m[5]
+                    };
+        }
+        assertArrayEquals(transform, expected, m, 1e-3);
+    }
+
+    private static double attribute(String attrs, String name, double fallback) {
+        Matcher m = Pattern.compile("android:" + name + "=\"([^\"]*)\"").matcher(attrs);
+        return m.find() ? Double.parseDouble(m.group(1)) : fallback;
+    }
+
+    private static void assertConversionFails(String svg) {
+        try {
+            String xml = SvgConverter.toVectorDrawable(svg);
+            fail("expected a parse failure, got " + xml);
+        } catch (IOException expected) {
+            assertNotNull(expected.getMessage());
+        }
+        try {
+            SvgConverter.toVectorDrawableBytes(svg);
+            fail("expected a parse failure");
+        } catch (IOException expected) {
+            // A failed icon, not a partial drawable
+        }
+    }
+
+    private static String resource(String path) throws IOException {
+        try (InputStream in = SvgConverterTest.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IOException("Missing test resource " + path);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = in.read(buf)) != -1; ) out.write(buf, 0, n);
+            return out.toString("UTF-8");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package aman.icons.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Test;
+
+/**
+ * The ZIP export contract: entries come out in input order whatever order the workers finish
+ * in, failed icons are counted and left out, and no more than the window of icons is ever
+ * loaded ahead of the writer.
+ */
+public class ZipExporterTest {
+
+    private static final List<String> ICONS =
+            Arrays.asList("add", "check", "close", "home", "radio_button_unchecked", "settings");
+
+    @Test
+    public void entriesMatchGoldenFilesInInputOrder() throws IOException {
+        List<String> names = numbered(120);
+        // Within each run of seven loads the later ones finish first, so any
+        // reordering by completion would show
+        AtomicInteger loads = new AtomicInteger();
+        ZipExporter.SvgSource source =
+                name -> {
+                    sleep(7 - loads.incrementAndGet() % 7);
+                    return resource("svg/" + fixture(name) + ".svg");
+                };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipExporter.Result result =
+                new ZipExporter(source, 4, ZipExporter.vectorEncoder(false))
+                        .export(names, out, null);
+
+        assertEquals(names.size(), result.written);
+        assertEquals(0, result.failed);
+        assertEquals(out.size(), result.bytesOut);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (String name : names) {
+                ZipEntry entry = zip.getNextEntry();
+                assertEquals(ZipExporter.ENTRY_DIR + SvgConverter.fileName(name), entry.getName());
+                assertEquals(
+                        resource("golden/" + SvgConverter.fileName(fixture(name))),
+                        new String(readAll(zip), StandardCharsets.UTF_8));
+            }
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    public void failedIconsAreCountedAndSkipped() throws IOException {
+        List<String> names = Arrays.asList("home", "missing", "broken", "check");
+        ZipExporter.SvgSource source =
+                name -> {
+                    if (name.equals("missing")) throw new IOException("404");
+                    if (name.equals("broken")) return "<svg><path d=";
+                    return resource("svg/" + name + ".svg");
+                };
+        List<int[]> progress = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipExporter.Result result =
+                new ZipExporter(source, 2, ZipExporter.vectorEncoder(false))
+                        .export(
+                                names,
+                                out,
+                                (done, failed, total) ->
+                                        progress.add(new int[] {done, failed, total}));
+
+        assertEquals(2, result.written);
+        assertEquals(2, result.failed);
+        assertEquals(names.size(), progress.size());
+        int[] last = progress.get(progress.size() - 1);
+        assertEquals(2, last[0]);
+        assertEquals(2, last[1]);
+        assertEquals(4, last[2]);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(ZipExporter.ENTRY_DIR + "ic_home.xml", zip.getNextEntry().getName());
+            assertEquals(ZipExporter.ENTRY_DIR + "ic_check.xml", zip.getNextEntry().getName());
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    public void loadsStayWithinTheWindowAheadOfTheWriter() throws IOException {
+        int parallelism = 3;
+        int window = parallelism * 4;
+        List<String> names = numbered(500);
+        String[] svgs = new String[ICONS.size()];
+        for (int i = 0; i < svgs.length; i++) svgs[i] = resource("svg/" + ICONS.get(i) + ".svg");
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        ZipExporter.SvgSource source =
+                name -> {
+                    loads.incrementAndGet();
+                    return svgs[ICONS.indexOf(fixture(name))];
+                };
+        ZipExporter.Result result =
+                new ZipExporter(source, parallelism, ZipExporter.vectorEncoder(true))
+                        .export(
+                                names,
+                                new ByteArrayOutputStream(),
+                                (done, failed, total) ->
+                                        maxAhead.set(
+                                                Math.max(
+                                                        maxAhead.get(),
+                                                        loads.get() - done - failed)));
+
+        assertEquals(names.size(), result.written);
+        assertEquals(names.size(), loads.get());
+        assertTrue("loaded " + maxAhead.get() + " ahead", maxAhead.get() < window);
+        assertTrue(result.pathBytesSaved > 0);
+    }
+
+    @Test
+    public void cancelStopsBeforeTheRest() throws IOException {
+        List<String> names = numbered(200);
+        String svg = resource("svg/home.svg");
+        ZipExporter exporter = new ZipExporter(name -> svg, 2, ZipExporter.vectorEncoder(false));
+        ZipExporter.Result result =
+                exporter.export(
+                        names,
+                        new ByteArrayOutputStream(),
+                        (done, failed, total) -> {
+                            if (done == 10) exporter.cancel();
+                        });
+
+        assertEquals(10, result.written);
+        assertFalse(result.written + result.failed == names.size());
+    }
+
+    /** Distinct entry names cycling through the fixture icons, e.g. {@code add_0, check_1}. */
+    private static List<String> numbered(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) names.add(ICONS.get(i % ICONS.size()) + "_" + i);
+        return names;
+    }
+
+    private static String fixture(String name) {
+        return name.substring(0, name.lastIndexOf('_'));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        for (int n; (n = in.read(buf)) != -1; ) out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    private static String resource(String path) throws IOException {
+        try (InputStream in = ZipExporterTest.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IOException("Missing test resource " + path);
+            return new String(readAll(in), StandardCharsets.UTF_8);
+        }
+    }
+}